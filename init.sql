@@ -19,9 +19,10 @@ CREATE TABLE IF NOT EXISTS users (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
 ) COMMENT '用户表';
 
--- 认证Token表
+-- 认证Token表（只保存Token的SHA-256，过期记录由 siteup-auth 定时分批清理）
+-- 旧版本以 VARCHAR(500) token 为主键：升级时执行 DROP TABLE auth_token 后重建，已登录用户需重新登录
 CREATE TABLE IF NOT EXISTS auth_token (
-    token VARCHAR(500) PRIMARY KEY COMMENT 'JWT Token字符串',
+    token_hash BINARY(32) PRIMARY KEY COMMENT 'Token的SHA-256',
     user_id BIGINT NOT NULL COMMENT '关联用户ID',
     issued_at TIMESTAMP NOT NULL COMMENT 'Token发放时间',
     expires_at TIMESTAMP NULL COMMENT 'Token过期时间',
@@ -29,6 +30,22 @@ CREATE TABLE IF NOT EXISTS auth_token (
     INDEX idx_expires_at (expires_at)
 ) COMMENT '认证Token表';
 
+-- 签名Token密钥表（siteup.auth.token.format=signed）
+CREATE TABLE IF NOT EXISTS signing_key (
+    kid VARCHAR(32) PRIMARY KEY COMMENT '密钥ID，写入Token头部',
+    public_key VARBINARY(128) NOT NULL COMMENT 'Ed25519公钥（X.509编码）',
+    private_key VARBINARY(128) NOT NULL COMMENT 'Ed25519私钥（PKCS#8编码）',
+    created_at TIMESTAMP NOT NULL COMMENT '创建时间',
+    retired_at TIMESTAMP NULL COMMENT '停止签发时间，之后仍发布公钥直到其签发的Token全部过期'
+) COMMENT '签名Token密钥表';
+
+-- 已撤销的签名Token（登出），Token过期后删除
+CREATE TABLE IF NOT EXISTS revoked_token (
+    jti VARCHAR(32) PRIMARY KEY COMMENT 'Token ID',
+    expires_at TIMESTAMP NOT NULL COMMENT 'Token过期时间',
+    INDEX idx_revoked_expires_at (expires_at)
+) COMMENT '已撤销的签名Token';
+
 -- 插入示例用户数据
 INSERT IGNORE INTO users (username, password, role) VALUES
 ('demo_user', '$2a$10$xHcLpJCJZMJ9X8VzKU8rUe6N6YrO8dKF8qQzU8dKF8qQzU8dKF8qQ', 'USER'),
@@ -58,7 +75,9 @@ CREATE TABLE IF NOT EXISTS project (
     template_id VARCHAR(255) NOT NULL COMMENT '使用的模板ID',
     user_id VARCHAR(255) NOT NULL COMMENT '创建者用户ID',
     config TEXT COMMENT '项目配置JSON（从模板复制并修改）',
-    generated_html TEXT COMMENT '生成的HTML内容',
+    html_hash CHAR(64) NULL COMMENT '生成的HTML在产物存储中的SHA-256',
+    html_size BIGINT NULL COMMENT '生成的HTML字节数',
+    html_generated_at TIMESTAMP NULL COMMENT 'HTML生成时间',
     status VARCHAR(255) NOT NULL DEFAULT 'draft' COMMENT '项目状态：draft, published, archived',
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
@@ -66,8 +85,32 @@ CREATE TABLE IF NOT EXISTS project (
     public_url VARCHAR(500) COMMENT '公开访问URL',
     INDEX idx_user_id (user_id),
     INDEX idx_template_id (template_id),
-    INDEX idx_status (status)
+    INDEX idx_status (status),
+    INDEX idx_template_status (template_id, status)
 ) COMMENT '用户项目表';
+
+-- 批量重新发布任务表（断点续跑）
+CREATE TABLE IF NOT EXISTS republish_run (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '任务ID',
+    template_id VARCHAR(255) NOT NULL COMMENT '模板ID',
+    status_filter VARCHAR(255) NULL COMMENT '只处理该状态的项目，NULL 表示不限',
+    state VARCHAR(16) NOT NULL COMMENT '任务状态：QUEUED, RUNNING, PAUSED, COMPLETED, FAILED',
+    batch_size INT NOT NULL COMMENT '每批渲染的项目数',
+    max_per_second INT NOT NULL DEFAULT 0 COMMENT '每秒最多处理的项目数，0 表示不限',
+    last_project_id BIGINT NOT NULL DEFAULT 0 COMMENT '断点：已提交的最大项目ID',
+    total_projects BIGINT NOT NULL DEFAULT 0 COMMENT '创建时匹配的项目数',
+    processed BIGINT NOT NULL DEFAULT 0 COMMENT '已处理项目数',
+    succeeded BIGINT NOT NULL DEFAULT 0 COMMENT '成功数',
+    failed BIGINT NOT NULL DEFAULT 0 COMMENT '失败数',
+    last_error VARCHAR(1000) NULL COMMENT '最近一次中断原因',
+    created_at DATETIME NOT NULL COMMENT '创建时间',
+    updated_at DATETIME NOT NULL COMMENT '更新时间',
+    finished_at DATETIME NULL COMMENT '完成时间',
+    pause_requested BOOLEAN NOT NULL DEFAULT FALSE COMMENT '已请求暂停，执行实例在批次之间检查',
+    owner VARCHAR(64) NULL COMMENT '正在执行任务的实例',
+    heartbeat_at DATETIME NULL COMMENT '执行实例最近一次心跳，超过租约视为失效',
+    INDEX idx_republish_state (state)
+) COMMENT '批量重新发布任务表';
 -- 插入示例模板数据
 INSERT IGNORE INTO template (id, name, description, category, thumbnail_url, config, theme_config, active) VALUES
 (
@@ -111,11 +154,29 @@ CREATE TABLE IF NOT EXISTS generation_history (
     error_message TEXT COMMENT '错误信息（失败时记录）',
     html_size_kb DECIMAL(10,2) COMMENT '生成的HTML大小（KB）',
     user_id VARCHAR(255) COMMENT '操作用户ID',
-    INDEX idx_project_id (project_id),
-    INDEX idx_generated_at (generated_at),
-    INDEX idx_success (success)
+    INDEX idx_project_generated (project_id, generated_at),
+    INDEX idx_user_generated (user_id, generated_at),
+    INDEX idx_generated_at (generated_at)
 ) COMMENT '网站生成历史记录表';
 
+-- 生成统计汇总表（按维度和时间粒度预聚合）
+CREATE TABLE IF NOT EXISTS generation_stats_rollup (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
+    scope VARCHAR(16) NOT NULL COMMENT '维度：GLOBAL/PROJECT/TEMPLATE/USER；BACKFILL 为回填标记行（success_count 存回填上界 id）',
+    scope_key VARCHAR(255) NOT NULL COMMENT '维度取值（全局为空字符串）',
+    granularity VARCHAR(16) NOT NULL COMMENT '粒度：MINUTE/HOUR/DAY/TOTAL',
+    bucket_start DATETIME NOT NULL COMMENT '时间桶起点（TOTAL 固定为 1970-01-01）',
+    success_count BIGINT NOT NULL DEFAULT 0 COMMENT '成功次数',
+    failure_count BIGINT NOT NULL DEFAULT 0 COMMENT '失败次数',
+    duration_sum_ms BIGINT NOT NULL DEFAULT 0 COMMENT '耗时总和（毫秒）',
+    size_sum_bytes BIGINT NOT NULL DEFAULT 0 COMMENT 'HTML大小总和（字节）',
+    duration_histogram TEXT COMMENT '耗时直方图',
+    size_histogram TEXT COMMENT 'HTML大小直方图',
+    updated_at TIMESTAMP NULL COMMENT '最后合并时间',
+    UNIQUE KEY uk_rollup_bucket (scope, scope_key, granularity, bucket_start),
+    INDEX idx_rollup_granularity_bucket (granularity, bucket_start)
+) COMMENT '生成统计汇总表';
+
 -- 为root用户授予所有数据库的权限
 GRANT ALL PRIVILEGES ON siteup_auth.* TO 'root'@'localhost';
 GRANT ALL PRIVILEGES ON siteup_biz.* TO 'root'@'localhost';
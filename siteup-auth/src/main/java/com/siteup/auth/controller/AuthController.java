@@ -1,9 +1,13 @@
 package com.siteup.auth.controller;
 
 import com.siteup.auth.service.AuthService;
+import com.siteup.auth.service.SignedTokenService;
+import com.siteup.auth.service.TokenVerificationService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,17 +18,20 @@ public class AuthController {
 
     private final AuthService authService;
     private final ObjectMapper objectMapper;
-    private final com.siteup.auth.repository.AuthTokenRepository authTokenRepository;
-    private final com.siteup.auth.repository.UserRepository userRepository;
+    private final SignedTokenService signedTokenService;
+    private final TokenVerificationService verificationService;
+
+    @Value("${siteup.auth.verify.max-batch:100}")
+    private int maxBatch;
 
     public AuthController(AuthService authService,
                          ObjectMapper objectMapper,
-                         com.siteup.auth.repository.AuthTokenRepository authTokenRepository,
-                         com.siteup.auth.repository.UserRepository userRepository) {
+                         SignedTokenService signedTokenService,
+                         TokenVerificationService verificationService) {
         this.authService = authService;
         this.objectMapper = objectMapper;
-        this.authTokenRepository = authTokenRepository;
-        this.userRepository = userRepository;
+        this.signedTokenService = signedTokenService;
+        this.verificationService = verificationService;
     }
 
     @PostMapping("/register")
@@ -69,29 +76,49 @@ public class AuthController {
         }
 
         String token = authHeader.substring(7); // Remove "Bearer " prefix
+        return ResponseEntity.ok(verificationService.verify(token));
+    }
 
-        // Check DB for token
-        var opt = authTokenRepository.findByToken(token);
-        if (opt.isEmpty()) {
-            return ResponseEntity.ok(Map.of("valid", false, "message", "Invalid token"));
+    /**
+     * Verify several tokens in one call; results are returned in request order
+     */
+    @PostMapping("/verify/batch")
+    public ResponseEntity<Map<String, Object>> verifyTokens(@RequestBody Map<String, List<String>> request) {
+        List<String> tokens = request.get("tokens");
+        if (tokens == null || tokens.isEmpty() || tokens.contains(null)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Tokens are required"
+            ));
         }
-
-        var authToken = opt.get();
-        if (authToken.getExpiresAt() != null && authToken.getExpiresAt().isBefore(java.time.LocalDateTime.now())) {
-            return ResponseEntity.ok(Map.of("valid", false, "message", "Token expired"));
+        if (tokens.size() > maxBatch) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "At most " + maxBatch + " tokens per request"
+            ));
         }
 
-        var user = userRepository.findById(authToken.getUserId()).orElse(null);
-        if (user == null) {
-            return ResponseEntity.ok(Map.of("valid", false, "message", "User not found"));
+        return ResponseEntity.ok(Map.of("results", verificationService.verifyAll(tokens)));
+    }
+
+    /**
+     * Public keys and revoked jtis for local verification of signed tokens (polled by gateway and biz)
+     */
+    @GetMapping("/keys")
+    public ResponseEntity<Map<String, Object>> keys() {
+        return ResponseEntity.ok(signedTokenService.keySet());
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Invalid token format"
+            ));
         }
 
-        return ResponseEntity.ok(Map.of(
-            "valid", true,
-            "message", "Token is valid",
-            "userId", user.getId(),
-            "username", user.getUsername(),
-            "role", user.getRole()
-        ));
+        Map<String, Object> result = authService.logout(authHeader.substring(7));
+        return ResponseEntity.ok(result);
     }
 }
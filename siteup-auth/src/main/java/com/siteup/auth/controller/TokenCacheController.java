@@ -0,0 +1,65 @@
+package com.siteup.auth.controller;
+
+import com.siteup.auth.service.TokenVerificationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Internal endpoint called by the other auth instances on logout, so a token revoked on one
+ * instance is not still verified from another instance's cache.
+ *
+ * Requires an X-Internal-Token matching siteup.auth.revocation.token; every request is refused
+ * when none is configured.
+ */
+@RestController
+public class TokenCacheController {
+
+    static final String HEADER = "X-Internal-Token";
+
+    private final TokenVerificationService verificationService;
+
+    @Value("${siteup.auth.revocation.token:}")
+    private String internalToken;
+
+    @Value("${siteup.auth.revocation.max-entries-per-request:1000}")
+    private int maxPerRequest;
+
+    public TokenCacheController(TokenVerificationService verificationService) {
+        this.verificationService = verificationService;
+    }
+
+    @PostMapping("/internal/token-cache/evict")
+    public ResponseEntity<Map<String, Object>> evict(@RequestHeader(value = HEADER, required = false) String token,
+                                                     @RequestBody Map<String, List<String>> body) {
+        if (!matches(internalToken, token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        List<String> tokenHashes = body.getOrDefault("tokenHashes", List.of());
+        if (tokenHashes.size() > maxPerRequest) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of(
+                "message", "At most " + maxPerRequest + " entries per request"
+            ));
+        }
+        verificationService.evictHexHashes(tokenHashes);
+        return ResponseEntity.ok(Map.of("evicted", tokenHashes.size()));
+    }
+
+    static boolean matches(String configured, String presented) {
+        if (configured == null || configured.isEmpty() || presented == null) {
+            return false;
+        }
+        // constant-time comparison, so the token cannot be guessed byte by byte from response timing
+        return MessageDigest.isEqual(configured.getBytes(StandardCharsets.UTF_8),
+                presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,14 +2,27 @@ package com.siteup.auth.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 
+/**
+ * Opaque login token. Only the SHA-256 of the token is stored: a fixed 32-byte key keeps the
+ * primary key (and every secondary index, which embeds it) small, and a leaked table cannot be
+ * replayed as bearer tokens.
+ */
 @Data
 @Entity
-@Table(name = "auth_token")
+@Table(name = "auth_token", indexes = {
+    @Index(name = "idx_user_id", columnList = "userId"),
+    @Index(name = "idx_expires_at", columnList = "expiresAt")
+})
 public class AuthToken {
     @Id
-    private String token;
+    @Column(columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
 
     @Column(nullable = false)
     private Long userId;
@@ -19,8 +32,8 @@ public class AuthToken {
 
     private LocalDateTime expiresAt;
     // Explicit getters and setters for compilation
-    public String getToken() { return token; }
-    public void setToken(String token) { this.token = token; }
+    public byte[] getTokenHash() { return tokenHash; }
+    public void setTokenHash(byte[] tokenHash) { this.tokenHash = tokenHash; }
 
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
@@ -30,6 +43,15 @@ public class AuthToken {
 
     public LocalDateTime getExpiresAt() { return expiresAt; }
     public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
-}
-
 
+    /**
+     * Primary key of a token: SHA-256 of its UTF-8 bytes
+     */
+    public static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
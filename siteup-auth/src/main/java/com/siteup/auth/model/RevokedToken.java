@@ -0,0 +1,24 @@
+package com.siteup.auth.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Signed token revoked before its expiry (logout). Rows are only needed until the token expires.
+ */
+@Entity
+@Table(name = "revoked_token", indexes = @Index(name = "idx_revoked_expires_at", columnList = "expiresAt"))
+public class RevokedToken {
+    @Id
+    @Column(length = 32)
+    private String jti;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public String getJti() { return jti; }
+    public void setJti(String jti) { this.jti = jti; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
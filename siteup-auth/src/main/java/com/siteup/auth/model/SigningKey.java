@@ -0,0 +1,42 @@
+package com.siteup.auth.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Ed25519 key pair used to sign self-contained tokens. The newest non-retired key signs;
+ * retired keys stay published until every token they signed has expired.
+ */
+@Entity
+@Table(name = "signing_key")
+public class SigningKey {
+    @Id
+    @Column(length = 32)
+    private String kid;
+
+    @Column(nullable = false, length = 128)
+    private byte[] publicKey;
+
+    @Column(nullable = false, length = 128)
+    private byte[] privateKey;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime retiredAt;
+
+    public String getKid() { return kid; }
+    public void setKid(String kid) { this.kid = kid; }
+
+    public byte[] getPublicKey() { return publicKey; }
+    public void setPublicKey(byte[] publicKey) { this.publicKey = publicKey; }
+
+    public byte[] getPrivateKey() { return privateKey; }
+    public void setPrivateKey(byte[] privateKey) { this.privateKey = privateKey; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getRetiredAt() { return retiredAt; }
+    public void setRetiredAt(LocalDateTime retiredAt) { this.retiredAt = retiredAt; }
+}
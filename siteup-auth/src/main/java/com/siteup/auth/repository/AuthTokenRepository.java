@@ -2,13 +2,34 @@ package com.siteup.auth.repository;
 
 import com.siteup.auth.model.AuthToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.List;
 
+/**
+ * Tokens are keyed by {@link AuthToken#hash(String)}; look them up with findById / findAllById.
+ */
 @Repository
-public interface AuthTokenRepository extends JpaRepository<AuthToken, String> {
-    Optional<AuthToken> findByToken(String token);
-}
+public interface AuthTokenRepository extends JpaRepository<AuthToken, byte[]> {
 
+    /**
+     * A user's unexpired tokens, newest first (idx_user_id)
+     */
+    @Query("SELECT t FROM AuthToken t WHERE t.userId = :userId AND (t.expiresAt IS NULL OR t.expiresAt > :now) "
+        + "ORDER BY t.issuedAt DESC")
+    List<AuthToken> findActiveByUserId(Long userId, LocalDateTime now);
 
+    /**
+     * Delete at most {@code limit} expired tokens, oldest first, walking idx_expires_at
+     *
+     * @return rows deleted; less than limit means nothing expired is left
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM auth_token WHERE expires_at < :now ORDER BY expires_at LIMIT :limit", nativeQuery = true)
+    int deleteExpired(LocalDateTime now, int limit);
+}
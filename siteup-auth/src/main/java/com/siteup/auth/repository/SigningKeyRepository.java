@@ -0,0 +1,28 @@
+package com.siteup.auth.repository;
+
+import com.siteup.auth.model.SigningKey;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+    Optional<SigningKey> findFirstByRetiredAtIsNullOrderByCreatedAtDesc();
+
+    List<SigningKey> findByRetiredAtIsNull();
+
+    /**
+     * SELECT ... FOR UPDATE on the active keys; must run inside a transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT k FROM SigningKey k WHERE k.retiredAt IS NULL")
+    List<SigningKey> lockActive();
+
+    List<SigningKey> findByRetiredAtIsNullOrRetiredAtAfter(LocalDateTime cutoff);
+}
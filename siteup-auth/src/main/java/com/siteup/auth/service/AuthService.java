@@ -4,8 +4,10 @@ import com.siteup.auth.exception.InvalidCredentialsException;
 import com.siteup.auth.exception.UserNotFoundException;
 import com.siteup.auth.model.User;
 import com.siteup.auth.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,11 +17,24 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final com.siteup.auth.repository.AuthTokenRepository authTokenRepository;
+    private final TokenRevocationPublisher revocationPublisher;
+    private final SignedTokenService signedTokenService;
+    private final TokenVerificationService verificationService;
+
+    // 0 = unlimited; the oldest tokens beyond the cap are logged out at login
+    @Value("${siteup.auth.token.max-per-user:10}")
+    private int maxTokensPerUser;
 
     public AuthService(UserRepository userRepository,
-                      com.siteup.auth.repository.AuthTokenRepository authTokenRepository) {
+                      com.siteup.auth.repository.AuthTokenRepository authTokenRepository,
+                      TokenRevocationPublisher revocationPublisher,
+                      SignedTokenService signedTokenService,
+                      TokenVerificationService verificationService) {
         this.userRepository = userRepository;
         this.authTokenRepository = authTokenRepository;
+        this.revocationPublisher = revocationPublisher;
+        this.signedTokenService = signedTokenService;
+        this.verificationService = verificationService;
     }
 
     public Map<String, Object> register(String username, String password) {
@@ -58,25 +73,99 @@ public class AuthService {
             throw new InvalidCredentialsException();
         }
 
+        // Signed mode: self-contained token, nothing to persist
+        String token;
+        if (signedTokenService.isEnabled()) {
+            token = signedTokenService.issue(user).token();
+        } else {
+            token = issueOpaqueToken(user);
+        }
+
+        return Map.of(
+            "success", true,
+            "message", "Login successful",
+            "token", token,
+            "tokenType", "Bearer",
+            "userId", user.getId(),
+            "username", user.getUsername(),
+            "role", user.getRole()
+        );
+    }
+
+    private String issueOpaqueToken(User user) {
         // Generate token
         String token = "siteup-token-" + UUID.randomUUID().toString();
 
         // persist token
         com.siteup.auth.model.AuthToken authToken = new com.siteup.auth.model.AuthToken();
-        authToken.setToken(token);
+        authToken.setTokenHash(com.siteup.auth.model.AuthToken.hash(token));
         authToken.setUserId(user.getId());
         authToken.setIssuedAt(java.time.LocalDateTime.now());
         authToken.setExpiresAt(java.time.LocalDateTime.now().plusHours(8));
         authTokenRepository.save(authToken);
+        // warm the verification cache: the first request with this token will not hit the DB
+        verificationService.cache(token, user, authToken.getExpiresAt());
+        enforceTokenCap(user);
+        return token;
+    }
+
+    private void enforceTokenCap(User user) {
+        if (maxTokensPerUser <= 0) {
+            return;
+        }
+        List<com.siteup.auth.model.AuthToken> active =
+            authTokenRepository.findActiveByUserId(user.getId(), java.time.LocalDateTime.now());
+        if (active.size() <= maxTokensPerUser) {
+            return;
+        }
+
+        List<com.siteup.auth.model.AuthToken> evicted = active.subList(maxTokensPerUser, active.size());
+        List<byte[]> hashes = evicted.stream().map(com.siteup.auth.model.AuthToken::getTokenHash).toList();
+        authTokenRepository.deleteAllByIdInBatch(hashes);
+        verificationService.evictHashes(hashes);
+        revocationPublisher.revokedHashes(hashes);
+    }
+
+    public Map<String, Object> logout(String token) {
+        if (SignedTokenService.isSigned(token)) {
+            return logoutSigned(token);
+        }
+        byte[] tokenHash = com.siteup.auth.model.AuthToken.hash(token);
+        if (!authTokenRepository.existsById(tokenHash)) {
+            return Map.of(
+                "success", false,
+                "message", "Invalid token"
+            );
+        }
+
+        // delete the token, then tell the gateways to drop their cached verification
+        authTokenRepository.deleteById(tokenHash);
+        verificationService.evict(token);
+        revocationPublisher.revoked(token, null);
 
         return Map.of(
             "success", true,
-            "message", "Login successful",
-            "token", token,
-            "tokenType", "Bearer",
-            "userId", user.getId(),
-            "username", user.getUsername(),
-            "role", user.getRole()
+            "message", "Logout successful"
+        );
+    }
+
+    private Map<String, Object> logoutSigned(String token) {
+        SignedTokenService.Claims claims = signedTokenService.parse(token);
+        if (claims == null) {
+            return Map.of(
+                "success", false,
+                "message", "Invalid token"
+            );
+        }
+
+        // signed tokens cannot be deleted: list the jti as revoked until the token expires
+        signedTokenService.revoke(claims);
+        verificationService.evict(token);
+        revocationPublisher.revoked(token, claims);
+
+        return Map.of(
+            "success", true,
+            "message", "Logout successful"
         );
     }
 }
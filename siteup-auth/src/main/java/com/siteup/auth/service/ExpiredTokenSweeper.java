@@ -0,0 +1,89 @@
+package com.siteup.auth.service;
+
+import com.siteup.auth.repository.AuthTokenRepository;
+import com.siteup.auth.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes expired rows from auth_token (and revoked_token) so the tables stay proportional to the
+ * number of live sessions.
+ *
+ * Each batch is one short DELETE ... ORDER BY expires_at LIMIT n over idx_expires_at, so no run
+ * holds locks for long; a run stops after max-batches and the next run picks up the rest.
+ */
+@Component
+public class ExpiredTokenSweeper {
+
+    private final AuthTokenRepository authTokenRepository;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long pauseMs;
+    private final Counter deleted;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ExpiredTokenSweeper(AuthTokenRepository authTokenRepository,
+                               RevokedTokenRepository revokedTokenRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${siteup.auth.token.sweep.enabled:true}") boolean enabled,
+                               @Value("${siteup.auth.token.sweep.batch-size:1000}") int batchSize,
+                               @Value("${siteup.auth.token.sweep.max-batches:100}") int maxBatches,
+                               @Value("${siteup.auth.token.sweep.pause-ms:50}") long pauseMs) {
+        this.authTokenRepository = authTokenRepository;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+        this.pauseMs = pauseMs;
+        this.deleted = Counter.builder("siteup.auth.tokens.swept").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${siteup.auth.token.sweep.interval-ms:300000}",
+               initialDelayString = "${siteup.auth.token.sweep.initial-delay-ms:60000}")
+    public void run() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long tokens = sweep(now);
+            int revoked = revokedTokenRepository.deleteExpired(now);
+            if (tokens > 0 || revoked > 0) {
+                System.out.println("Token sweep: removed " + tokens + " expired tokens, " + revoked + " revocations");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Token sweep failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * @return tokens deleted, at most batch-size * max-batches
+     */
+    long sweep(LocalDateTime now) throws InterruptedException {
+        long total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int removed = authTokenRepository.deleteExpired(now, batchSize);
+            deleted.increment(removed);
+            total += removed;
+            if (removed < batchSize) {
+                break;
+            }
+            if (pauseMs > 0) {
+                Thread.sleep(pauseMs);
+            }
+        }
+        return total;
+    }
+}
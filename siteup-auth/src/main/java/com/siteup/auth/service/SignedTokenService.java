@@ -0,0 +1,291 @@
+package com.siteup.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.auth.model.RevokedToken;
+import com.siteup.auth.model.SigningKey;
+import com.siteup.auth.model.User;
+import com.siteup.auth.repository.RevokedTokenRepository;
+import com.siteup.auth.repository.SigningKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Self-contained signed tokens, verifiable by the gateway and biz without calling this service.
+ *
+ * Format: {@code st1.<kid>.<payload>.<signature>} (base64url, no padding). The payload is JSON with
+ * jti, uid, sub (username), role, iat and exp (epoch seconds); the Ed25519 signature covers
+ * {@code st1.<kid>.<payload>}. Public keys and the revocation list are served by
+ * {@code GET /api/v1/auth/keys}. Signing keys live in the signing_key table so every auth instance
+ * signs with the same key; the active key is rotated after key-rotation-hours and retired keys stay
+ * published until the last token they signed has expired.
+ *
+ * Rotation runs in one transaction that locks the active rows first, so when several instances find
+ * the key due at the same time only the first one rotates and the others pick up its new key.
+ */
+@Service
+public class SignedTokenService {
+
+    public static final String PREFIX = "st1.";
+
+    private static final String ALGORITHM = "Ed25519";
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64D = Base64.getUrlDecoder();
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration tokenTtl;
+    private final Duration rotation;
+    private final Map<String, PublicKey> publicKeys = new ConcurrentHashMap<>();
+
+    private volatile ActiveKey activeKey;
+
+    public SignedTokenService(SigningKeyRepository signingKeyRepository,
+                              RevokedTokenRepository revokedTokenRepository,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${siteup.auth.token.format:opaque}") String format,
+                              @Value("${siteup.auth.token.ttl-hours:8}") long ttlHours,
+                              @Value("${siteup.auth.token.key-rotation-hours:24}") long rotationHours) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = "signed".equalsIgnoreCase(format);
+        this.tokenTtl = Duration.ofHours(ttlHours);
+        this.rotation = Duration.ofHours(rotationHours);
+    }
+
+    /**
+     * Whether login issues signed tokens. Signed tokens are verified regardless, so switching back to
+     * opaque tokens does not log anyone out.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public static boolean isSigned(String token) {
+        return token != null && token.startsWith(PREFIX);
+    }
+
+    public Claims issue(User user) {
+        Instant now = Instant.now();
+        String jti = UUID.randomUUID().toString().replace("-", "");
+        long issuedAt = now.getEpochSecond();
+        long expiresAt = now.plus(tokenTtl).getEpochSecond();
+        try {
+            ActiveKey key = currentKey();
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("jti", jti);
+            payload.put("uid", user.getId());
+            payload.put("sub", user.getUsername());
+            payload.put("role", user.getRole());
+            payload.put("iat", issuedAt);
+            payload.put("exp", expiresAt);
+            String signingInput = PREFIX + key.kid() + "." + B64.encodeToString(objectMapper.writeValueAsBytes(payload));
+
+            Signature signature = Signature.getInstance(ALGORITHM);
+            signature.initSign(key.privateKey());
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            String token = signingInput + "." + B64.encodeToString(signature.sign());
+            return new Claims(jti, user.getId(), user.getUsername(), user.getRole(), issuedAt, expiresAt, token);
+        } catch (GeneralSecurityException | JsonProcessingException e) {
+            throw new IllegalStateException("Failed to sign token", e);
+        }
+    }
+
+    /**
+     * Check signature and expiry.
+     *
+     * @return the claims, or null when the token is malformed, forged or expired
+     */
+    public Claims parse(String token) {
+        if (!isSigned(token)) {
+            return null;
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            PublicKey key = publicKey(parts[1]);
+            if (key == null) {
+                return null;
+            }
+            Signature signature = Signature.getInstance(ALGORITHM);
+            signature.initVerify(key);
+            signature.update((parts[0] + "." + parts[1] + "." + parts[2]).getBytes(StandardCharsets.US_ASCII));
+            if (!signature.verify(B64D.decode(parts[3]))) {
+                return null;
+            }
+            Map<?, ?> payload = objectMapper.readValue(B64D.decode(parts[2]), Map.class);
+            Claims claims = new Claims(String.valueOf(payload.get("jti")), ((Number) payload.get("uid")).longValue(),
+                String.valueOf(payload.get("sub")), String.valueOf(payload.get("role")),
+                ((Number) payload.get("iat")).longValue(), ((Number) payload.get("exp")).longValue(), token);
+            return claims.expiresAt() > Instant.now().getEpochSecond() ? claims : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public boolean isRevoked(Claims claims) {
+        return revokedTokenRepository.existsById(claims.jti());
+    }
+
+    public void revoke(Claims claims) {
+        RevokedToken revoked = new RevokedToken();
+        revoked.setJti(claims.jti());
+        revoked.setExpiresAt(toLocal(claims.expiresAt()));
+        revokedTokenRepository.save(revoked);
+    }
+
+    /**
+     * Public keys and unexpired revocations, polled by the gateway and biz. Revocations are listed
+     * twice: as plain jtis, and as jti -> token expiry (epoch seconds) so the gateway can keep
+     * pushed revocations until they expire instead of replacing them with this snapshot.
+     */
+    public Map<String, Object> keySet() {
+        LocalDateTime now = LocalDateTime.now();
+        if (enabled) {
+            currentKey();
+        }
+        List<Map<String, Object>> keys = new ArrayList<>();
+        for (SigningKey key : signingKeyRepository.findByRetiredAtIsNullOrRetiredAtAfter(now.minus(tokenTtl))) {
+            keys.add(Map.of(
+                "kid", key.getKid(),
+                "alg", ALGORITHM,
+                "publicKey", Base64.getEncoder().encodeToString(key.getPublicKey())
+            ));
+        }
+        Map<String, Long> revokedExpiresAt = new HashMap<>();
+        for (RevokedToken revoked : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            revokedExpiresAt.put(revoked.getJti(), toEpochSecond(revoked.getExpiresAt()));
+        }
+        return Map.of("keys", keys, "revoked", List.copyOf(revokedExpiresAt.keySet()),
+            "revokedExpiresAt", revokedExpiresAt);
+    }
+
+    /**
+     * The signing key, rotated once it is older than key-rotation-hours.
+     *
+     * The newest active row is read on every call: another instance may have rotated (and so retired
+     * the cached key) since it was loaded. The decoded private key is reused while the kid matches.
+     */
+    private synchronized ActiveKey currentKey() {
+        SigningKey key = signingKeyRepository.findFirstByRetiredAtIsNullOrderByCreatedAtDesc()
+            .filter(existing -> !isDue(existing))
+            .orElseGet(this::rotate);
+        ActiveKey active = activeKey;
+        if (active == null || !active.kid().equals(key.getKid())) {
+            try {
+                active = new ActiveKey(key, KeyFactory.getInstance(ALGORITHM)
+                    .generatePrivate(new PKCS8EncodedKeySpec(key.getPrivateKey())));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Invalid signing key " + key.getKid(), e);
+            }
+            activeKey = active;
+        }
+        return active;
+    }
+
+    private boolean isDue(SigningKey key) {
+        return key.getCreatedAt().plus(rotation).isBefore(LocalDateTime.now());
+    }
+
+    /**
+     * Retire the active keys and create a new one, unless another instance already did so while this
+     * one was waiting for the row locks.
+     */
+    private SigningKey rotate() {
+        return transactionTemplate.execute(status -> {
+            List<SigningKey> active = signingKeyRepository.lockActive();
+            // first plain read after the locking read, so it sees a rotation committed while we waited
+            SigningKey newest = signingKeyRepository.findFirstByRetiredAtIsNullOrderByCreatedAtDesc().orElse(null);
+            if (newest != null && !isDue(newest)) {
+                return newest;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (SigningKey old : active) {
+                old.setRetiredAt(now);
+                signingKeyRepository.save(old);
+            }
+            SigningKey key = new SigningKey();
+            key.setKid(UUID.randomUUID().toString().replace("-", "").substring(0, 16));
+            KeyPair pair = generateKeyPair();
+            key.setPublicKey(pair.getPublic().getEncoded());
+            key.setPrivateKey(pair.getPrivate().getEncoded());
+            key.setCreatedAt(now);
+            System.out.println("Rotated token signing key, new kid: " + key.getKid());
+            return signingKeyRepository.save(key);
+        });
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            return KeyPairGenerator.getInstance(ALGORITHM).generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Ed25519 not available", e);
+        }
+    }
+
+    private PublicKey publicKey(String kid) throws GeneralSecurityException {
+        PublicKey key = publicKeys.get(kid);
+        if (key == null) {
+            SigningKey stored = signingKeyRepository.findById(kid).orElse(null);
+            if (stored == null) {
+                return null;
+            }
+            key = KeyFactory.getInstance(ALGORITHM).generatePublic(new X509EncodedKeySpec(stored.getPublicKey()));
+            publicKeys.put(kid, key);
+        }
+        return key;
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private static LocalDateTime toLocal(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+    }
+
+    private record ActiveKey(SigningKey key, PrivateKey privateKey) {
+        String kid() {
+            return key.getKid();
+        }
+    }
+
+    /**
+     * Decoded token payload; token is the encoded form (set when issued or parsed).
+     */
+    public record Claims(String jti, Long userId, String username, String role,
+                         long issuedAt, long expiresAt, String token) {
+    }
+}
@@ -0,0 +1,141 @@
+package com.siteup.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.auth.model.AuthToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes revoked tokens to every gateway instance so cached verification results are dropped
+ * and signed tokens are refused, and to every auth instance (this one included) so their
+ * {@link TokenVerificationService} caches drop the token too. Only SHA-256 hashes and jtis of the
+ * tokens leave this service.
+ * Delivery is best effort: an instance that misses the call catches up on its next key set refresh
+ * (signed tokens, gateways only) or once its cache TTL runs out.
+ * Receivers refuse the call without a matching X-Internal-Token, so nothing is sent when none is
+ * configured. Large revocations are split to stay under the gateway's per-request limit.
+ */
+@Component
+public class TokenRevocationPublisher {
+
+    static final String REVOKE_PATH = "/internal/token-cache/revoke";
+    static final String EVICT_PATH = "/internal/token-cache/evict";
+    static final int MAX_ENTRIES_PER_REQUEST = 1000;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final boolean enabled;
+    private final String gatewayServiceId;
+    private final String authServiceId;
+    private final String internalToken;
+
+    public TokenRevocationPublisher(DiscoveryClient discoveryClient,
+                                    ObjectMapper objectMapper,
+                                    @Value("${siteup.auth.revocation.enabled:true}") boolean enabled,
+                                    @Value("${siteup.auth.revocation.gateway-service-id:siteup-gateway}") String gatewayServiceId,
+                                    @Value("${spring.application.name:siteup-auth}") String authServiceId,
+                                    @Value("${siteup.auth.revocation.token:}") String internalToken) {
+        this.discoveryClient = discoveryClient;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.gatewayServiceId = gatewayServiceId;
+        this.authServiceId = authServiceId;
+        this.internalToken = internalToken;
+        if (enabled && internalToken.isEmpty()) {
+            System.err.println("siteup.auth.revocation.token is not set, logouts will not be pushed to the gateways or other auth instances");
+        }
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    /**
+     * @param claims claims of a signed token, whose jti is added to the gateways' revocation lists
+     *               together with its expiry; null for opaque tokens
+     */
+    public void revoked(String token, SignedTokenService.Claims claims) {
+        publish(List.of(hash(token)), claims == null ? Map.of() : Map.of(claims.jti(), claims.expiresAt()));
+    }
+
+    /**
+     * Revoke opaque tokens known only by their stored {@link AuthToken#hash(String)}
+     */
+    public void revokedHashes(Collection<byte[]> tokenHashes) {
+        publish(tokenHashes.stream().map(HEX::formatHex).toList(), Map.of());
+    }
+
+    /**
+     * @param jtis revoked jti -> token expiry (epoch seconds); gateways keep each jti until then
+     */
+    private void publish(List<String> hashes, Map<String, Long> jtis) {
+        if (!enabled || internalToken.isEmpty() || (hashes.isEmpty() && jtis.isEmpty())) {
+            return;
+        }
+        if (hashes.size() + jtis.size() > MAX_ENTRIES_PER_REQUEST) {
+            List<Map.Entry<String, Long>> jtiList = List.copyOf(jtis.entrySet());
+            for (int i = 0; i < hashes.size(); i += MAX_ENTRIES_PER_REQUEST) {
+                publish(hashes.subList(i, Math.min(hashes.size(), i + MAX_ENTRIES_PER_REQUEST)), Map.of());
+            }
+            for (int i = 0; i < jtiList.size(); i += MAX_ENTRIES_PER_REQUEST) {
+                Map<String, Long> chunk = new HashMap<>();
+                jtiList.subList(i, Math.min(jtiList.size(), i + MAX_ENTRIES_PER_REQUEST))
+                        .forEach(entry -> chunk.put(entry.getKey(), entry.getValue()));
+                publish(List.of(), chunk);
+            }
+            return;
+        }
+        try {
+            // jtis is kept as a plain list for gateways that predate jtiExpiresAt
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("tokenHashes", hashes,
+                    "jtis", List.copyOf(jtis.keySet()), "jtiExpiresAt", jtis));
+            for (ServiceInstance instance : discoveryClient.getInstances(gatewayServiceId)) {
+                send(instance.getUri().resolve(REVOKE_PATH), body);
+            }
+            if (!hashes.isEmpty()) {
+                byte[] evictBody = objectMapper.writeValueAsBytes(Map.of("tokenHashes", hashes));
+                for (ServiceInstance instance : discoveryClient.getInstances(authServiceId)) {
+                    send(instance.getUri().resolve(EVICT_PATH), evictBody);
+                }
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            System.err.println("Failed to publish token revocation: " + e.getMessage());
+        }
+    }
+
+    private void send(URI uri, byte[] body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/json")
+                .header("X-Internal-Token", internalToken)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        System.err.println("Token revocation failed (" + uri + "): " + e.getMessage());
+                    } else if (response.statusCode() != 200) {
+                        System.err.println("Token revocation rejected (" + uri + "): HTTP " + response.statusCode());
+                    }
+                });
+    }
+
+    static String hash(String token) {
+        return HEX.formatHex(AuthToken.hash(token));
+    }
+}
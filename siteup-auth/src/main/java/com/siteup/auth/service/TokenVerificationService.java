@@ -0,0 +1,243 @@
+package com.siteup.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.siteup.auth.model.AuthToken;
+import com.siteup.auth.model.User;
+import com.siteup.auth.repository.AuthTokenRepository;
+import com.siteup.auth.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Token verification backed by an in-process cache of token -> (user, expiry).
+ *
+ * Entries are written at login and loaded on a miss (one token lookup plus one user lookup, or a
+ * signature check for signed tokens). An entry lives for at most ttl-seconds and never past the
+ * token's own expiry; logout removes it here and, through {@link TokenRevocationPublisher}, on the
+ * other auth instances. Unknown tokens are cached briefly as well, since a random
+ * token cannot be looked up before it is issued.
+ *
+ * The cache is keyed by the hex SHA-256 of the token (the same hash auth_token is keyed by), so
+ * tokens removed by hash, e.g. by the per-user cap, can be evicted too.
+ */
+@Service
+public class TokenVerificationService {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final AuthTokenRepository authTokenRepository;
+    private final UserRepository userRepository;
+    private final SignedTokenService signedTokenService;
+    private final Cache<String, Entry> cache;
+
+    public TokenVerificationService(AuthTokenRepository authTokenRepository,
+                                    UserRepository userRepository,
+                                    SignedTokenService signedTokenService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${siteup.auth.verify-cache.max-entries:100000}") long maxEntries,
+                                    @Value("${siteup.auth.verify-cache.ttl-seconds:60}") long ttlSeconds,
+                                    @Value("${siteup.auth.verify-cache.negative-ttl-seconds:10}") long negativeTtlSeconds) {
+        this.authTokenRepository = authTokenRepository;
+        this.userRepository = userRepository;
+        this.signedTokenService = signedTokenService;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(new EntryExpiry(Duration.ofSeconds(ttlSeconds).toNanos(),
+                Duration.ofSeconds(negativeTtlSeconds).toNanos()))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.verify");
+    }
+
+    /**
+     * Verify one token. Same response shape as {@code POST /api/v1/auth/verify}.
+     */
+    public Map<String, Object> verify(String token) {
+        return cache.get(key(token), hash -> load(token)).toResult();
+    }
+
+    /**
+     * Verify many tokens; misses are loaded with one query for tokens and one for users.
+     *
+     * @return results in the order of the given tokens
+     */
+    public List<Map<String, Object>> verifyAll(List<String> tokens) {
+        Map<String, String> tokensByKey = new HashMap<>();
+        for (String token : tokens) {
+            tokensByKey.put(key(token), token);
+        }
+        Map<String, Entry> entries = cache.getAll(tokensByKey.keySet(), keys -> {
+            Map<String, Entry> loaded = loadAll(keys.stream().map(tokensByKey::get).toList());
+            Map<String, Entry> byKey = new HashMap<>();
+            loaded.forEach((token, entry) -> byKey.put(key(token), entry));
+            return byKey;
+        });
+        List<Map<String, Object>> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(entries.get(key(token)).toResult());
+        }
+        return results;
+    }
+
+    /**
+     * Called at login so the first verification of a new token is a cache hit.
+     */
+    public void cache(String token, User user, LocalDateTime expiresAt) {
+        cache.put(key(token), Entry.valid(user.getId(), user.getUsername(), user.getRole(), toEpochMillis(expiresAt)));
+    }
+
+    public void evict(String token) {
+        cache.invalidate(key(token));
+    }
+
+    /**
+     * Evict tokens known only by their {@link AuthToken#hash(String)}
+     */
+    public void evictHashes(Collection<byte[]> tokenHashes) {
+        cache.invalidateAll(tokenHashes.stream().map(HEX::formatHex).toList());
+    }
+
+    /**
+     * Evict tokens by hex SHA-256 hash, as pushed by other auth instances on logout
+     */
+    public void evictHexHashes(Collection<String> tokenHashes) {
+        cache.invalidateAll(tokenHashes.stream().map(hash -> hash.toLowerCase(Locale.ROOT)).toList());
+    }
+
+    private Entry load(String token) {
+        return loadAll(List.of(token)).get(token);
+    }
+
+    private Map<String, Entry> loadAll(List<String> tokens) {
+        Map<String, Entry> loaded = new HashMap<>();
+        Map<String, String> opaque = new HashMap<>();
+        for (String token : tokens) {
+            if (SignedTokenService.isSigned(token)) {
+                loaded.put(token, loadSigned(token));
+            } else {
+                opaque.put(key(token), token);
+            }
+        }
+        if (opaque.isEmpty()) {
+            return loaded;
+        }
+
+        List<AuthToken> found = authTokenRepository.findAllById(
+            opaque.keySet().stream().map(HEX::parseHex).toList());
+        Map<Long, User> users = userRepository
+            .findAllById(found.stream().map(AuthToken::getUserId).distinct().toList())
+            .stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (AuthToken authToken : found) {
+            String token = opaque.get(HEX.formatHex(authToken.getTokenHash()));
+            User user = users.get(authToken.getUserId());
+            if (authToken.getExpiresAt() != null && authToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+                loaded.put(token, Entry.invalid("Token expired"));
+            } else if (user == null) {
+                loaded.put(token, Entry.invalid("User not found"));
+            } else {
+                loaded.put(token, Entry.valid(user.getId(), user.getUsername(), user.getRole(),
+                    toEpochMillis(authToken.getExpiresAt())));
+            }
+        }
+        for (String token : opaque.values()) {
+            loaded.putIfAbsent(token, Entry.invalid("Invalid token"));
+        }
+        return loaded;
+    }
+
+    private Entry loadSigned(String token) {
+        SignedTokenService.Claims claims = signedTokenService.parse(token);
+        if (claims == null) {
+            return Entry.invalid("Invalid token");
+        }
+        if (signedTokenService.isRevoked(claims)) {
+            return Entry.invalid("Token revoked");
+        }
+        return Entry.valid(claims.userId(), claims.username(), claims.role(), claims.expiresAt() * 1000);
+    }
+
+    private static String key(String token) {
+        return HEX.formatHex(AuthToken.hash(token));
+    }
+
+    private static Long toEpochMillis(LocalDateTime time) {
+        return time == null ? null : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Cached verification outcome; expiresAt is epoch millis (null for tokens without expiry).
+     */
+    record Entry(boolean valid, String message, Long userId, String username, String role, Long expiresAt) {
+
+        static Entry valid(Long userId, String username, String role, Long expiresAt) {
+            return new Entry(true, "Token is valid", userId, username, role, expiresAt);
+        }
+
+        static Entry invalid(String message) {
+            return new Entry(false, message, null, null, null, null);
+        }
+
+        Map<String, Object> toResult() {
+            if (!valid) {
+                return Map.of("valid", false, "message", message);
+            }
+            if (expiresAt != null && expiresAt <= System.currentTimeMillis()) {
+                return Map.of("valid", false, "message", "Token expired");
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("valid", true);
+            result.put("message", message);
+            result.put("userId", userId);
+            result.put("username", username);
+            result.put("role", role);
+            if (expiresAt != null) {
+                result.put("expiresAt", expiresAt);
+            }
+            return result;
+        }
+    }
+
+    private record EntryExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String token, Entry entry, long currentTime) {
+            if (!entry.valid()) {
+                return negativeTtlNanos;
+            }
+            if (entry.expiresAt() != null) {
+                long remaining = Duration.ofMillis(entry.expiresAt() - System.currentTimeMillis()).toNanos();
+                return Math.max(0, Math.min(ttlNanos, remaining));
+            }
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.siteup.auth.service;
 
 import com.siteup.auth.exception.InvalidCredentialsException;
 import com.siteup.auth.exception.UserNotFoundException;
+import com.siteup.auth.model.AuthToken;
 import com.siteup.auth.model.User;
 import com.siteup.auth.repository.AuthTokenRepository;
 import com.siteup.auth.repository.UserRepository;
@@ -12,13 +13,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,6 +36,15 @@ class AuthServiceTest {
     @Mock
     private AuthTokenRepository authTokenRepository;
 
+    @Mock
+    private TokenRevocationPublisher revocationPublisher;
+
+    @Mock
+    private SignedTokenService signedTokenService;
+
+    @Mock
+    private TokenVerificationService verificationService;
+
     @InjectMocks
     private AuthService authService;
 
@@ -123,4 +137,44 @@ class AuthServiceTest {
             .isInstanceOf(InvalidCredentialsException.class)
             .hasMessage("Invalid username or password");
     }
+
+    @Test
+    void logout_ShouldDeleteTokenAndPublishRevocation_WhenTokenExists() {
+        // Given
+        when(authTokenRepository.existsById(aryEq(AuthToken.hash("siteup-token-abc")))).thenReturn(true);
+
+        // When
+        Map<String, Object> result = authService.logout("siteup-token-abc");
+
+        // Then
+        assertThat(result.get("success")).isEqualTo(true);
+        verify(authTokenRepository).deleteById(aryEq(AuthToken.hash("siteup-token-abc")));
+        verify(revocationPublisher).revoked("siteup-token-abc", null);
+        verify(verificationService).evict("siteup-token-abc");
+    }
+
+    @Test
+    void login_ShouldLogOutOldestTokens_WhenUserExceedsTokenCap() {
+        // Given: cap of 2, the user already has 3 active tokens (newest first)
+        ReflectionTestUtils.setField(authService, "maxTokensPerUser", 2);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        List<AuthToken> active = List.of(token("newest"), token("middle"), token("oldest"));
+        when(authTokenRepository.findActiveByUserId(eq(1L), any())).thenReturn(active);
+
+        // When
+        authService.login("testuser", "password123");
+
+        // Then
+        List<byte[]> evicted = List.of(active.get(2).getTokenHash());
+        verify(authTokenRepository).deleteAllByIdInBatch(evicted);
+        verify(verificationService).evictHashes(evicted);
+        verify(revocationPublisher).revokedHashes(evicted);
+    }
+
+    private static AuthToken token(String token) {
+        AuthToken authToken = new AuthToken();
+        authToken.setTokenHash(AuthToken.hash(token));
+        authToken.setUserId(1L);
+        return authToken;
+    }
 }
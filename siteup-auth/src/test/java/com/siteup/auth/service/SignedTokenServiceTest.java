@@ -0,0 +1,133 @@
+package com.siteup.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.auth.model.SigningKey;
+import com.siteup.auth.model.User;
+import com.siteup.auth.repository.RevokedTokenRepository;
+import com.siteup.auth.repository.SigningKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SignedTokenServiceTest {
+
+    private final Map<String, SigningKey> keys = new HashMap<>();
+    private SigningKeyRepository signingKeyRepository;
+    private SignedTokenService signedTokenService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        signingKeyRepository = mock(SigningKeyRepository.class);
+        when(signingKeyRepository.findFirstByRetiredAtIsNullOrderByCreatedAtDesc()).thenAnswer(invocation ->
+            keys.values().stream()
+                .filter(key -> key.getRetiredAt() == null)
+                .max(Comparator.comparing(SigningKey::getCreatedAt)));
+        when(signingKeyRepository.lockActive()).thenAnswer(invocation ->
+            keys.values().stream().filter(key -> key.getRetiredAt() == null).toList());
+        when(signingKeyRepository.save(any(SigningKey.class))).thenAnswer(invocation -> {
+            SigningKey key = invocation.getArgument(0);
+            keys.put(key.getKid(), key);
+            return key;
+        });
+        when(signingKeyRepository.findById(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(keys.get(invocation.<String>getArgument(0))));
+
+        signedTokenService = new SignedTokenService(signingKeyRepository, mock(RevokedTokenRepository.class),
+            new ObjectMapper(), new TransactionTemplate(mock(PlatformTransactionManager.class)), "signed", 8, 24);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+        testUser.setRole("USER");
+    }
+
+    @Test
+    void parse_ShouldReturnClaims_WhenTokenWasIssuedByThisService() {
+        // When
+        SignedTokenService.Claims issued = signedTokenService.issue(testUser);
+        SignedTokenService.Claims parsed = signedTokenService.parse(issued.token());
+
+        // Then
+        assertThat(issued.token()).startsWith(SignedTokenService.PREFIX);
+        assertThat(parsed).isNotNull();
+        assertThat(parsed.jti()).isEqualTo(issued.jti());
+        assertThat(parsed.userId()).isEqualTo(1L);
+        assertThat(parsed.username()).isEqualTo("testuser");
+        assertThat(parsed.role()).isEqualTo("USER");
+        assertThat(parsed.expiresAt() - parsed.issuedAt()).isEqualTo(8 * 3600);
+    }
+
+    @Test
+    void parse_ShouldReturnNull_WhenPayloadIsTampered() {
+        // Given: swap the payload for one claiming the ADMIN role
+        String token = signedTokenService.issue(testUser).token();
+        testUser.setRole("ADMIN");
+        String forged = signedTokenService.issue(testUser).token();
+        String[] original = token.split("\\.");
+        String[] other = forged.split("\\.");
+
+        // When & Then
+        assertThat(signedTokenService.parse(original[0] + "." + original[1] + "." + other[2] + "." + original[3])).isNull();
+        assertThat(signedTokenService.parse("st1.unknown.e30.AAAA")).isNull();
+        assertThat(signedTokenService.parse("siteup-token-abc")).isNull();
+    }
+
+    @Test
+    void issue_ShouldSwitchKeys_WhenAnotherInstanceRotated() {
+        // Given: this instance has cached its key, then another instance retires it and adds a new one
+        String first = signedTokenService.issue(testUser).token().split("\\.")[1];
+        keys.get(first).setRetiredAt(LocalDateTime.now());
+        SigningKey rotated = new SigningKey();
+        rotated.setKid("rotatedelsewhere");
+        rotated.setPublicKey(keys.get(first).getPublicKey());
+        rotated.setPrivateKey(keys.get(first).getPrivateKey());
+        rotated.setCreatedAt(LocalDateTime.now());
+        keys.put(rotated.getKid(), rotated);
+
+        // When
+        String second = signedTokenService.issue(testUser).token().split("\\.")[1];
+
+        // Then: the retired key is no longer used and no third key is created
+        assertThat(second).isEqualTo("rotatedelsewhere");
+        assertThat(keys).hasSize(2);
+    }
+
+    @Test
+    void issue_ShouldNotRotateAgain_WhenAnotherInstanceRotatedWhileWaitingForTheLock() {
+        // Given: the cached key is due; another instance commits its rotation before our lock is granted
+        String first = signedTokenService.issue(testUser).token().split("\\.")[1];
+        keys.get(first).setCreatedAt(LocalDateTime.now().minusDays(2));
+        when(signingKeyRepository.lockActive()).thenAnswer(invocation -> {
+            keys.get(first).setRetiredAt(LocalDateTime.now());
+            SigningKey rotated = new SigningKey();
+            rotated.setKid("rotatedelsewhere");
+            rotated.setPublicKey(keys.get(first).getPublicKey());
+            rotated.setPrivateKey(keys.get(first).getPrivateKey());
+            rotated.setCreatedAt(LocalDateTime.now());
+            keys.put(rotated.getKid(), rotated);
+            return List.of(rotated);
+        });
+
+        // When
+        String second = signedTokenService.issue(testUser).token().split("\\.")[1];
+
+        // Then
+        assertThat(second).isEqualTo("rotatedelsewhere");
+        assertThat(keys).hasSize(2);
+    }
+}
@@ -0,0 +1,94 @@
+package com.siteup.auth.service;
+
+import com.siteup.auth.model.AuthToken;
+import com.siteup.auth.model.User;
+import com.siteup.auth.repository.AuthTokenRepository;
+import com.siteup.auth.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenVerificationServiceTest {
+
+    private AuthTokenRepository authTokenRepository;
+    private UserRepository userRepository;
+    private TokenVerificationService verificationService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        authTokenRepository = mock(AuthTokenRepository.class);
+        userRepository = mock(UserRepository.class);
+        verificationService = new TokenVerificationService(authTokenRepository, userRepository,
+            mock(SignedTokenService.class), new SimpleMeterRegistry(), 1000, 60, 10);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+        testUser.setRole("USER");
+    }
+
+    @Test
+    void verify_ShouldNotQueryDatabase_WhenTokenWasCachedAtLogin() {
+        // Given
+        verificationService.cache("siteup-token-abc", testUser, LocalDateTime.now().plusHours(8));
+
+        // When
+        Map<String, Object> result = verificationService.verify("siteup-token-abc");
+
+        // Then
+        assertThat(result.get("valid")).isEqualTo(true);
+        assertThat(result.get("userId")).isEqualTo(1L);
+        assertThat(result.get("role")).isEqualTo("USER");
+        verify(authTokenRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void verifyAll_ShouldLoadMissesInOneQueryAndKeepRequestOrder() {
+        // Given
+        AuthToken authToken = new AuthToken();
+        authToken.setTokenHash(AuthToken.hash("siteup-token-abc"));
+        authToken.setUserId(1L);
+        authToken.setExpiresAt(LocalDateTime.now().plusHours(8));
+        when(authTokenRepository.findAllById(any())).thenReturn(List.of(authToken));
+        when(userRepository.findAllById(any())).thenReturn(List.of(testUser));
+
+        // When
+        List<Map<String, Object>> results = verificationService.verifyAll(List.of("unknown", "siteup-token-abc"));
+        verificationService.verify("siteup-token-abc");
+
+        // Then
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).get("valid")).isEqualTo(false);
+        assertThat(results.get(1).get("username")).isEqualTo("testuser");
+        verify(authTokenRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void evictHexHashes_ShouldDropTokenRevokedOnAnotherInstance() {
+        // Given
+        verificationService.cache("siteup-token-abc", testUser, LocalDateTime.now().plusHours(8));
+        when(authTokenRepository.findAllById(any())).thenReturn(List.of());
+
+        // When: another instance handled the logout and pushed the hash
+        verificationService.evictHexHashes(List.of(TokenRevocationPublisher.hash("siteup-token-abc").toUpperCase()));
+        Map<String, Object> result = verificationService.verify("siteup-token-abc");
+
+        // Then
+        assertThat(result.get("valid")).isEqualTo(false);
+        verify(authTokenRepository, times(1)).findAllById(any());
+    }
+}
@@ -0,0 +1,94 @@
+package com.siteup.benchmarks;
+
+import com.siteup.engine.renderer.HtmlEscaper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HtmlEscaper 与旧实现（String.replace 链）的对比，用 -prof gc 查看每次调用的分配字节数
+ *
+ * - plain：无需转义的普通文本（最常见）；
+ * - markup：包含 &amp; &lt; &gt; 引号与换行的文本。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EscapeBenchmark {
+
+    @Param({"plain", "markup"})
+    public String content;
+
+    @Param({"64", "4096"})
+    public int length;
+
+    private String value;
+    private final StringBuilder out = new StringBuilder(16 * 1024);
+
+    @Setup
+    public void setUp() {
+        String unit = "plain".equals(content)
+                ? "Lorem ipsum dolor sit amet consectetur "
+                : "Tom & Jerry <b>\"quoted\"</b>\nnext line ";
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(unit);
+        }
+        value = sb.substring(0, length);
+    }
+
+    @Benchmark
+    public StringBuilder legacyText() {
+        out.setLength(0);
+        return out.append(legacyEscape(value).replace("\n", "<br/>"));
+    }
+
+    @Benchmark
+    public StringBuilder escaperText() throws IOException {
+        out.setLength(0);
+        HtmlEscaper.multilineText(value, out);
+        return out;
+    }
+
+    @Benchmark
+    public StringBuilder legacyAttribute() {
+        out.setLength(0);
+        return out.append(" class=\"").append(legacyEscapeAttr(value)).append("\"");
+    }
+
+    @Benchmark
+    public StringBuilder escaperAttribute() throws IOException {
+        out.setLength(0);
+        HtmlEscaper.attribute("class", value, out);
+        return out;
+    }
+
+    /**
+     * 旧的 RenderingService.escape
+     */
+    private static String legacyEscape(String s) {
+        if (s == null) return "";
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * 旧的 RenderingService.escapeAttr
+     */
+    private static String legacyEscapeAttr(String s) {
+        return legacyEscape(s).replace("\"", "&quot;").replace("\n", "").replace("\r", "");
+    }
+}
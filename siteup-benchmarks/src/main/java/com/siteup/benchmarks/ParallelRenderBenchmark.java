@@ -0,0 +1,76 @@
+package com.siteup.benchmarks;
+
+import com.siteup.engine.model.SiteConfig;
+import com.siteup.engine.renderer.RenderParallelism;
+import com.siteup.engine.renderer.RenderingService;
+import com.siteup.engine.renderer.plan.RenderPlan;
+import com.siteup.engine.renderer.plan.RenderPlanCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 宽容器并行编译（siteup.engine.render.parallel.*）与顺序编译的对比
+ *
+ * 每次调用前清空计划缓存，测量完整编译的耗时；width 为卡片数，每张卡片 10 张图片。
+ * 用于确定 threshold 的取值：并行只在子树足够多、足够大时才能抵消任务调度开销。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelRenderBenchmark {
+
+    @Param({"16", "64", "256", "1024"})
+    public int width;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    @Param({"16"})
+    public int threshold;
+
+    private RenderingService renderingService;
+    private RenderParallelism parallelism;
+    private RenderPlanCache cache;
+    private SiteConfig.ComponentNode root;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = SiteFixtures.newPlanCache();
+        if (parallel) {
+            parallelism = new RenderParallelism(true, threshold, 0);
+            renderingService = SiteFixtures.newRenderingService(cache, parallelism);
+        } else {
+            renderingService = SiteFixtures.newRenderingService(cache);
+        }
+        root = SiteFixtures.imageHeavy(width, 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (parallelism != null) {
+            parallelism.shutdown();
+        }
+    }
+
+    @Benchmark
+    public RenderPlan compile() {
+        cache.clear();
+        return renderingService.planFor(root);
+    }
+}
@@ -0,0 +1,75 @@
+package com.siteup.benchmarks;
+
+import com.siteup.engine.model.SiteConfig;
+import com.siteup.engine.renderer.RenderingService;
+import com.siteup.engine.renderer.plan.RenderPlanCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RenderingService.renderSite 基准
+ *
+ * - planCache=warm：渲染计划已缓存，衡量稳定状态下的输出开销（重复发布/相同配置）；
+ * - planCache=cold：每次调用前清空计划缓存，衡量完整的编译 + 输出开销（首次渲染/配置全部变化）。
+ *
+ * SampleTime 模式给出延迟分位数；加 -prof gc 查看分配速率。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderSiteBenchmark {
+
+    @Param({"deep", "wide", "text-heavy", "image-heavy", "template-001", "template-002", "template-003"})
+    public String site;
+
+    @Param({"warm", "cold"})
+    public String planCache;
+
+    private RenderingService renderingService;
+    private RenderPlanCache cache;
+    private SiteConfig siteConfig;
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = SiteFixtures.newPlanCache();
+        renderingService = SiteFixtures.newRenderingService(cache);
+        siteConfig = SiteFixtures.site(site);
+        renderingService.renderSite(siteConfig);
+    }
+
+    @Benchmark
+    public String renderToString() {
+        prepare();
+        return renderingService.renderSite(siteConfig);
+    }
+
+    @Benchmark
+    public void renderToStream() throws IOException {
+        prepare();
+        renderingService.renderSite(siteConfig, sink);
+    }
+
+    private void prepare() {
+        if ("cold".equals(planCache)) {
+            cache.clear();
+        }
+    }
+}
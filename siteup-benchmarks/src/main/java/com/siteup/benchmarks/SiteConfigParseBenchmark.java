@@ -0,0 +1,44 @@
+package com.siteup.benchmarks;
+
+import com.siteup.engine.model.SiteConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求体反序列化基准：init.sql 预置模板的 JSON -> SiteConfig
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SiteConfigParseBenchmark {
+
+    @Param({"template-001", "template-002", "template-003"})
+    public String template;
+
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        json = SiteFixtures.templateBytes(template);
+    }
+
+    @Benchmark
+    public SiteConfig parse() throws IOException {
+        return SiteFixtures.MAPPER.readValue(json, SiteConfig.class);
+    }
+}
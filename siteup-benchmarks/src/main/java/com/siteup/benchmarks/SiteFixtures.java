@@ -0,0 +1,192 @@
+package com.siteup.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.engine.model.SiteConfig;
+import com.siteup.engine.renderer.RenderParallelism;
+import com.siteup.engine.renderer.RendererRegistry;
+import com.siteup.engine.renderer.RenderingService;
+import com.siteup.engine.renderer.impl.ButtonRenderer;
+import com.siteup.engine.renderer.impl.ContainerRenderer;
+import com.siteup.engine.renderer.impl.ImageRenderer;
+import com.siteup.engine.renderer.impl.PageRenderer;
+import com.siteup.engine.renderer.impl.TextRenderer;
+import com.siteup.engine.renderer.plan.RenderPlanCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 基准测试用的站点配置与渲染服务
+ *
+ * - 合成树：deep / wide / text-heavy / image-heavy，每个节点的 props 都不同，避免子树缓存在单次渲染内互相命中；
+ * - 模板：init.sql 中预置的三个模板配置（templates/*.json，与 init.sql 保持一致）。
+ */
+final class SiteFixtures {
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private SiteFixtures() {
+    }
+
+    /**
+     * 与 Spring 容器中一致的渲染器注册
+     */
+    static RenderingService newRenderingService(RenderPlanCache planCache) {
+        return new RenderingService(newRegistry(), planCache);
+    }
+
+    /**
+     * 开启宽容器并行编译的渲染服务（对应 siteup.engine.render.parallel.*）
+     */
+    static RenderingService newRenderingService(RenderPlanCache planCache, RenderParallelism parallelism) {
+        return new RenderingService(newRegistry(), planCache, Optional.empty(), Optional.empty(),
+                Optional.of(parallelism));
+    }
+
+    private static RendererRegistry newRegistry() {
+        return new RendererRegistry(List.of(
+                new TextRenderer(),
+                new ImageRenderer(),
+                new ButtonRenderer(),
+                new ContainerRenderer(),
+                new PageRenderer()));
+    }
+
+    static RenderPlanCache newPlanCache() {
+        return new RenderPlanCache(256L * 1024 * 1024);
+    }
+
+    static SiteConfig site(String shape) {
+        switch (shape) {
+            case "deep":
+                return wrap(shape, deep(200));
+            case "wide":
+                return wrap(shape, wide(1000));
+            case "text-heavy":
+                return wrap(shape, textHeavy(500));
+            case "image-heavy":
+                return wrap(shape, imageHeavy(100, 10));
+            default:
+                return template(shape);
+        }
+    }
+
+    static byte[] templateBytes(String templateId) {
+        try (InputStream in = SiteFixtures.class.getResourceAsStream("/templates/" + templateId + ".json")) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unknown template: " + templateId);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static SiteConfig template(String templateId) {
+        try {
+            return MAPPER.readValue(templateBytes(templateId), SiteConfig.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 每层一个文本节点 + 一个下级容器
+     */
+    static SiteConfig.ComponentNode deep(int depth) {
+        SiteConfig.ComponentNode current = text(depth, "Level " + depth);
+        for (int level = depth - 1; level >= 0; level--) {
+            SiteConfig.ComponentNode container = container(level, "pl-2 level-" + level);
+            container.setChildren(List.of(text(level, "Level " + level), current));
+            current = container;
+        }
+        return current;
+    }
+
+    /**
+     * 单个网格容器下的大量图片（商品网格/相册）
+     */
+    static SiteConfig.ComponentNode wide(int width) {
+        SiteConfig.ComponentNode grid = container(0, "grid grid-cols-4 gap-4");
+        List<SiteConfig.ComponentNode> children = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            children.add(image(i));
+        }
+        grid.setChildren(children);
+        return grid;
+    }
+
+    /**
+     * 大段多行文本
+     */
+    static SiteConfig.ComponentNode textHeavy(int paragraphs) {
+        SiteConfig.ComponentNode article = container(0, "prose max-w-3xl mx-auto");
+        List<SiteConfig.ComponentNode> children = new ArrayList<>(paragraphs);
+        StringBuilder paragraph = new StringBuilder();
+        for (int line = 0; line < 12; line++) {
+            paragraph.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor. \n");
+        }
+        for (int i = 0; i < paragraphs; i++) {
+            children.add(text(i, "#" + i + " " + paragraph));
+        }
+        article.setChildren(children);
+        return article;
+    }
+
+    /**
+     * 多个卡片容器，每个卡片若干图片
+     */
+    static SiteConfig.ComponentNode imageHeavy(int cards, int imagesPerCard) {
+        SiteConfig.ComponentNode page = container(0, "grid grid-cols-3 gap-6");
+        List<SiteConfig.ComponentNode> children = new ArrayList<>(cards);
+        int index = 0;
+        for (int c = 0; c < cards; c++) {
+            SiteConfig.ComponentNode card = container(c, "rounded-xl shadow card-" + c);
+            List<SiteConfig.ComponentNode> images = new ArrayList<>(imagesPerCard);
+            for (int i = 0; i < imagesPerCard; i++) {
+                images.add(image(index++));
+            }
+            card.setChildren(images);
+            children.add(card);
+        }
+        page.setChildren(children);
+        return page;
+    }
+
+    private static SiteConfig wrap(String title, SiteConfig.ComponentNode root) {
+        SiteConfig site = new SiteConfig();
+        site.setTitle("Benchmark " + title);
+        site.setThemeConfig(Map.of("primaryColor", "#3B82F6", "fontFamily", "Inter"));
+        site.setRoot(root);
+        return site;
+    }
+
+    private static SiteConfig.ComponentNode container(int index, String className) {
+        return node("container-" + index, "container", Map.of("className", className));
+    }
+
+    private static SiteConfig.ComponentNode text(int index, String text) {
+        return node("text-" + index, "text", Map.of("text", text, "className", "text-gray-700 block"));
+    }
+
+    private static SiteConfig.ComponentNode image(int index) {
+        return node("image-" + index, "image", Map.of(
+                "src", "https://images.example.com/photo-" + index + ".jpg",
+                "alt", "Photo " + index,
+                "className", "w-full h-48 object-cover"));
+    }
+
+    private static SiteConfig.ComponentNode node(String id, String type, Map<String, Object> props) {
+        SiteConfig.ComponentNode node = new SiteConfig.ComponentNode();
+        node.setId(id);
+        node.setType(type);
+        node.setProps(new HashMap<>(props));
+        return node;
+    }
+}
@@ -0,0 +1,54 @@
+package com.siteup.biz.artifact;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 内容寻址的产物存储（生成的 HTML 等）
+ *
+ * 产物以内容的 SHA-256（小写十六进制）为键：相同内容只存一份，写入天然幂等，
+ * 项目行只保存哈希和大小。默认实现为本地文件系统（{@link LocalArtifactStore}），
+ * 其他后端（对象存储等）实现该接口并通过 siteup.biz.artifacts.type 选择。
+ */
+public interface ArtifactStore {
+
+    /**
+     * 写入内容，已存在相同内容时不重复写入
+     *
+     * @return 内容的 SHA-256 十六进制哈希
+     */
+    String put(byte[] content) throws IOException;
+
+    /**
+     * 读取内容
+     *
+     * @return 内容，不存在时返回 null
+     */
+    byte[] get(String hash) throws IOException;
+
+    boolean exists(String hash);
+
+    /**
+     * 产物在本地文件系统中的路径，供零拷贝发送（sendfile）使用
+     *
+     * @return 本地文件路径；非本地后端或哈希非法时返回 null
+     */
+    default Path localPath(String hash) {
+        return null;
+    }
+
+    /**
+     * 写入产物的预压缩变体（gzip / br），不支持变体的后端忽略
+     */
+    default void putVariant(String hash, String encoding, byte[] content) throws IOException {
+    }
+
+    /**
+     * 预压缩变体在本地文件系统中的路径
+     *
+     * @return 本地文件路径；后端不支持或哈希、编码非法时返回 null（不保证文件存在）
+     */
+    default Path localPath(String hash, String encoding) {
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.siteup.biz.artifact;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 写入发布产物，并在发布时一次性生成预压缩变体
+ *
+ * 页面访问直接发送 .gz / .br 文件，压缩 CPU 只在发布时消耗一次（内容相同的页面共用同一份变体）。
+ * - gzip 使用最高压缩级别；brotli 使用 quality 11（原生库不可用时只生成 gzip）；
+ * - 小于 min-bytes 或压缩后不变小的内容不生成变体；
+ * - 变体生成失败不影响发布，访问时回退到未压缩内容。
+ */
+@Component
+public class HtmlArtifactWriter {
+
+    public static final String GZIP = "gzip";
+    public static final String BROTLI = "br";
+
+    private final ArtifactStore artifactStore;
+    private final boolean enabled;
+    private final int minBytes;
+    private final int brotliQuality;
+    private final boolean brotliAvailable;
+
+    public HtmlArtifactWriter(ArtifactStore artifactStore,
+                              @Value("${siteup.biz.artifacts.precompress.enabled:true}") boolean enabled,
+                              @Value("${siteup.biz.artifacts.precompress.min-bytes:1024}") int minBytes,
+                              @Value("${siteup.biz.artifacts.precompress.brotli-quality:11}") int brotliQuality) {
+        this.artifactStore = artifactStore;
+        this.enabled = enabled;
+        this.minBytes = minBytes;
+        this.brotliQuality = brotliQuality;
+        this.brotliAvailable = enabled && loadBrotli();
+    }
+
+    /**
+     * 写入 HTML 产物及其预压缩变体
+     *
+     * @return 产物哈希
+     */
+    public String write(byte[] html) throws IOException {
+        String hash = artifactStore.put(html);
+        if (enabled && html.length >= minBytes) {
+            writeVariant(hash, GZIP, html);
+            if (brotliAvailable) {
+                writeVariant(hash, BROTLI, html);
+            }
+        }
+        return hash;
+    }
+
+    private void writeVariant(String hash, String encoding, byte[] html) {
+        try {
+            byte[] compressed = GZIP.equals(encoding) ? gzip(html) : brotli(html);
+            if (compressed.length < html.length) {
+                artifactStore.putVariant(hash, encoding, compressed);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to precompress artifact " + hash + " (" + encoding + "): " + e.getMessage());
+        }
+    }
+
+    static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] brotli(byte[] content) throws IOException {
+        Encoder.Parameters parameters = new Encoder.Parameters()
+                .setQuality(brotliQuality)
+                .setMode(Encoder.Mode.TEXT);
+        return Encoder.compress(content, parameters);
+    }
+
+    private static boolean loadBrotli() {
+        try {
+            Brotli4jLoader.ensureAvailability();
+            return true;
+        } catch (Throwable e) {
+            System.err.println("Brotli native library unavailable, only gzip variants will be produced: " + e.getMessage());
+            return false;
+        }
+    }
+}
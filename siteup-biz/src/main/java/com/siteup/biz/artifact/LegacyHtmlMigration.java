@@ -0,0 +1,97 @@
+package com.siteup.biz.artifact;
+
+import com.siteup.biz.site.PublishedSiteIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 旧数据迁移：把 project.generated_html 中的 HTML 移入产物存储
+ *
+ * 启动后按 id 分批执行：写入产物、回填 html_hash/html_size，并清空 generated_html。
+ * 新建的库（init.sql）没有该列，查询失败时直接跳过。全部迁移完成后可按 DATABASE-SETUP.md 删除该列。
+ */
+@Component
+public class LegacyHtmlMigration {
+
+    static final String SELECT_SQL = "SELECT id, generated_html, COALESCE(published_at, updated_at) FROM project "
+            + "WHERE generated_html IS NOT NULL AND html_hash IS NULL AND id > ? ORDER BY id LIMIT ?";
+
+    static final String UPDATE_SQL = "UPDATE project SET html_hash = ?, html_size = ?, "
+            + "html_generated_at = COALESCE(published_at, updated_at), generated_html = NULL WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HtmlArtifactWriter artifactWriter;
+    private final PublishedSiteIndex publishedSites;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public LegacyHtmlMigration(JdbcTemplate jdbcTemplate,
+                               HtmlArtifactWriter artifactWriter,
+                               PublishedSiteIndex publishedSites,
+                               @Value("${siteup.biz.artifacts.migrate-legacy-html:true}") boolean enabled,
+                               @Value("${siteup.biz.artifacts.migration-batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.artifactWriter = artifactWriter;
+        this.publishedSites = publishedSites;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        long afterId = 0;
+        long migrated = 0;
+        try {
+            while (true) {
+                List<LegacyRow> rows = jdbcTemplate.query(SELECT_SQL,
+                        (rs, i) -> new LegacyRow(rs.getLong(1), rs.getString(2), toLocal(rs.getTimestamp(3))),
+                        afterId, batchSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                List<Object[]> updates = new ArrayList<>(rows.size());
+                for (LegacyRow row : rows) {
+                    byte[] html = row.html().getBytes(StandardCharsets.UTF_8);
+                    updates.add(new Object[] {artifactWriter.write(html), (long) html.length, row.id()});
+                }
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                for (int i = 0; i < rows.size(); i++) {
+                    // 指针修改时间与回填的 html_generated_at 一致
+                    publishedSites.update(rows.get(i).id(), (String) updates.get(i)[0], rows.get(i).publishedAt());
+                }
+                migrated += rows.size();
+                afterId = rows.get(rows.size() - 1).id();
+            }
+        } catch (DataAccessException e) {
+            // 首批就失败通常是 generated_html 列不存在（新库），无需迁移
+            if (migrated > 0) {
+                System.err.println("Legacy HTML migration stopped after " + migrated + " projects: " + e.getMessage());
+            }
+        } catch (Exception e) {
+            System.err.println("Legacy HTML migration stopped after " + migrated + " projects: " + e.getMessage());
+        }
+        if (migrated > 0) {
+            System.out.println("Moved generated HTML of " + migrated + " projects into the artifact store");
+        }
+    }
+
+    private static LocalDateTime toLocal(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private record LegacyRow(long id, String html, LocalDateTime publishedAt) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.siteup.biz.artifact;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * 本地文件系统产物存储
+ *
+ * 目录按哈希前缀分两级（root/ab/cd/abcd...），避免单目录文件过多，
+ * 预压缩变体与原文件放在一起（abcd....gz / abcd....br）；
+ * 先写入 root/tmp 下的临时文件再原子改名，读者不会看到写了一半的文件，
+ * 并发写入相同内容时只有一个改名生效，结果一致。
+ */
+@Component
+@ConditionalOnProperty(name = "siteup.biz.artifacts.type", havingValue = "local", matchIfMissing = true)
+public class LocalArtifactStore implements ArtifactStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path root;
+    private final Path tmp;
+
+    public LocalArtifactStore(@Value("${siteup.biz.artifacts.local.dir:data/artifacts}") String dir) throws IOException {
+        this.root = Path.of(dir).toAbsolutePath();
+        this.tmp = root.resolve("tmp");
+        Files.createDirectories(tmp);
+    }
+
+    @Override
+    public String put(byte[] content) throws IOException {
+        String hash = sha256(content);
+        write(pathOf(hash), hash, content);
+        return hash;
+    }
+
+    @Override
+    public void putVariant(String hash, String encoding, byte[] content) throws IOException {
+        Path target = localPath(hash, encoding);
+        if (target == null) {
+            throw new IllegalArgumentException("Unsupported artifact variant: " + hash + " / " + encoding);
+        }
+        write(target, hash, content);
+    }
+
+    @Override
+    public Path localPath(String hash, String encoding) {
+        String suffix = suffixOf(encoding);
+        return isValid(hash) && suffix != null ? pathOf(hash).resolveSibling(hash + suffix) : null;
+    }
+
+    private void write(Path target, String hash, byte[] content) throws IOException {
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(tmp, hash, ".part");
+        try {
+            Files.write(temp, content);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // 并发写入了相同内容
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public byte[] get(String hash) throws IOException {
+        if (!isValid(hash)) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(pathOf(hash));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return isValid(hash) && Files.exists(pathOf(hash));
+    }
+
+    @Override
+    public Path localPath(String hash) {
+        return isValid(hash) ? pathOf(hash) : null;
+    }
+
+    /**
+     * 产物文件路径：root/前两位/第三四位/完整哈希
+     */
+    Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static String suffixOf(String encoding) {
+        if (HtmlArtifactWriter.GZIP.equals(encoding)) {
+            return ".gz";
+        }
+        if (HtmlArtifactWriter.BROTLI.equals(encoding)) {
+            return ".br";
+        }
+        return null;
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HEX.formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean isValid(String hash) {
+        return hash != null && HASH.matcher(hash).matches();
+    }
+}
@@ -1,6 +1,7 @@
 package com.siteup.biz.client;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 
@@ -11,4 +12,10 @@ public interface AuthClient {
 
     @PostMapping("/api/v1/auth/verify")
     Map<String, Object> verifyToken(@RequestHeader("Authorization") String token);
+
+    /**
+     * Public keys and revoked jtis for verifying signed tokens locally
+     */
+    @GetMapping("/api/v1/auth/keys")
+    Map<String, Object> getKeys();
 }
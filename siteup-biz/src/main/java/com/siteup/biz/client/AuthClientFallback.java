@@ -1,5 +1,6 @@
 package com.siteup.biz.client;
 
+import com.siteup.biz.exception.ServiceUnavailableException;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
@@ -21,5 +22,10 @@ public class AuthClientFallback implements AuthClient {
         response.put("userId", null);
         return response;
     }
-}
 
+    @Override
+    public Map<String, Object> getKeys() {
+        // Keep the previously loaded keys; the caller ignores a failed refresh
+        throw new ServiceUnavailableException("siteup-auth");
+    }
+}
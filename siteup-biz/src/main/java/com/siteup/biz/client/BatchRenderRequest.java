@@ -0,0 +1,45 @@
+package com.siteup.biz.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request body for the engine batch render endpoint.
+ * The site configuration is sent as a generic JSON tree so biz does not depend on the engine model.
+ */
+public class BatchRenderRequest {
+
+    private List<Item> items = new ArrayList<>();
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    public static class Item {
+        private Long projectId;
+        private String templateId;
+        private String userId;
+        private Object config;
+
+        public Item() {
+        }
+
+        public Item(Long projectId, String templateId, String userId, Object config) {
+            this.projectId = projectId;
+            this.templateId = templateId;
+            this.userId = userId;
+            this.config = config;
+        }
+
+        public Long getProjectId() { return projectId; }
+        public void setProjectId(Long projectId) { this.projectId = projectId; }
+
+        public String getTemplateId() { return templateId; }
+        public void setTemplateId(String templateId) { this.templateId = templateId; }
+
+        public String getUserId() { return userId; }
+        public void setUserId(String userId) { this.userId = userId; }
+
+        public Object getConfig() { return config; }
+        public void setConfig(Object config) { this.config = config; }
+    }
+}
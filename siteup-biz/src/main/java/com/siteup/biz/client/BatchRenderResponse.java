@@ -0,0 +1,38 @@
+package com.siteup.biz.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response of the engine batch render endpoint; results are in request order.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchRenderResponse {
+
+    private List<Result> results = new ArrayList<>();
+
+    public List<Result> getResults() { return results; }
+    public void setResults(List<Result> results) { this.results = results; }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Result {
+        private Long projectId;
+        private boolean success;
+        private String html;
+        private String error;
+
+        public Long getProjectId() { return projectId; }
+        public void setProjectId(Long projectId) { this.projectId = projectId; }
+
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+
+        public String getHtml() { return html; }
+        public void setHtml(String html) { this.html = html; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
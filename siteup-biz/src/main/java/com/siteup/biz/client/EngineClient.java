@@ -1,6 +1,7 @@
 package com.siteup.biz.client;
 
 import com.siteup.biz.config.FeignConfig;
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
@@ -27,4 +28,23 @@ public interface EngineClient {
         @RequestParam("templateId") String templateId,
         @RequestParam("userId") String userId
     );
+
+    /**
+     * 二进制渲染通道：请求体为 Smile 编码的站点配置（见 {@link SmileCodec}），
+     * 响应体为原始 UTF-8 HTML，渲染信息在 X-Render-* 响应头中。
+     * 返回原始 Response，由调用方读取并关闭；任何状态码都不会抛出异常。
+     */
+    @PostMapping(value = "/api/v1/generate/render", consumes = SmileCodec.MEDIA_TYPE, produces = "text/html")
+    Response render(
+        @RequestBody byte[] smileConfig,
+        @RequestParam("projectId") Long projectId,
+        @RequestParam("templateId") String templateId,
+        @RequestParam("userId") String userId
+    );
+
+    /**
+     * 批量渲染：请求与响应均为 Smile 编码，结果与请求条目同序，单条失败不影响整批
+     */
+    @PostMapping(value = "/api/v1/generate/render/batch", consumes = SmileCodec.MEDIA_TYPE, produces = SmileCodec.MEDIA_TYPE)
+    BatchRenderResponse renderBatch(@RequestBody BatchRenderRequest request);
 }
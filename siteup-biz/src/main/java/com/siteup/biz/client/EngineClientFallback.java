@@ -1,7 +1,11 @@
 package com.siteup.biz.client;
 
+import com.siteup.biz.exception.ServiceUnavailableException;
+import feign.Request;
+import feign.Response;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
@@ -32,5 +36,23 @@ public class EngineClientFallback implements EngineClient {
             "timestamp", java.time.LocalDateTime.now().toString()
         );
     }
-}
 
+    @Override
+    public Response render(byte[] smileConfig, Long projectId, String templateId, String userId) {
+        // Report 503 so the caller can map it to SERVICE_UNAVAILABLE
+        Request request = Request.create(Request.HttpMethod.POST, "/api/v1/generate/render",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        return Response.builder()
+                .status(503)
+                .reason("Service Unavailable: The rendering engine is currently down.")
+                .request(request)
+                .headers(Map.of())
+                .build();
+    }
+
+    @Override
+    public BatchRenderResponse renderBatch(BatchRenderRequest request) {
+        // Bulk jobs stop at their last checkpoint and can be resumed, so fail instead of degrading
+        throw new ServiceUnavailableException("siteup-engine");
+    }
+}
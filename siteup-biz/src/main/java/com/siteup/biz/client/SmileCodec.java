@@ -0,0 +1,43 @@
+package com.siteup.biz.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Converts stored JSON site configurations to Smile (binary JSON) for the engine render transport.
+ * The conversion is a streaming token copy: no tree or Map is built in between.
+ */
+public final class SmileCodec {
+
+    public static final String MEDIA_TYPE = "application/x-jackson-smile";
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final SmileFactory SMILE = new SmileFactory();
+
+    private SmileCodec() {
+    }
+
+    /**
+     * @throws JsonParseException if the input is not a single well-formed JSON value
+     */
+    public static byte[] jsonToSmile(String json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length() / 2));
+        try (JsonParser parser = JSON.createParser(json);
+             JsonGenerator generator = SMILE.createGenerator(out)) {
+            if (parser.nextToken() == null) {
+                throw new JsonParseException(parser, "Empty JSON content");
+            }
+            generator.copyCurrentStructure(parser);
+            if (parser.nextToken() != null) {
+                throw new JsonParseException(parser, "Unexpected content after the JSON value");
+            }
+        }
+        return out.toByteArray();
+    }
+}
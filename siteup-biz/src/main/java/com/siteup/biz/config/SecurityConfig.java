@@ -14,17 +14,23 @@ import com.siteup.biz.client.AuthClient;
 public class SecurityConfig {
 
     @Bean
-    public TokenAuthenticationFilter tokenAuthenticationFilter(AuthClient authClient) {
-        return new TokenAuthenticationFilter(authClient);
+    public TokenAuthenticationFilter tokenAuthenticationFilter(AuthClient authClient, SignedTokenVerifier signedTokenVerifier) {
+        return new TokenAuthenticationFilter(authClient, signedTokenVerifier);
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, AuthClient authClient) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, AuthClient authClient,
+                                           SignedTokenVerifier signedTokenVerifier) throws Exception {
         http
             .csrf().disable()
             .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             .and()
             .authorizeHttpRequests(authz -> authz
+                // 批量重新发布及其任务管理仅限管理员（优先于下方模板路径的匿名规则）
+                .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/v1/templates/*/republish").hasRole("ADMIN")
+                .requestMatchers("/api/v1/republish-runs/**").hasRole("ADMIN")
+                // 发布任务的状态与事件流需要登录
+                .requestMatchers("/api/v1/publish-jobs/**").authenticated()
                 // 模板列表与详情允许匿名访问
                 .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/templates/**").permitAll()
                 // 从模板创建项目需要登录
@@ -35,7 +41,7 @@ public class SecurityConfig {
                 .anyRequest().permitAll()
             )
             // Add our token filter into the security filter chain before the username/password auth filter
-            .addFilterBefore(tokenAuthenticationFilter(authClient), UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(tokenAuthenticationFilter(authClient, signedTokenVerifier), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,124 @@
+package com.siteup.biz.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.biz.client.AuthClient;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地验证 siteup-auth 签发的签名 token（st1.kid.payload.signature，Ed25519）
+ *
+ * 不经过网关的请求（TokenAuthenticationFilter 的回退路径）也无需调用 siteup-auth：
+ * 公钥和已撤销的 jti 每 refresh-seconds 从 /api/v1/auth/keys 拉取，kid 未知时回退到远程验证。
+ */
+@Component
+public class SignedTokenVerifier {
+
+    static final String PREFIX = "st1.";
+
+    private static final Base64.Decoder B64URL = Base64.getUrlDecoder();
+
+    private final AuthClient authClient;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService refresher;
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile Set<String> revoked = Set.of();
+
+    public SignedTokenVerifier(AuthClient authClient,
+                               ObjectMapper objectMapper,
+                               @Value("${siteup.biz.signed-token.refresh-seconds:30}") long refreshSeconds) {
+        this.authClient = authClient;
+        this.objectMapper = objectMapper;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "signed-token-keys");
+            t.setDaemon(true);
+            return t;
+        });
+        this.refresher.scheduleWithFixedDelay(this::refresh, 0, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 验证签名 token
+     *
+     * @return 与 /api/v1/auth/verify 相同结构的结果；不是签名 token 或 kid 未知时返回 null（应远程验证）
+     */
+    public Map<String, Object> verify(String token) {
+        if (token == null || !token.startsWith(PREFIX)) {
+            return null;
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 4) {
+            return invalid("Invalid token");
+        }
+        PublicKey key = keys.get(parts[1]);
+        if (key == null) {
+            return null;
+        }
+        try {
+            Signature signature = Signature.getInstance("Ed25519");
+            signature.initVerify(key);
+            signature.update((parts[0] + "." + parts[1] + "." + parts[2]).getBytes(StandardCharsets.US_ASCII));
+            if (!signature.verify(B64URL.decode(parts[3]))) {
+                return invalid("Invalid token");
+            }
+            Map<?, ?> payload = objectMapper.readValue(B64URL.decode(parts[2]), Map.class);
+            long expiresAt = ((Number) payload.get("exp")).longValue() * 1000;
+            if (expiresAt <= System.currentTimeMillis()) {
+                return invalid("Token expired");
+            }
+            if (revoked.contains(String.valueOf(payload.get("jti")))) {
+                return invalid("Token revoked");
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("valid", true);
+            result.put("userId", payload.get("uid"));
+            result.put("username", payload.get("sub"));
+            result.put("role", payload.get("role"));
+            result.put("expiresAt", expiresAt);
+            return result;
+        } catch (Exception e) {
+            return invalid("Invalid token");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void refresh() {
+        try {
+            Map<String, Object> keySet = authClient.getKeys();
+            Map<String, PublicKey> loaded = new HashMap<>();
+            KeyFactory keyFactory = KeyFactory.getInstance("Ed25519");
+            for (Map<String, Object> key : (List<Map<String, Object>>) keySet.getOrDefault("keys", List.of())) {
+                byte[] encoded = Base64.getDecoder().decode(String.valueOf(key.get("publicKey")));
+                loaded.put(String.valueOf(key.get("kid")), keyFactory.generatePublic(new X509EncodedKeySpec(encoded)));
+            }
+            keys = Map.copyOf(loaded);
+            revoked = Set.copyOf((List<String>) keySet.getOrDefault("revoked", List.of()));
+        } catch (Exception e) {
+            System.err.println("Failed to refresh signed token keys: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> invalid(String message) {
+        return Map.of("valid", false, "message", message);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -2,17 +2,28 @@ package com.siteup.biz.controller;
 
 import com.siteup.biz.model.CreateProjectRequest;
 import com.siteup.biz.model.Project;
+import com.siteup.biz.model.RepublishRun;
+import com.siteup.biz.publish.BulkRepublishService;
+import com.siteup.biz.publish.PublishJob;
+import com.siteup.biz.publish.PublishJobService;
 import com.siteup.biz.service.ProjectService;
+import com.siteup.biz.site.PublishedSiteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.Map;
 
 @RestController
@@ -21,9 +32,16 @@ import java.util.Map;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final PublishJobService publishJobService;
+    private final BulkRepublishService bulkRepublishService;
+    private final PublishedSiteService publishedSiteService;
 
-    public ProjectController(ProjectService projectService) {
+    public ProjectController(ProjectService projectService, PublishJobService publishJobService,
+                             BulkRepublishService bulkRepublishService, PublishedSiteService publishedSiteService) {
         this.projectService = projectService;
+        this.publishJobService = publishJobService;
+        this.bulkRepublishService = bulkRepublishService;
+        this.publishedSiteService = publishedSiteService;
     }
 
     @PostMapping("/templates/from-template/{templateId}")
@@ -54,26 +72,124 @@ public class ProjectController {
 
     @PostMapping("/projects/{id}/publish")
     @Operation(summary = "Publish project",
-               description = "Publish a project by generating HTML from its configuration")
+               description = "Queue an asynchronous publish job; poll the status URL or subscribe to its events for the result")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Project published successfully"),
+        @ApiResponse(responseCode = "202", description = "Publish job accepted"),
         @ApiResponse(responseCode = "404", description = "Project not found"),
-        @ApiResponse(responseCode = "503", description = "Engine service unavailable")
+        @ApiResponse(responseCode = "429", description = "Publish queue is full")
     })
     public ResponseEntity<Map<String, Object>> publishProject(
             @Parameter(description = "Project ID to publish")
             @PathVariable Long id) {
-        Project project = projectService.publishProject(id);
+        PublishJob job = publishJobService.submit(id);
+        String statusUrl = "/api/v1/publish-jobs/" + job.getJobId();
 
         Map<String, Object> response = Map.of(
             "success", true,
-            "message", "Project published successfully",
-            "projectId", project.getId(),
-            "publicUrl", project.getPublicUrl(),
-            "publishedAt", project.getPublishedAt()
+            "message", "Publish job accepted",
+            "projectId", job.getProjectId(),
+            "jobId", job.getJobId(),
+            "status", job.getStatus(),
+            "statusUrl", statusUrl,
+            "eventsUrl", statusUrl + "/events"
         );
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.accepted()
+            .location(URI.create(statusUrl))
+            .body(response);
+    }
+
+    @GetMapping("/publish-jobs/{jobId}")
+    @Operation(summary = "Get publish job status",
+               description = "Poll the status of an asynchronous publish job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Publish job found"),
+        @ApiResponse(responseCode = "404", description = "Publish job not found or expired")
+    })
+    public ResponseEntity<PublishJob> getPublishJob(
+            @Parameter(description = "Publish job ID")
+            @PathVariable String jobId) {
+        return ResponseEntity.ok(publishJobService.getJob(jobId));
+    }
+
+    @GetMapping(value = "/publish-jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to publish job events",
+               description = "Server-sent events stream; emits a 'status' event on every state change and closes when the job finishes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream opened"),
+        @ApiResponse(responseCode = "404", description = "Publish job not found or expired")
+    })
+    public SseEmitter subscribePublishJob(
+            @Parameter(description = "Publish job ID")
+            @PathVariable String jobId) {
+        return publishJobService.subscribe(jobId);
+    }
+
+    @PostMapping("/templates/{templateId}/republish")
+    @Operation(summary = "Republish projects built from a template",
+               description = "Start a resumable bulk republish of the projects created from the template, "
+                           + "filtered by project status (admin only)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Republish run accepted"),
+        @ApiResponse(responseCode = "400", description = "Invalid batch size or rate"),
+        @ApiResponse(responseCode = "403", description = "Admin role required"),
+        @ApiResponse(responseCode = "404", description = "Template not found")
+    })
+    public ResponseEntity<RepublishRun> republishTemplate(
+            @Parameter(description = "Template ID whose projects are republished")
+            @PathVariable String templateId,
+            @Parameter(description = "Only republish projects in this status; published when omitted, 'all' for every status. "
+                                   + "Project status is never changed")
+            @RequestParam(required = false) String status,
+            @Parameter(description = "Projects rendered per engine call")
+            @RequestParam(required = false) Integer batchSize,
+            @Parameter(description = "Maximum projects per second, 0 for unlimited")
+            @RequestParam(required = false) Integer maxPerSecond) {
+        RepublishRun run = bulkRepublishService.start(templateId, status, batchSize, maxPerSecond);
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/v1/republish-runs/" + run.getId()))
+            .body(run);
+    }
+
+    @GetMapping("/republish-runs/{runId}")
+    @Operation(summary = "Get republish run progress",
+               description = "Retrieve state, checkpoint and progress counters of a bulk republish run")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Republish run found"),
+        @ApiResponse(responseCode = "404", description = "Republish run not found")
+    })
+    public ResponseEntity<RepublishRun> getRepublishRun(
+            @Parameter(description = "Republish run ID")
+            @PathVariable Long runId) {
+        return ResponseEntity.ok(bulkRepublishService.getRun(runId));
+    }
+
+    @PostMapping("/republish-runs/{runId}/pause")
+    @Operation(summary = "Pause a republish run",
+               description = "Stop the run after the current batch is committed; it can be resumed later")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Pause requested"),
+        @ApiResponse(responseCode = "400", description = "Run is not queued or running"),
+        @ApiResponse(responseCode = "404", description = "Republish run not found")
+    })
+    public ResponseEntity<RepublishRun> pauseRepublishRun(
+            @Parameter(description = "Republish run ID")
+            @PathVariable Long runId) {
+        return ResponseEntity.accepted().body(bulkRepublishService.pause(runId));
+    }
+
+    @PostMapping("/republish-runs/{runId}/resume")
+    @Operation(summary = "Resume a republish run",
+               description = "Continue a paused or failed run from its last committed checkpoint")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Run queued again"),
+        @ApiResponse(responseCode = "400", description = "Run is not paused or failed"),
+        @ApiResponse(responseCode = "404", description = "Republish run not found")
+    })
+    public ResponseEntity<RepublishRun> resumeRepublishRun(
+            @Parameter(description = "Republish run ID")
+            @PathVariable Long runId) {
+        return ResponseEntity.accepted().body(bulkRepublishService.resume(runId));
     }
 
     @GetMapping("/projects/{id}")
@@ -99,23 +215,23 @@ public class ProjectController {
         return ResponseEntity.ok(projects);
     }
 
-    // For demo purposes - direct access to generated HTML
+    // Published pages are served from the artifact store without touching the database
     @GetMapping("/generated/{projectId}")
     @Operation(summary = "Get generated HTML",
-               description = "Retrieve the generated HTML content for a published project")
+               description = "Serve the published HTML of a project with a strong ETag and Last-Modified; "
+                           + "conditional requests are answered with 304")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "HTML content retrieved"),
+        @ApiResponse(responseCode = "304", description = "Cached copy is still current"),
         @ApiResponse(responseCode = "404", description = "Project not found or not published")
     })
-    public ResponseEntity<String> getGeneratedHtml(
+    public void getGeneratedHtml(
             @Parameter(description = "Project ID")
-            @PathVariable Long projectId) {
-        Project project = projectService.getProject(projectId);
-        if (project != null && project.getGeneratedHtml() != null) {
-            return ResponseEntity.ok()
-                .header("Content-Type", "text/html")
-                .body(project.getGeneratedHtml());
+            @PathVariable Long projectId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        if (!publishedSiteService.serve(projectId, request, response)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
         }
-        return ResponseEntity.notFound().build();
     }
 }
@@ -0,0 +1,18 @@
+package com.siteup.biz.exception;
+
+/**
+ * Exception thrown when a bounded work queue cannot accept more requests
+ */
+public class TooManyRequestsException extends BizException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String errorCode, String message, long retryAfterSeconds) {
+        super(errorCode, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "project")
+@Table(name = "project", indexes = {
+    @Index(name = "idx_template_status", columnList = "template_id, status")
+})
 public class Project {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,8 +26,12 @@ public class Project {
     @Column(columnDefinition = "TEXT")
     private String config; // JSON string from template
 
-    @Column(columnDefinition = "TEXT")
-    private String generatedHtml;
+    @Column(length = 64)
+    private String htmlHash; // 生成的 HTML 在产物存储中的 SHA-256（内容本身不再放在项目行中）
+
+    private Long htmlSize; // 生成的 HTML 字节数
+
+    private LocalDateTime htmlGeneratedAt;
 
     @Column(nullable = false)
     private String status; // draft, published, archived
@@ -56,8 +62,14 @@ public class Project {
     public String getConfig() { return config; }
     public void setConfig(String config) { this.config = config; }
 
-    public String getGeneratedHtml() { return generatedHtml; }
-    public void setGeneratedHtml(String generatedHtml) { this.generatedHtml = generatedHtml; }
+    public String getHtmlHash() { return htmlHash; }
+    public void setHtmlHash(String htmlHash) { this.htmlHash = htmlHash; }
+
+    public Long getHtmlSize() { return htmlSize; }
+    public void setHtmlSize(Long htmlSize) { this.htmlSize = htmlSize; }
+
+    public LocalDateTime getHtmlGeneratedAt() { return htmlGeneratedAt; }
+    public void setHtmlGeneratedAt(LocalDateTime htmlGeneratedAt) { this.htmlGeneratedAt = htmlGeneratedAt; }
 
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
@@ -0,0 +1,138 @@
+package com.siteup.biz.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 批量重新发布任务（按模板/状态选取项目）
+ *
+ * lastProjectId 是断点：按项目 id 递增处理，每批结果与断点在同一事务中提交，
+ * 服务崩溃或手动暂停后从断点继续，不会重复处理已提交的批次。
+ *
+ * 多实例部署时，执行前用条件 UPDATE 认领任务（owner + heartbeatAt），每批提交时刷新心跳；
+ * 暂停请求记录在 pauseRequested 上，由持有任务的实例在批次之间检查。
+ */
+@Entity
+@Table(name = "republish_run", indexes = {
+    @Index(name = "idx_republish_state", columnList = "state")
+})
+public class RepublishRun {
+
+    public enum State {
+        QUEUED, RUNNING, PAUSED, COMPLETED, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String templateId;
+
+    private String statusFilter; // 为空表示不限项目状态
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private State state;
+
+    @Column(nullable = false)
+    private int batchSize;
+
+    @Column(nullable = false)
+    private int maxPerSecond; // 0 表示不限速
+
+    @Column(nullable = false)
+    private long lastProjectId;
+
+    @Column(nullable = false)
+    private long totalProjects;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private long succeeded;
+
+    @Column(nullable = false)
+    private long failed;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false)
+    private boolean pauseRequested;
+
+    @Column(length = 64)
+    private String owner; // 正在执行该任务的实例，未认领时为空
+
+    private LocalDateTime heartbeatAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTemplateId() { return templateId; }
+    public void setTemplateId(String templateId) { this.templateId = templateId; }
+
+    public String getStatusFilter() { return statusFilter; }
+    public void setStatusFilter(String statusFilter) { this.statusFilter = statusFilter; }
+
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public int getMaxPerSecond() { return maxPerSecond; }
+    public void setMaxPerSecond(int maxPerSecond) { this.maxPerSecond = maxPerSecond; }
+
+    public long getLastProjectId() { return lastProjectId; }
+    public void setLastProjectId(long lastProjectId) { this.lastProjectId = lastProjectId; }
+
+    public long getTotalProjects() { return totalProjects; }
+    public void setTotalProjects(long totalProjects) { this.totalProjects = totalProjects; }
+
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+
+    public long getSucceeded() { return succeeded; }
+    public void setSucceeded(long succeeded) { this.succeeded = succeeded; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public boolean isPauseRequested() { return pauseRequested; }
+    public void setPauseRequested(boolean pauseRequested) { this.pauseRequested = pauseRequested; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public LocalDateTime getHeartbeatAt() { return heartbeatAt; }
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) { this.heartbeatAt = heartbeatAt; }
+
+    /**
+     * 进度百分比（总数在创建时统计，期间新增的项目也会被处理，因此可能略超 100）
+     */
+    public double getProgressPercent() {
+        return totalProjects == 0 ? 100.0 : Math.round(processed * 1000.0 / totalProjects) / 10.0;
+    }
+}
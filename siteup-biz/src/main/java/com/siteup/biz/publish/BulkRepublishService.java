@@ -0,0 +1,445 @@
+package com.siteup.biz.publish;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.biz.artifact.HtmlArtifactWriter;
+import com.siteup.biz.client.BatchRenderRequest;
+import com.siteup.biz.client.BatchRenderResponse;
+import com.siteup.biz.client.EngineClient;
+import com.siteup.biz.exception.InvalidRequestException;
+import com.siteup.biz.exception.ResourceNotFoundException;
+import com.siteup.biz.model.RepublishRun;
+import com.siteup.biz.repository.ProjectRepository;
+import com.siteup.biz.repository.RepublishRunRepository;
+import com.siteup.biz.repository.TemplateRepository;
+import com.siteup.biz.service.ProjectService;
+import com.siteup.biz.site.EdgeCacheInvalidator;
+import com.siteup.biz.site.PublishedSiteIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按模板批量重新发布
+ *
+ * - 按项目 id 游标分页读取（只取渲染所需列），每页作为一批通过引擎批量接口渲染；
+ * - 成功结果用 JDBC 批量更新写回，与断点（lastProjectId）和进度计数在同一事务中提交；
+ * - 吞吐控制：每批条数 batchSize、每秒最多处理的项目数 maxPerSecond，同一时间只执行一个任务，
+ *   避免批量任务挤占交互式发布的引擎容量；
+ * - 只刷新已生成的 HTML，不改变项目状态：未发布的项目不会因此上线，
+ *   草稿只更新 html_hash（供预览/发布时复用），不写 public_url，也不写入对外的站点指针；
+ *   未指定状态时默认只处理已发布（published）的项目，status=all 表示不限；
+ * - 引擎不可用时任务进入 FAILED，暂停的任务进入 PAUSED，二者都可从断点恢复；
+ * - 多实例：执行前用条件 UPDATE 认领任务（owner + heartbeat_at），每批提交时刷新心跳并确认仍持有任务；
+ *   暂停请求写在任务行上（pause_requested），由持有任务的实例在批次之间检查，可以发给任意实例；
+ *   启动时及每个租约周期恢复未认领或心跳超过 lease-seconds 的 QUEUED/RUNNING 任务。
+ */
+@Service
+public class BulkRepublishService {
+
+    static final String UPDATE_SQL = "UPDATE project SET html_hash = ?, html_size = ?, html_generated_at = ?, "
+            + "published_at = CASE WHEN status = 'published' THEN ? ELSE published_at END, updated_at = ?, "
+            + "public_url = CASE WHEN status = 'published' THEN ? ELSE public_url END WHERE id = ?";
+
+    /** 认领：只有未被认领或原持有者心跳已超时的任务才能被认领 */
+    static final String CLAIM_SQL = "UPDATE republish_run SET owner = ?, heartbeat_at = ?, state = 'RUNNING', "
+            + "updated_at = ? WHERE id = ? AND state IN ('QUEUED', 'RUNNING') "
+            + "AND (owner IS NULL OR heartbeat_at IS NULL OR heartbeat_at < ?)";
+
+    static final String PAUSE_SQL = "UPDATE republish_run SET pause_requested = TRUE, updated_at = ? "
+            + "WHERE id = ? AND state IN ('QUEUED', 'RUNNING')";
+
+    /** 服务关闭时放弃认领，其他实例无需等待租约过期即可接手 */
+    static final String RELEASE_SQL = "UPDATE republish_run SET owner = NULL, heartbeat_at = NULL "
+            + "WHERE id = ? AND owner = ?";
+
+    static final String DEFAULT_STATUS = "published";
+    static final String ALL_STATUSES = "all";
+
+    private static final String METRIC_PREFIX = "siteup.republish";
+
+    private final ProjectRepository projectRepository;
+    private final TemplateRepository templateRepository;
+    private final RepublishRunRepository runRepository;
+    private final HtmlArtifactWriter artifactWriter;
+    private final PublishedSiteIndex publishedSites;
+    private final EdgeCacheInvalidator edgeCache;
+    private final EngineClient engineClient;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultBatchSize;
+    private final int maxBatchSize;
+    private final int defaultMaxPerSecond;
+    private final long leaseSeconds;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ScheduledExecutorService runner = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "republish-runner");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Counter succeededProjects;
+    private final Counter failedProjects;
+
+    public BulkRepublishService(ProjectRepository projectRepository,
+                                TemplateRepository templateRepository,
+                                RepublishRunRepository runRepository,
+                                HtmlArtifactWriter artifactWriter,
+                                PublishedSiteIndex publishedSites,
+                                EdgeCacheInvalidator edgeCache,
+                                EngineClient engineClient,
+                                ObjectMapper objectMapper,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${siteup.biz.republish.batch-size:50}") int defaultBatchSize,
+                                @Value("${siteup.biz.republish.max-batch-size:100}") int maxBatchSize,
+                                @Value("${siteup.biz.republish.max-per-second:0}") int defaultMaxPerSecond,
+                                @Value("${siteup.biz.republish.lease-seconds:300}") long leaseSeconds) {
+        this.projectRepository = projectRepository;
+        this.templateRepository = templateRepository;
+        this.runRepository = runRepository;
+        this.artifactWriter = artifactWriter;
+        this.publishedSites = publishedSites;
+        this.edgeCache = edgeCache;
+        this.engineClient = engineClient;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultBatchSize = defaultBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.defaultMaxPerSecond = defaultMaxPerSecond;
+        this.leaseSeconds = leaseSeconds;
+        this.succeededProjects = Counter.builder(METRIC_PREFIX + ".projects").tag("result", "succeeded").register(meterRegistry);
+        this.failedProjects = Counter.builder(METRIC_PREFIX + ".projects").tag("result", "failed").register(meterRegistry);
+        // 接手其他实例崩溃后留下的任务；runner 单线程，本实例执行任务期间不会检查
+        this.runner.scheduleWithFixedDelay(this::resumeInterrupted, leaseSeconds, leaseSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 创建并排队一个批量重新发布任务
+     *
+     * @param status       只处理该状态的项目，为空时为 published，all 表示不限
+     * @param batchSize    每批条数，为空使用默认值，不超过 max-batch-size（引擎单次批量上限）
+     * @param maxPerSecond 每秒最多处理的项目数，为空使用默认值，0 表示不限速
+     */
+    public RepublishRun start(String templateId, String status, Integer batchSize, Integer maxPerSecond) {
+        if (!templateRepository.existsById(templateId)) {
+            throw new ResourceNotFoundException("Template", templateId);
+        }
+        int size = batchSize != null ? batchSize : defaultBatchSize;
+        int rate = maxPerSecond != null ? maxPerSecond : defaultMaxPerSecond;
+        if (size < 1 || size > maxBatchSize) {
+            throw new InvalidRequestException("batchSize must be between 1 and " + maxBatchSize);
+        }
+        if (rate < 0) {
+            throw new InvalidRequestException("maxPerSecond must not be negative");
+        }
+        String statusFilter = statusFilter(status);
+
+        LocalDateTime now = LocalDateTime.now();
+        RepublishRun run = new RepublishRun();
+        run.setTemplateId(templateId);
+        run.setStatusFilter(statusFilter);
+        run.setState(RepublishRun.State.QUEUED);
+        run.setBatchSize(size);
+        run.setMaxPerSecond(rate);
+        run.setTotalProjects(projectRepository.countForRepublish(templateId, statusFilter));
+        run.setCreatedAt(now);
+        run.setUpdatedAt(now);
+        run = runRepository.save(run);
+
+        enqueue(run.getId());
+        return run;
+    }
+
+    /**
+     * 请求中的状态参数转换为查询条件，null 表示不限状态
+     */
+    static String statusFilter(String status) {
+        if (status == null || status.isBlank()) {
+            return DEFAULT_STATUS;
+        }
+        return ALL_STATUSES.equalsIgnoreCase(status) ? null : status;
+    }
+
+    public RepublishRun getRun(Long runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Republish run", runId));
+    }
+
+    /**
+     * 请求暂停：记录在任务行上，持有任务的实例在当前批次提交后停止，状态变为 PAUSED
+     */
+    public RepublishRun pause(Long runId) {
+        RepublishRun run = getRun(runId);
+        if (jdbcTemplate.update(PAUSE_SQL, Timestamp.valueOf(LocalDateTime.now()), runId) == 0) {
+            throw new InvalidRequestException("Republish run " + runId + " is " + run.getState() + " and cannot be paused");
+        }
+        run.setPauseRequested(true);
+        return run;
+    }
+
+    /**
+     * 从断点恢复暂停或失败的任务
+     */
+    public RepublishRun resume(Long runId) {
+        RepublishRun run = getRun(runId);
+        if (run.getState() != RepublishRun.State.PAUSED && run.getState() != RepublishRun.State.FAILED) {
+            throw new InvalidRequestException("Republish run " + runId + " is " + run.getState() + " and cannot be resumed");
+        }
+        run.setState(RepublishRun.State.QUEUED);
+        run.setPauseRequested(false);
+        run.setOwner(null);
+        run.setHeartbeatAt(null);
+        run.setLastError(null);
+        run.setFinishedAt(null);
+        run.setUpdatedAt(LocalDateTime.now());
+        run = runRepository.save(run);
+        enqueue(runId);
+        return run;
+    }
+
+    /**
+     * 恢复未完成的任务（崩溃或重启时处于 QUEUED/RUNNING）：只排队未被认领或心跳已超时的任务，
+     * 实际执行前仍需认领成功，多个实例同时恢复时只有一个会执行
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        try {
+            LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(leaseSeconds);
+            for (RepublishRun run : runRepository.findByStateInOrderByIdAsc(
+                    EnumSet.of(RepublishRun.State.QUEUED, RepublishRun.State.RUNNING))) {
+                if (run.getOwner() != null && run.getHeartbeatAt() != null && !run.getHeartbeatAt().isBefore(staleBefore)) {
+                    continue;
+                }
+                System.out.println("Resuming republish run " + run.getId() + " after project " + run.getLastProjectId());
+                enqueue(run.getId());
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to resume republish runs: " + e.getMessage());
+        }
+    }
+
+    private void enqueue(Long runId) {
+        runner.execute(() -> {
+            try {
+                execute(runId);
+            } catch (Exception e) {
+                System.err.println("Republish run " + runId + " aborted: " + e.getMessage());
+                finish(runId, RepublishRun.State.FAILED, e.getMessage());
+            }
+        });
+    }
+
+    void execute(Long runId) {
+        if (!claim(runId)) {
+            return;
+        }
+        RepublishRun run = getRun(runId);
+
+        while (true) {
+            if (run.isPauseRequested()) {
+                finish(runId, RepublishRun.State.PAUSED, null);
+                return;
+            }
+            long batchStart = System.nanoTime();
+            List<ProjectRepository.RenderSource> page = projectRepository.findRenderSources(
+                    run.getTemplateId(), run.getStatusFilter(), run.getLastProjectId(),
+                    PageRequest.of(0, run.getBatchSize()));
+            if (page.isEmpty()) {
+                finish(runId, RepublishRun.State.COMPLETED, null);
+                return;
+            }
+
+            // 配置无法解析的项目直接记为失败，不发给引擎
+            BatchRenderRequest request = new BatchRenderRequest();
+            int invalid = 0;
+            for (ProjectRepository.RenderSource source : page) {
+                try {
+                    request.getItems().add(new BatchRenderRequest.Item(source.getId(), source.getTemplateId(),
+                            source.getUserId(), objectMapper.readTree(source.getConfig())));
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    invalid++;
+                }
+            }
+
+            List<BatchRenderResponse.Result> rendered = request.getItems().isEmpty()
+                    ? List.of()
+                    : engineClient.renderBatch(request).getResults();
+            // 先写产物再提交数据库：崩溃时最多留下未被引用的产物，不会出现指向缺失产物的项目
+            Set<Long> published = new HashSet<>();
+            for (ProjectRepository.RenderSource source : page) {
+                if (DEFAULT_STATUS.equals(source.getStatus())) {
+                    published.add(source.getId());
+                }
+            }
+            List<StoredHtml> successes = new ArrayList<>();
+            for (BatchRenderResponse.Result result : rendered) {
+                if (result.isSuccess() && result.getHtml() != null) {
+                    byte[] html = result.getHtml().getBytes(StandardCharsets.UTF_8);
+                    successes.add(new StoredHtml(result.getProjectId(), store(html), html.length,
+                            published.contains(result.getProjectId())));
+                }
+            }
+            int failures = page.size() - successes.size();
+
+            run = commitBatch(runId, successes, failures, page.get(page.size() - 1).getId());
+            if (run == null) {
+                System.err.println("Republish run " + runId + " was taken over by another instance, stopping");
+                return;
+            }
+            // 只有已发布的项目对外可见，草稿等只更新数据库中的 HTML
+            List<StoredHtml> live = successes.stream().filter(StoredHtml::published).toList();
+            for (StoredHtml stored : live) {
+                publishedSites.update(stored.projectId(), stored.hash());
+            }
+            edgeCache.invalidate(live.stream().map(StoredHtml::projectId).toList());
+            succeededProjects.increment(successes.size());
+            failedProjects.increment(failures);
+            if (invalid > 0) {
+                System.err.println("Republish run " + runId + ": skipped " + invalid + " projects with invalid configuration");
+            }
+
+            if (!throttle(batchStart, page.size(), run.getMaxPerSecond())) {
+                // 服务关闭：保持 RUNNING 并放弃认领，由其他实例或下次启动从断点恢复
+                jdbcTemplate.update(RELEASE_SQL, runId, instanceId);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 认领任务，成功时由本实例执行
+     */
+    private boolean claim(Long runId) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return jdbcTemplate.update(CLAIM_SQL, instanceId, timestamp, timestamp, runId,
+                Timestamp.valueOf(now.minusSeconds(leaseSeconds))) == 1;
+    }
+
+    /**
+     * 批量写回渲染结果，并在同一事务中推进断点、进度和心跳
+     *
+     * @return 任务已被其他实例接手时不写入并返回 null
+     */
+    private RepublishRun commitBatch(Long runId, List<StoredHtml> successes,
+                                     int failures, long lastProjectId) {
+        return transactionTemplate.execute(tx -> {
+            RepublishRun run = lockRun(runId);
+            if (!instanceId.equals(run.getOwner())) {
+                return null;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            Timestamp timestamp = Timestamp.valueOf(now);
+            if (!successes.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, successes, successes.size(), (ps, stored) -> {
+                    ps.setString(1, stored.hash());
+                    ps.setLong(2, stored.size());
+                    ps.setTimestamp(3, timestamp);
+                    ps.setTimestamp(4, timestamp);
+                    ps.setTimestamp(5, timestamp);
+                    ps.setString(6, ProjectService.publicUrlFor(stored.projectId()));
+                    ps.setLong(7, stored.projectId());
+                });
+            }
+            run.setLastProjectId(lastProjectId);
+            run.setProcessed(run.getProcessed() + successes.size() + failures);
+            run.setSucceeded(run.getSucceeded() + successes.size());
+            run.setFailed(run.getFailed() + failures);
+            run.setUpdatedAt(now);
+            run.setHeartbeatAt(now);
+            return runRepository.save(run);
+        });
+    }
+
+    private RepublishRun lockRun(Long runId) {
+        return runRepository.lockById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Republish run", runId));
+    }
+
+    private String store(byte[] html) {
+        try {
+            return artifactWriter.write(html);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store HTML artifact", e);
+        }
+    }
+
+    /**
+     * 结束本实例持有的任务并释放认领；未持有（例如认领前就失败）时不改动
+     */
+    private void finish(Long runId, RepublishRun.State state, String error) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            RepublishRun run = lockRun(runId);
+            if (!instanceId.equals(run.getOwner())) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            run.setState(state);
+            run.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+            run.setUpdatedAt(now);
+            run.setPauseRequested(false);
+            run.setOwner(null);
+            run.setHeartbeatAt(null);
+            if (state == RepublishRun.State.COMPLETED) {
+                run.setFinishedAt(now);
+            }
+            runRepository.save(run);
+        });
+    }
+
+    /**
+     * 限速：本批耗时不足 items / maxPerSecond 秒时补足等待
+     *
+     * @return 线程被中断（服务关闭）时返回 false
+     */
+    private boolean throttle(long batchStartNanos, int items, int maxPerSecond) {
+        if (maxPerSecond > 0) {
+            long minNanos = TimeUnit.SECONDS.toNanos(items) / maxPerSecond;
+            long remaining = minNanos - (System.nanoTime() - batchStartNanos);
+            if (remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    private record StoredHtml(Long projectId, String hash, long size, boolean published) {
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 进行中的任务保持 RUNNING，由 execute 放弃认领后从断点恢复
+        runner.shutdownNow();
+    }
+}
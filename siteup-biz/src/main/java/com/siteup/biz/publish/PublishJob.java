@@ -0,0 +1,153 @@
+package com.siteup.biz.publish;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 异步发布任务
+ *
+ * 状态流转：QUEUED -> RUNNING -> SUCCEEDED / FAILED。
+ * 状态变更与 SSE 订阅在同一把锁下进行，订阅者不会错过终态事件。
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PublishJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED;
+
+        public boolean isTerminal() {
+            return this == SUCCEEDED || this == FAILED;
+        }
+    }
+
+    private final String jobId;
+    private final Long projectId;
+    private final LocalDateTime submittedAt;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String publicUrl;
+    private volatile LocalDateTime publishedAt;
+    private volatile String errorCode;
+    private volatile String errorMessage;
+
+    private final List<SseEmitter> subscribers = new ArrayList<>();
+
+    PublishJob(String jobId, Long projectId) {
+        this.jobId = jobId;
+        this.projectId = projectId;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    synchronized void start() {
+        this.status = Status.RUNNING;
+        this.startedAt = LocalDateTime.now();
+        broadcast();
+    }
+
+    synchronized void succeed(String publicUrl, LocalDateTime publishedAt) {
+        this.publicUrl = publicUrl;
+        this.publishedAt = publishedAt;
+        finish(Status.SUCCEEDED);
+    }
+
+    synchronized void fail(String errorCode, String errorMessage) {
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+        finish(Status.FAILED);
+    }
+
+    private void finish(Status terminal) {
+        this.status = terminal;
+        this.finishedAt = LocalDateTime.now();
+        broadcast();
+        List<SseEmitter> remaining = new ArrayList<>(subscribers);
+        subscribers.clear();
+        remaining.forEach(SseEmitter::complete);
+    }
+
+    /**
+     * 订阅状态事件：立即推送当前状态；任务已结束则推送后直接关闭
+     */
+    synchronized void subscribe(SseEmitter emitter) {
+        if (!send(emitter)) {
+            return;
+        }
+        if (status.isTerminal()) {
+            emitter.complete();
+            return;
+        }
+        subscribers.add(emitter);
+        emitter.onCompletion(() -> unsubscribe(emitter));
+        emitter.onTimeout(() -> unsubscribe(emitter));
+        emitter.onError(e -> unsubscribe(emitter));
+    }
+
+    private synchronized void unsubscribe(SseEmitter emitter) {
+        subscribers.remove(emitter);
+    }
+
+    private void broadcast() {
+        for (SseEmitter emitter : new ArrayList<>(subscribers)) {
+            if (!send(emitter)) {
+                subscribers.remove(emitter);
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().name("status").id(status.name()).data(this));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开，由容器回调清理连接
+            return false;
+        }
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getPublicUrl() {
+        return publicUrl;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -0,0 +1,201 @@
+package com.siteup.biz.publish;
+
+import com.siteup.biz.exception.BizException;
+import com.siteup.biz.exception.ResourceNotFoundException;
+import com.siteup.biz.exception.TooManyRequestsException;
+import com.siteup.biz.model.Project;
+import com.siteup.biz.service.ProjectService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步发布队列
+ *
+ * - 发布请求只做存在性校验后入队，立即返回任务 id；
+ * - 固定大小的工作线程池消费队列，对引擎的并发请求数不超过 concurrency；
+ * - 队列满时拒绝（429 + Retry-After），而不是无限堆积；
+ * - 同一项目尚未开始的任务会被合并：执行时读取的是最新配置，重复排队没有意义；
+ * - 任务状态保存在内存中，结束后保留 job-retention-minutes 供轮询/订阅，然后清理。
+ */
+@Service
+public class PublishJobService {
+
+    private static final String METRIC_PREFIX = "siteup.publish";
+
+    private final ProjectService projectService;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService janitor;
+    private final Map<String, PublishJob> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, PublishJob> queuedByProject = new ConcurrentHashMap<>();
+    private final long retentionMinutes;
+    private final long sseTimeoutMs;
+    private final long retryAfterSeconds;
+
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Counter coalesced;
+    private final Timer queueWait;
+    private final Timer duration;
+
+    public PublishJobService(ProjectService projectService,
+                             MeterRegistry meterRegistry,
+                             @Value("${siteup.biz.publish.concurrency:4}") int concurrency,
+                             @Value("${siteup.biz.publish.queue-capacity:1000}") int queueCapacity,
+                             @Value("${siteup.biz.publish.job-retention-minutes:60}") long retentionMinutes,
+                             @Value("${siteup.biz.publish.sse-timeout-ms:300000}") long sseTimeoutMs,
+                             @Value("${siteup.biz.publish.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.projectService = projectService;
+        this.retentionMinutes = retentionMinutes;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        AtomicInteger threadSeq = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "publish-worker-" + threadSeq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.janitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "publish-job-janitor");
+            t.setDaemon(true);
+            return t;
+        });
+        this.janitor.scheduleWithFixedDelay(this::evictFinished, 1, 1, TimeUnit.MINUTES);
+
+        Gauge.builder(METRIC_PREFIX + ".queue.size", workers, e -> e.getQueue().size())
+                .description("Publish jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Publish jobs currently rendering")
+                .register(meterRegistry);
+        this.succeeded = Counter.builder(METRIC_PREFIX + ".jobs").tag("result", "succeeded").register(meterRegistry);
+        this.failed = Counter.builder(METRIC_PREFIX + ".jobs").tag("result", "failed").register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_PREFIX + ".jobs").tag("result", "rejected").register(meterRegistry);
+        this.coalesced = Counter.builder(METRIC_PREFIX + ".jobs").tag("result", "coalesced").register(meterRegistry);
+        this.queueWait = Timer.builder(METRIC_PREFIX + ".queue.wait").register(meterRegistry);
+        this.duration = Timer.builder(METRIC_PREFIX + ".duration").register(meterRegistry);
+    }
+
+    /**
+     * 提交发布任务
+     *
+     * @return 新建的任务，或同一项目已在排队中的任务
+     * @throws ResourceNotFoundException 项目不存在
+     * @throws TooManyRequestsException  队列已满
+     */
+    public PublishJob submit(Long projectId) {
+        projectService.getProject(projectId);
+
+        // 新建与入队在同一次 compute 中完成：入队被拒绝时映射随之移除，其他请求不会合并到被丢弃的任务上
+        PublishJob[] created = new PublishJob[1];
+        PublishJob job = queuedByProject.compute(projectId, (id, existing) -> {
+            if (existing != null && existing.getStatus() == PublishJob.Status.QUEUED) {
+                return existing;
+            }
+            PublishJob next = new PublishJob(UUID.randomUUID().toString(), id);
+            jobs.put(next.getJobId(), next);
+            try {
+                workers.execute(() -> run(next));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(next.getJobId());
+                return null;
+            }
+            created[0] = next;
+            return next;
+        });
+        if (job == null) {
+            rejected.increment();
+            throw new TooManyRequestsException("PUBLISH_QUEUE_FULL",
+                    "Publish queue is full, please retry later", retryAfterSeconds);
+        }
+        if (created[0] == null) {
+            coalesced.increment();
+        }
+        return job;
+    }
+
+    public PublishJob getJob(String jobId) {
+        PublishJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Publish job", jobId);
+        }
+        return job;
+    }
+
+    /**
+     * 订阅任务状态（SSE），每次状态变化推送一个 status 事件，终态后关闭连接
+     */
+    public SseEmitter subscribe(String jobId) {
+        PublishJob job = getJob(jobId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        job.subscribe(emitter);
+        return emitter;
+    }
+
+    void run(PublishJob job) {
+        // 开始执行后，新的发布请求需要重新排队（配置可能在执行期间被修改）
+        queuedByProject.remove(job.getProjectId(), job);
+        queueWait.record(Duration.between(job.getSubmittedAt(), LocalDateTime.now()));
+        job.start();
+
+        long start = System.nanoTime();
+        try {
+            Project project = projectService.publishProject(job.getProjectId());
+            job.succeed(project.getPublicUrl(), project.getPublishedAt());
+            succeeded.increment();
+        } catch (BizException e) {
+            job.fail(e.getErrorCode(), e.getMessage());
+            failed.increment();
+        } catch (Exception e) {
+            System.err.println("Publish job " + job.getJobId() + " failed: " + e.getMessage());
+            job.fail("INTERNAL_ERROR", "An unexpected error occurred");
+            failed.increment();
+        } finally {
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void evictFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.getStatus().isTerminal()
+                && job.getFinishedAt() != null
+                && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        janitor.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
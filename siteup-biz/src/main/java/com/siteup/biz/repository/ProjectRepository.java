@@ -1,7 +1,10 @@
 package com.siteup.biz.repository;
 
 import com.siteup.biz.model.Project;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +13,30 @@ import java.util.List;
 public interface ProjectRepository extends JpaRepository<Project, Long> {
     List<Project> findByUserId(String userId);
     List<Project> findByStatus(String status);
+
+    /**
+     * 批量重新发布的一页（按 id 游标分页，只取渲染需要的列，不加载已生成的 HTML）
+     */
+    @Query("SELECT p.id AS id, p.templateId AS templateId, p.userId AS userId, p.config AS config, p.status AS status "
+         + "FROM Project p "
+         + "WHERE p.templateId = :templateId AND (:status IS NULL OR p.status = :status) AND p.id > :afterId "
+         + "ORDER BY p.id ASC")
+    List<RenderSource> findRenderSources(@Param("templateId") String templateId,
+                                         @Param("status") String status,
+                                         @Param("afterId") long afterId,
+                                         Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Project p WHERE p.templateId = :templateId AND (:status IS NULL OR p.status = :status)")
+    long countForRepublish(@Param("templateId") String templateId, @Param("status") String status);
+
+    /**
+     * 渲染所需的项目字段投影
+     */
+    interface RenderSource {
+        Long getId();
+        String getTemplateId();
+        String getUserId();
+        String getConfig();
+        String getStatus();
+    }
 }
@@ -0,0 +1,25 @@
+package com.siteup.biz.repository;
+
+import com.siteup.biz.model.RepublishRun;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RepublishRunRepository extends JpaRepository<RepublishRun, Long> {
+    List<RepublishRun> findByStateInOrderByIdAsc(Collection<RepublishRun.State> states);
+
+    /**
+     * SELECT ... FOR UPDATE，需在事务中调用
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RepublishRun r WHERE r.id = :id")
+    Optional<RepublishRun> lockById(@Param("id") Long id);
+}
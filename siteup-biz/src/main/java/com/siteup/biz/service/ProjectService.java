@@ -2,7 +2,10 @@ package com.siteup.biz.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.biz.artifact.HtmlArtifactWriter;
 import com.siteup.biz.client.EngineClient;
+import com.siteup.biz.client.SmileCodec;
+import com.siteup.biz.exception.BizException;
 import com.siteup.biz.exception.InvalidRequestException;
 import com.siteup.biz.exception.ResourceNotFoundException;
 import com.siteup.biz.exception.ServiceUnavailableException;
@@ -10,12 +13,14 @@ import com.siteup.biz.model.Project;
 import com.siteup.biz.model.Template;
 import com.siteup.biz.repository.ProjectRepository;
 import com.siteup.biz.repository.TemplateRepository;
+import com.siteup.biz.site.EdgeCacheInvalidator;
+import com.siteup.biz.site.PublishedSiteIndex;
+import feign.Response;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Map;
 
@@ -26,15 +31,24 @@ public class ProjectService {
     private final TemplateRepository templateRepository;
     private final EngineClient engineClient;
     private final ObjectMapper objectMapper;
+    private final HtmlArtifactWriter artifactWriter;
+    private final PublishedSiteIndex publishedSites;
+    private final EdgeCacheInvalidator edgeCache;
 
     public ProjectService(ProjectRepository projectRepository,
                          TemplateRepository templateRepository,
                          EngineClient engineClient,
-                         ObjectMapper objectMapper) {
+                         ObjectMapper objectMapper,
+                         HtmlArtifactWriter artifactWriter,
+                         PublishedSiteIndex publishedSites,
+                         EdgeCacheInvalidator edgeCache) {
         this.projectRepository = projectRepository;
         this.templateRepository = templateRepository;
         this.engineClient = engineClient;
         this.objectMapper = objectMapper;
+        this.artifactWriter = artifactWriter;
+        this.publishedSites = publishedSites;
+        this.edgeCache = edgeCache;
     }
 
     // 创建项目（已加固：防空指针，防时间戳缺失）
@@ -68,47 +82,39 @@ public class ProjectService {
         return projectRepository.save(project);
     }
 
-    // 发布项目（已修复：使用泛型处理，不依赖具体领域模型）
+    // 发布项目：配置以 Smile 发送给引擎，直接取回原始 HTML 字节（不经过 JSON 包装）
     public Project publishProject(Long projectId) {
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", projectId));
 
+        if (project.getConfig() == null || project.getConfig().isBlank()) {
+            throw new InvalidRequestException("Project configuration is empty");
+        }
+
         try {
-            // 将配置解析为泛型 Map，不依赖具体领域模型
-            Map<String, Object> configMap = objectMapper.readValue(project.getConfig(), Map.class);
-
-            // 调用引擎（带历史记录）
-            Map<String, Object> generationResult = engineClient.generateWithHistory(
-                configMap,
-                project.getId(),
-                project.getTemplateId(),
-                project.getUserId()
-            );
-
-            // 提取生成的HTML
-            String generatedHtml;
-            if (generationResult.containsKey("html")) {
-                generatedHtml = (String) generationResult.get("html");
-            } else {
-                // 回退到旧的API调用
-                generatedHtml = engineClient.generate(configMap);
-            }
+            byte[] html = renderHtml(project);
 
-            // 保存文件 (演示用)
-            String fileName = "sites/" + project.getId() + "/index.html";
-            saveHtmlToFile(fileName, generatedHtml);
+            // HTML 写入内容寻址存储，项目行只记录哈希和大小
+            LocalDateTime now = LocalDateTime.now();
+            project.setHtmlHash(artifactWriter.write(html));
+            project.setHtmlSize((long) html.length);
+            project.setHtmlGeneratedAt(now);
 
             // 更新状态
-            project.setGeneratedHtml(generatedHtml);
             project.setStatus("published");
-            project.setPublishedAt(LocalDateTime.now());
-            project.setUpdatedAt(LocalDateTime.now());
-            project.setPublicUrl("/api/v1/generated/" + project.getId());
+            project.setPublishedAt(now);
+            project.setUpdatedAt(now);
+            project.setPublicUrl(publicUrlFor(project.getId()));
 
-            return projectRepository.save(project);
+            Project saved = projectRepository.save(project);
+            publishedSites.update(saved.getId(), saved.getHtmlHash());
+            edgeCache.invalidate(saved.getId());
+            return saved;
 
         } catch (JsonProcessingException e) {
             throw new InvalidRequestException("Invalid JSON format in project configuration: " + e.getMessage());
+        } catch (BizException e) {
+            throw e;
         } catch (Exception e) {
             // 处理引擎服务调用异常
             if (e.getCause() != null && e.getCause().getMessage() != null &&
@@ -119,15 +125,56 @@ public class ProjectService {
         }
     }
 
+    /**
+     * 调用引擎渲染项目，返回 UTF-8 HTML
+     * 引擎不支持二进制通道（旧版本返回 404）时回退到 JSON 接口
+     */
+    private byte[] renderHtml(Project project) throws IOException {
+        byte[] request = SmileCodec.jsonToSmile(project.getConfig());
+        try (Response response = engineClient.render(request, project.getId(),
+                project.getTemplateId(), project.getUserId())) {
+            int status = response.status();
+            if (status == 200 && response.body() != null) {
+                try (InputStream body = response.body().asInputStream()) {
+                    return body.readAllBytes();
+                }
+            }
+            if (status == 404) {
+                return renderHtmlViaJson(project).getBytes(StandardCharsets.UTF_8);
+            }
+            if (status == 503) {
+                throw new ServiceUnavailableException("siteup-engine");
+            }
+            throw new InvalidRequestException("Failed to publish project: engine returned HTTP " + status);
+        }
+    }
 
-    private void saveHtmlToFile(String fileName, String htmlContent) {
-        try {
-            Path path = Paths.get(fileName);
-            Files.createDirectories(path.getParent());
-            Files.write(path, htmlContent.getBytes());
-        } catch (IOException e) {
-            System.err.println("Failed to save HTML file: " + e.getMessage());
+    /**
+     * 旧的 JSON 接口：HTML 包装在响应 JSON 的 "html" 字段中
+     */
+    @SuppressWarnings("unchecked")
+    private String renderHtmlViaJson(Project project) throws JsonProcessingException {
+        // 将配置解析为泛型 Map，不依赖具体领域模型
+        Map<String, Object> configMap = objectMapper.readValue(project.getConfig(), Map.class);
+
+        // 调用引擎（带历史记录）
+        Map<String, Object> generationResult = engineClient.generateWithHistory(
+            configMap,
+            project.getId(),
+            project.getTemplateId(),
+            project.getUserId()
+        );
+
+        // 提取生成的HTML
+        if (generationResult.containsKey("html")) {
+            return (String) generationResult.get("html");
         }
+        // 回退到旧的API调用
+        return engineClient.generate(configMap);
+    }
+
+    public static String publicUrlFor(Long projectId) {
+        return "/api/v1/generated/" + projectId;
     }
 
     public Project getProject(Long id) {
@@ -0,0 +1,92 @@
+package com.siteup.biz.site;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通知网关失效已发布页面的缓存
+ *
+ * 网关每个实例各有一份内存缓存，因此通过服务发现逐个实例调用失效接口。
+ * 调用是异步的，失败只记录日志：网关缓存最多在 fresh-seconds 内继续提供旧页面，之后会重新验证。
+ * 网关要求 X-Internal-Token，未配置 token 时不发送（网关会拒绝），只依赖网关缓存过期。
+ */
+@Component
+public class EdgeCacheInvalidator {
+
+    static final String INVALIDATE_PATH = "/internal/page-cache/invalidate";
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final boolean enabled;
+    private final String gatewayServiceId;
+    private final String token;
+
+    public EdgeCacheInvalidator(DiscoveryClient discoveryClient,
+                                ObjectMapper objectMapper,
+                                @Value("${siteup.biz.edge-cache.enabled:true}") boolean enabled,
+                                @Value("${siteup.biz.edge-cache.gateway-service-id:siteup-gateway}") String gatewayServiceId,
+                                @Value("${siteup.biz.edge-cache.token:}") String token) {
+        this.discoveryClient = discoveryClient;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.gatewayServiceId = gatewayServiceId;
+        this.token = token;
+        if (enabled && token.isEmpty()) {
+            System.err.println("siteup.biz.edge-cache.token is not set, gateway page cache will not be invalidated on publish");
+        }
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    public void invalidate(Long projectId) {
+        invalidate(List.of(projectId));
+    }
+
+    /**
+     * 失效一批项目的网关缓存，每个网关实例一次请求
+     */
+    public void invalidate(Collection<Long> projectIds) {
+        if (!enabled || token.isEmpty() || projectIds.isEmpty()) {
+            return;
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("projectIds", projectIds));
+            for (ServiceInstance instance : discoveryClient.getInstances(gatewayServiceId)) {
+                send(instance.getUri().resolve(INVALIDATE_PATH), body);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            System.err.println("Failed to invalidate gateway page cache for " + projectIds + ": " + e.getMessage());
+        }
+    }
+
+    private void send(URI uri, byte[] body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/json")
+                .header("X-Internal-Token", token)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        System.err.println("Gateway page cache invalidation failed (" + uri + "): " + e.getMessage());
+                    } else if (response.statusCode() != 200) {
+                        System.err.println("Gateway page cache invalidation rejected (" + uri + "): HTTP " + response.statusCode());
+                    }
+                });
+    }
+}
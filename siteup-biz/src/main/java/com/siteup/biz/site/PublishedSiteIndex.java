@@ -0,0 +1,99 @@
+package com.siteup.biz.site;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 已发布站点索引：项目 id -> 当前 HTML 产物哈希
+ *
+ * 每个项目一个指针文件 sites/{id}/current，内容为产物哈希，文件修改时间即发布时间。
+ * 页面访问只读指针文件，不查询数据库；指针通过临时文件 + 原子改名更新，读者不会读到半个哈希。
+ */
+@Component
+public class PublishedSiteIndex {
+
+    private static final String POINTER = "current";
+
+    private final Path root;
+
+    public PublishedSiteIndex(@Value("${siteup.biz.sites.dir:sites}") String dir) throws IOException {
+        this.root = Path.of(dir).toAbsolutePath();
+        Files.createDirectories(root);
+    }
+
+    /**
+     * 将项目指向新的产物。写入失败时删除旧指针，访问会回退到数据库重建，不会继续提供旧页面
+     */
+    public void update(Long projectId, String hash) {
+        update(projectId, hash, null);
+    }
+
+    /**
+     * 同 {@link #update(Long, String)}，指针的修改时间设为给定的发布时间（为 null 时为当前时间），
+     * 用于按数据库记录补写指针，Last-Modified 不会因为补写而变化
+     */
+    public void update(Long projectId, String hash, LocalDateTime publishedAt) {
+        Path pointer = pointerOf(projectId);
+        try {
+            Files.createDirectories(pointer.getParent());
+            Path temp = Files.createTempFile(pointer.getParent(), POINTER, ".tmp");
+            try {
+                Files.writeString(temp, hash, StandardCharsets.US_ASCII);
+                if (publishedAt != null) {
+                    // 改名保留修改时间
+                    Files.setLastModifiedTime(temp, FileTime.from(publishedAt.atZone(ZoneId.systemDefault()).toInstant()));
+                }
+                try {
+                    Files.move(temp, pointer, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, pointer, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to update published site pointer for project " + projectId + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(pointer);
+            } catch (IOException ignored) {
+                // 指针保持原样，下次发布会覆盖
+            }
+        }
+    }
+
+    /**
+     * @return 当前发布的产物，未发布（或索引中没有）时返回 null
+     */
+    public Entry lookup(Long projectId) throws IOException {
+        Path pointer = pointerOf(projectId);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(pointer, BasicFileAttributes.class);
+            String hash = Files.readString(pointer, StandardCharsets.US_ASCII).trim();
+            return hash.isEmpty() ? null : new Entry(hash, attributes.lastModifiedTime().toMillis());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private Path pointerOf(Long projectId) {
+        return root.resolve(String.valueOf(projectId)).resolve(POINTER);
+    }
+
+    /**
+     * @param lastModified 发布时间（毫秒）
+     */
+    public record Entry(String hash, long lastModified) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.siteup.biz.site;
+
+import com.siteup.biz.artifact.ArtifactStore;
+import com.siteup.biz.artifact.HtmlArtifactWriter;
+import com.siteup.biz.model.Project;
+import com.siteup.biz.repository.ProjectRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 已发布页面的静态服务（访问量最大的接口）
+ *
+ * - 通过 {@link PublishedSiteIndex} 定位产物，热路径不访问数据库；
+ * - 强 ETag 为产物的内容哈希，Last-Modified 为发布时间，If-None-Match / If-Modified-Since 命中时返回 304；
+ * - 本地产物较大时交给 Tomcat sendfile 零拷贝发送，否则用 FileChannel.transferTo 直接写出，不经过堆内字符串；
+ * - 按 Accept-Encoding 协商，优先发送发布时生成的 .br / .gz 预压缩文件（br 优先），访问时不做任何压缩，
+ *   变体使用各自的 ETag（"哈希.br" / "哈希.gz"），并始终返回 Vary: Accept-Encoding。
+ */
+@Service
+public class PublishedSiteService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CONTENT_TYPE = "text/html;charset=UTF-8";
+
+    private static final List<String> PREFERRED_ENCODINGS = List.of(HtmlArtifactWriter.BROTLI, HtmlArtifactWriter.GZIP);
+
+    private final PublishedSiteIndex index;
+    private final ArtifactStore artifactStore;
+    private final ProjectRepository projectRepository;
+    private final String cacheControl;
+    private final long sendfileMinBytes;
+
+    public PublishedSiteService(PublishedSiteIndex index,
+                                ArtifactStore artifactStore,
+                                ProjectRepository projectRepository,
+                                @Value("${siteup.biz.sites.cache-max-age-seconds:60}") long maxAgeSeconds,
+                                @Value("${siteup.biz.sites.sendfile-min-bytes:49152}") long sendfileMinBytes) {
+        this.index = index;
+        this.artifactStore = artifactStore;
+        this.projectRepository = projectRepository;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic().getHeaderValue();
+        this.sendfileMinBytes = sendfileMinBytes;
+    }
+
+    /**
+     * 输出项目已发布的页面
+     *
+     * @return 项目未发布或产物缺失时返回 false（响应未写入）
+     */
+    public boolean serve(Long projectId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        PublishedSiteIndex.Entry entry = index.lookup(projectId);
+        if (entry == null) {
+            entry = rebuildEntry(projectId);
+            if (entry == null) {
+                return false;
+            }
+        }
+
+        String encoding = negotiateEncoding(entry.hash(), request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        Path file = encoding != null
+                ? artifactStore.localPath(entry.hash(), encoding)
+                : artifactStore.localPath(entry.hash());
+        long size;
+        byte[] content = null;
+        if (file != null) {
+            try {
+                size = Files.size(file);
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+        } else {
+            content = artifactStore.get(entry.hash());
+            if (content == null) {
+                return false;
+            }
+            size = content.length;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String etag = encoding != null ? entry.hash() + suffixOf(encoding) : entry.hash();
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + etag + "\"", entry.lastModified())) {
+            return true;
+        }
+        response.setContentType(CONTENT_TYPE);
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        response.setContentLengthLong(size);
+        if ("HEAD".equals(request.getMethod())) {
+            return true;
+        }
+
+        if (content != null) {
+            response.getOutputStream().write(content);
+        } else if (size >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // 由容器在请求结束后用 sendfile 发送文件
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+        } else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = 0;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, out);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 选择可发送的预压缩变体：客户端接受（q > 0）且变体文件存在，br 优先于 gzip
+     *
+     * @return 内容编码；应发送未压缩内容时返回 null
+     */
+    String negotiateEncoding(String hash, String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        for (String encoding : PREFERRED_ENCODINGS) {
+            if (accepts(acceptEncoding, encoding)) {
+                Path variant = artifactStore.localPath(hash, encoding);
+                if (variant != null && Files.exists(variant)) {
+                    return encoding;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解析 Accept-Encoding（如 "gzip, deflate, br;q=0.8"），明确列出的编码优先于通配符 *
+     */
+    private static boolean accepts(String acceptEncoding, String encoding) {
+        Double wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            double q = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equalsIgnoreCase(encoding)) {
+                return q > 0;
+            }
+            if ("*".equals(coding)) {
+                wildcard = q;
+            }
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    private static String suffixOf(String encoding) {
+        return HtmlArtifactWriter.BROTLI.equals(encoding) ? ".br" : ".gz";
+    }
+
+    /**
+     * 索引中没有该项目（旧数据或指针写入失败）：从数据库读取一次并补写指针，
+     * 指针修改时间取发布时间（没有时取 HTML 生成时间），Last-Modified 与原发布时间一致。
+     * 只为已发布的项目补写：草稿也可能有 html_hash（批量重新渲染 status=all），但不能公开访问
+     */
+    private PublishedSiteIndex.Entry rebuildEntry(Long projectId) throws IOException {
+        Project project = projectRepository.findById(projectId).orElse(null);
+        if (project == null || project.getHtmlHash() == null || !"published".equals(project.getStatus())) {
+            return null;
+        }
+        LocalDateTime publishedAt = project.getPublishedAt() != null
+                ? project.getPublishedAt()
+                : project.getHtmlGeneratedAt();
+        index.update(projectId, project.getHtmlHash(), publishedAt);
+        return index.lookup(projectId);
+    }
+}
@@ -0,0 +1,48 @@
+package com.siteup.biz.artifact;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalArtifactStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void put_ShouldStoreIdenticalContentOnce() throws Exception {
+        // Given
+        LocalArtifactStore store = new LocalArtifactStore(dir.toString());
+        byte[] html = "<html>同一页面</html>".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        String first = store.put(html);
+        String second = store.put(html.clone());
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        assertThat(store.pathOf(first)).isEqualTo(dir.toAbsolutePath()
+            .resolve(first.substring(0, 2)).resolve(first.substring(2, 4)).resolve(first));
+        assertThat(store.get(first)).isEqualTo(html);
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void get_ShouldReturnNull_WhenHashIsUnknownOrMalformed() throws Exception {
+        // Given
+        LocalArtifactStore store = new LocalArtifactStore(dir.toString());
+
+        // Then
+        assertThat(store.get("0".repeat(64))).isNull();
+        assertThat(store.get("../../etc/passwd")).isNull();
+        assertThat(store.exists("0".repeat(64))).isFalse();
+    }
+}
@@ -0,0 +1,35 @@
+package com.siteup.biz.client;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SmileCodecTest {
+
+    @Test
+    void jsonToSmile_ShouldPreserveConfigStructure() throws Exception {
+        // Given
+        String json = "{\"title\":\"Blog\",\"themeConfig\":{\"primaryColor\":\"#3b82f6\"},"
+                + "\"root\":{\"type\":\"page\",\"children\":[{\"type\":\"text\",\"props\":{\"text\":\"你好 <b>\"}}]}}";
+
+        // When
+        byte[] smile = SmileCodec.jsonToSmile(json);
+
+        // Then
+        JsonNode decoded = new ObjectMapper(new SmileFactory()).readTree(smile);
+        assertThat(decoded).isEqualTo(new ObjectMapper().readTree(json));
+    }
+
+    @Test
+    void jsonToSmile_ShouldRejectMalformedJson() {
+        assertThatThrownBy(() -> SmileCodec.jsonToSmile("{\"title\":\"Blog\"} trailing"))
+                .isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> SmileCodec.jsonToSmile("{\"title\":"))
+                .isInstanceOf(JsonParseException.class);
+    }
+}
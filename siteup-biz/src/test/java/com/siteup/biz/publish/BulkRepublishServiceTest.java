@@ -0,0 +1,264 @@
+package com.siteup.biz.publish;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.biz.artifact.HtmlArtifactWriter;
+import com.siteup.biz.client.BatchRenderRequest;
+import com.siteup.biz.client.BatchRenderResponse;
+import com.siteup.biz.client.EngineClient;
+import com.siteup.biz.exception.InvalidRequestException;
+import com.siteup.biz.exception.ServiceUnavailableException;
+import com.siteup.biz.model.RepublishRun;
+import com.siteup.biz.repository.ProjectRepository;
+import com.siteup.biz.repository.RepublishRunRepository;
+import com.siteup.biz.repository.TemplateRepository;
+import com.siteup.biz.site.EdgeCacheInvalidator;
+import com.siteup.biz.site.PublishedSiteIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkRepublishServiceTest {
+
+    private static final String CONFIG = "{\"title\":\"Site\",\"root\":{\"type\":\"page\"}}";
+
+    private ProjectRepository projectRepository;
+    private RepublishRunRepository runRepository;
+    private EngineClient engineClient;
+    private JdbcTemplate jdbcTemplate;
+    private HtmlArtifactWriter artifactWriter;
+    private PublishedSiteIndex publishedSites;
+    private BulkRepublishService service;
+    private RepublishRun run;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        projectRepository = mock(ProjectRepository.class);
+        runRepository = mock(RepublishRunRepository.class);
+        engineClient = mock(EngineClient.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        artifactWriter = mock(HtmlArtifactWriter.class);
+        publishedSites = mock(PublishedSiteIndex.class);
+        service = new BulkRepublishService(projectRepository, mock(TemplateRepository.class), runRepository,
+                artifactWriter, publishedSites, mock(EdgeCacheInvalidator.class), engineClient, new ObjectMapper(), jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry(),
+                2, 100, 0, 300);
+
+        run = new RepublishRun();
+        run.setId(7L);
+        run.setTemplateId("template-001");
+        run.setState(RepublishRun.State.QUEUED);
+        run.setBatchSize(2);
+        run.setTotalProjects(3);
+        run.setCreatedAt(LocalDateTime.now());
+        run.setUpdatedAt(LocalDateTime.now());
+        when(runRepository.findById(7L)).thenReturn(Optional.of(run));
+        when(runRepository.lockById(7L)).thenReturn(Optional.of(run));
+        // 认领成功：模拟条件 UPDATE 写入 owner
+        when(jdbcTemplate.update(eq(BulkRepublishService.CLAIM_SQL), any(Object[].class))).thenAnswer(invocation -> {
+            run.setOwner((String) invocation.getArgument(1));
+            run.setState(RepublishRun.State.RUNNING);
+            return 1;
+        });
+        when(runRepository.save(any(RepublishRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(artifactWriter.write(any(byte[].class))).thenReturn("a".repeat(64));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void execute_ShouldRenderPagesInBatchesAndAdvanceCheckpoint() {
+        // Given: project 2 has a broken configuration and never reaches the engine
+        when(projectRepository.findRenderSources(eq("template-001"), eq(null), eq(0L), any()))
+            .thenReturn(List.of(source(1L, CONFIG), source(2L, "{broken")));
+        when(projectRepository.findRenderSources(eq("template-001"), eq(null), eq(2L), any()))
+            .thenReturn(List.of(source(3L, CONFIG)));
+        when(projectRepository.findRenderSources(eq("template-001"), eq(null), eq(3L), any()))
+            .thenReturn(List.of());
+        when(engineClient.renderBatch(any(BatchRenderRequest.class))).thenAnswer(invocation -> {
+            BatchRenderRequest request = invocation.getArgument(0);
+            BatchRenderResponse response = new BatchRenderResponse();
+            request.getItems().forEach(item -> response.getResults().add(rendered(item.getProjectId())));
+            return response;
+        });
+
+        // When
+        service.execute(7L);
+
+        // Then
+        assertThat(run.getState()).isEqualTo(RepublishRun.State.COMPLETED);
+        assertThat(run.getLastProjectId()).isEqualTo(3L);
+        assertThat(run.getProcessed()).isEqualTo(3);
+        assertThat(run.getSucceeded()).isEqualTo(2);
+        assertThat(run.getFailed()).isEqualTo(1);
+        assertThat(run.getFinishedAt()).isNotNull();
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(BulkRepublishService.UPDATE_SQL), anyList(),
+                eq(1), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void execute_ShouldKeepCheckpoint_WhenEngineIsUnavailable() {
+        // Given
+        run.setLastProjectId(5L);
+        when(projectRepository.findRenderSources(eq("template-001"), eq(null), eq(5L), any()))
+            .thenReturn(List.of(source(6L, CONFIG)));
+        when(engineClient.renderBatch(any(BatchRenderRequest.class)))
+            .thenThrow(new ServiceUnavailableException("siteup-engine"));
+
+        // When & Then
+        assertThatThrownBy(() -> service.execute(7L)).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(run.getLastProjectId()).isEqualTo(5L);
+        assertThat(run.getProcessed()).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class), anyList(), any(Integer.class),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void execute_ShouldNotExposeDrafts() {
+        // Given：status=all 时草稿与已发布项目在同一批
+        when(projectRepository.findRenderSources(eq("template-001"), eq(null), eq(0L), any()))
+            .thenReturn(List.of(source(1L, CONFIG, "published"), source(2L, CONFIG, "draft")));
+        when(projectRepository.findRenderSources(eq("template-001"), eq(null), eq(2L), any()))
+            .thenReturn(List.of());
+        when(engineClient.renderBatch(any(BatchRenderRequest.class))).thenAnswer(invocation -> {
+            BatchRenderRequest request = invocation.getArgument(0);
+            BatchRenderResponse response = new BatchRenderResponse();
+            request.getItems().forEach(item -> response.getResults().add(rendered(item.getProjectId())));
+            return response;
+        });
+
+        // When
+        service.execute(7L);
+
+        // Then：只有已发布项目写入站点指针，public_url 只对已发布行生效
+        assertThat(run.getSucceeded()).isEqualTo(2);
+        verify(publishedSites).update(eq(1L), any(String.class));
+        verify(publishedSites, never()).update(eq(2L), any(String.class));
+        assertThat(BulkRepublishService.UPDATE_SQL)
+            .contains("public_url = CASE WHEN status = 'published' THEN ? ELSE public_url END");
+    }
+
+    @Test
+    void execute_ShouldDoNothing_WhenAnotherInstanceHoldsTheRun() {
+        // Given：条件 UPDATE 未命中（其他实例持有且心跳未超时）
+        when(jdbcTemplate.update(eq(BulkRepublishService.CLAIM_SQL), any(Object[].class))).thenReturn(0);
+
+        // When
+        service.execute(7L);
+
+        // Then
+        assertThat(run.getState()).isEqualTo(RepublishRun.State.QUEUED);
+        verify(projectRepository, never()).findRenderSources(any(), any(), any(Long.class), any());
+        verify(runRepository, never()).save(any(RepublishRun.class));
+    }
+
+    @Test
+    void execute_ShouldPauseBetweenBatches_WhenPauseIsRecordedOnTheRun() {
+        // Given：暂停请求由其他实例写在任务行上，在第一批提交时读到
+        when(projectRepository.findRenderSources(eq("template-001"), eq(null), eq(0L), any()))
+            .thenReturn(List.of(source(1L, CONFIG), source(2L, CONFIG)));
+        when(engineClient.renderBatch(any(BatchRenderRequest.class))).thenAnswer(invocation -> {
+            run.setPauseRequested(true);
+            BatchRenderRequest request = invocation.getArgument(0);
+            BatchRenderResponse response = new BatchRenderResponse();
+            request.getItems().forEach(item -> response.getResults().add(rendered(item.getProjectId())));
+            return response;
+        });
+
+        // When
+        service.execute(7L);
+
+        // Then
+        assertThat(run.getState()).isEqualTo(RepublishRun.State.PAUSED);
+        assertThat(run.getLastProjectId()).isEqualTo(2L);
+        assertThat(run.isPauseRequested()).isFalse();
+        assertThat(run.getOwner()).isNull();
+        verify(projectRepository, never()).findRenderSources(eq("template-001"), eq(null), eq(2L), any());
+    }
+
+    @Test
+    void execute_ShouldStopWithoutWriting_WhenRunWasTakenOver() {
+        // Given：本实例心跳超时后任务被其他实例认领
+        when(projectRepository.findRenderSources(eq("template-001"), eq(null), eq(0L), any()))
+            .thenReturn(List.of(source(1L, CONFIG)));
+        when(engineClient.renderBatch(any(BatchRenderRequest.class))).thenAnswer(invocation -> {
+            run.setOwner("another-instance");
+            BatchRenderResponse response = new BatchRenderResponse();
+            response.getResults().add(rendered(1L));
+            return response;
+        });
+
+        // When
+        service.execute(7L);
+
+        // Then
+        assertThat(run.getLastProjectId()).isZero();
+        assertThat(run.getOwner()).isEqualTo("another-instance");
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class), anyList(), any(Integer.class),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(publishedSites, never()).update(any(Long.class), any(String.class));
+    }
+
+    @Test
+    void pause_ShouldRecordRequestOnTheRun_AndRejectFinishedRuns() {
+        // Given
+        when(jdbcTemplate.update(eq(BulkRepublishService.PAUSE_SQL), any(Object[].class))).thenReturn(1, 0);
+
+        // When & Then
+        assertThat(service.pause(7L).isPauseRequested()).isTrue();
+        assertThatThrownBy(() -> service.pause(7L)).isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void statusFilter_ShouldDefaultToPublished_AndNeverChangeProjectStatus() {
+        assertThat(BulkRepublishService.statusFilter(null)).isEqualTo("published");
+        assertThat(BulkRepublishService.statusFilter(" ")).isEqualTo("published");
+        assertThat(BulkRepublishService.statusFilter("all")).isNull();
+        assertThat(BulkRepublishService.statusFilter("draft")).isEqualTo("draft");
+        assertThat(BulkRepublishService.UPDATE_SQL).doesNotContain("status = 'published',");
+    }
+
+    private static ProjectRepository.RenderSource source(Long id, String config) {
+        return source(id, config, "published");
+    }
+
+    private static ProjectRepository.RenderSource source(Long id, String config, String status) {
+        return new ProjectRepository.RenderSource() {
+            public Long getId() { return id; }
+            public String getTemplateId() { return "template-001"; }
+            public String getUserId() { return "user1"; }
+            public String getConfig() { return config; }
+            public String getStatus() { return status; }
+        };
+    }
+
+    private static BatchRenderResponse.Result rendered(Long projectId) {
+        BatchRenderResponse.Result result = new BatchRenderResponse.Result();
+        result.setProjectId(projectId);
+        result.setSuccess(true);
+        result.setHtml("<html>" + projectId + "</html>");
+        return result;
+    }
+}
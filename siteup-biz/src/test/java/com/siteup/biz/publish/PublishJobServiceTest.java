@@ -0,0 +1,102 @@
+package com.siteup.biz.publish;
+
+import com.siteup.biz.exception.ServiceUnavailableException;
+import com.siteup.biz.exception.TooManyRequestsException;
+import com.siteup.biz.model.Project;
+import com.siteup.biz.service.ProjectService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PublishJobServiceTest {
+
+    private ProjectService projectService;
+    private PublishJobService publishJobService;
+
+    @BeforeEach
+    void setUp() {
+        projectService = mock(ProjectService.class);
+        publishJobService = new PublishJobService(projectService, new SimpleMeterRegistry(), 1, 1, 60, 1000, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publishJobService.shutdown();
+    }
+
+    @Test
+    void submit_ShouldCoalesceQueuedJobsAndRejectWhenQueueIsFull() throws Exception {
+        // Given: the single worker is blocked on project 1
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(projectService.publishProject(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return published(1L);
+        });
+        when(projectService.publishProject(2L)).thenReturn(published(2L));
+
+        PublishJob running = publishJobService.submit(1L);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        PublishJob queued = publishJobService.submit(2L);
+        PublishJob duplicate = publishJobService.submit(2L);
+
+        // Then
+        assertThat(duplicate).isSameAs(queued);
+        assertThatThrownBy(() -> publishJobService.submit(3L))
+            .isInstanceOf(TooManyRequestsException.class)
+            .extracting("errorCode").isEqualTo("PUBLISH_QUEUE_FULL");
+        // a rejected job is never handed out to a later caller for the same project
+        assertThatThrownBy(() -> publishJobService.submit(3L))
+            .isInstanceOf(TooManyRequestsException.class);
+
+        release.countDown();
+        awaitTerminal(queued);
+        assertThat(running.getStatus()).isEqualTo(PublishJob.Status.SUCCEEDED);
+        assertThat(queued.getStatus()).isEqualTo(PublishJob.Status.SUCCEEDED);
+        assertThat(queued.getPublicUrl()).isEqualTo("/api/v1/generated/2");
+        assertThat(publishJobService.getJob(queued.getJobId())).isSameAs(queued);
+    }
+
+    @Test
+    void run_ShouldRecordErrorCode_WhenPublishFails() throws Exception {
+        // Given
+        when(projectService.publishProject(1L)).thenThrow(new ServiceUnavailableException("siteup-engine"));
+
+        // When
+        PublishJob job = publishJobService.submit(1L);
+        awaitTerminal(job);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(PublishJob.Status.FAILED);
+        assertThat(job.getErrorCode()).isEqualTo("SERVICE_UNAVAILABLE");
+        assertThat(job.getFinishedAt()).isNotNull();
+    }
+
+    private static Project published(Long id) {
+        Project project = new Project();
+        project.setId(id);
+        project.setPublicUrl("/api/v1/generated/" + id);
+        project.setPublishedAt(LocalDateTime.now());
+        return project;
+    }
+
+    private static void awaitTerminal(PublishJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.getStatus().isTerminal() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
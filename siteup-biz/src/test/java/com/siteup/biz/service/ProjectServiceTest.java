@@ -1,12 +1,18 @@
 package com.siteup.biz.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.biz.artifact.HtmlArtifactWriter;
 import com.siteup.biz.client.EngineClient;
 import com.siteup.biz.exception.ResourceNotFoundException;
+import com.siteup.biz.exception.ServiceUnavailableException;
 import com.siteup.biz.model.Project;
 import com.siteup.biz.model.Template;
 import com.siteup.biz.repository.ProjectRepository;
 import com.siteup.biz.repository.TemplateRepository;
+import com.siteup.biz.site.EdgeCacheInvalidator;
+import com.siteup.biz.site.PublishedSiteIndex;
+import feign.Request;
+import feign.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,12 +20,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +51,15 @@ class ProjectServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private HtmlArtifactWriter artifactWriter;
+
+    @Mock
+    private PublishedSiteIndex publishedSites;
+
+    @Mock
+    private EdgeCacheInvalidator edgeCache;
+
     @InjectMocks
     private ProjectService projectService;
 
@@ -130,4 +153,67 @@ class ProjectServiceTest {
             .isInstanceOf(ResourceNotFoundException.class)
             .hasMessage("Project not found: 999");
     }
+
+    @Test
+    void publishProject_ShouldStoreRawHtml_WhenEngineAnswersSmileRender() throws Exception {
+        // Given
+        byte[] html = "<html>你好</html>".getBytes(StandardCharsets.UTF_8);
+        testProject.setConfig("{\"title\":\"Site\"}");
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(testProject));
+        when(engineClient.render(any(byte[].class), eq(1L), eq("1"), eq("user1"))).thenReturn(engineResponse(200, html));
+        when(artifactWriter.write(aryEq(html))).thenReturn("a".repeat(64));
+        when(projectRepository.save(any(Project.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Project result = projectService.publishProject(1L);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo("published");
+        assertThat(result.getHtmlSize()).isEqualTo(html.length);
+        verify(engineClient, never()).generateWithHistory(anyMap(), any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishProject_ShouldFallBackToJson_WhenEngineHasNoSmileEndpoint() throws Exception {
+        // Given: an older engine answers 404 on the binary endpoint
+        testProject.setConfig("{\"title\":\"Site\"}");
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(testProject));
+        when(engineClient.render(any(byte[].class), eq(1L), eq("1"), eq("user1"))).thenReturn(engineResponse(404, new byte[0]));
+        when(objectMapper.readValue(anyString(), eq(Map.class))).thenReturn(Map.of("title", "Site"));
+        when(engineClient.generateWithHistory(anyMap(), eq(1L), eq("1"), eq("user1")))
+            .thenReturn(Map.of("html", "<html>json</html>"));
+        when(artifactWriter.write(any(byte[].class))).thenReturn("b".repeat(64));
+        when(projectRepository.save(any(Project.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Project result = projectService.publishProject(1L);
+
+        // Then
+        assertThat(result.getHtmlSize()).isEqualTo("<html>json</html>".length());
+        verify(artifactWriter).write(aryEq("<html>json</html>".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void publishProject_ShouldThrowServiceUnavailable_WhenEngineAnswers503() {
+        // Given
+        testProject.setConfig("{\"title\":\"Site\"}");
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(testProject));
+        when(engineClient.render(any(byte[].class), eq(1L), eq("1"), eq("user1"))).thenReturn(engineResponse(503, new byte[0]));
+
+        // When & Then
+        assertThatThrownBy(() -> projectService.publishProject(1L))
+            .isInstanceOf(ServiceUnavailableException.class);
+        verify(projectRepository, never()).save(any(Project.class));
+    }
+
+    private static Response engineResponse(int status, byte[] body) {
+        return Response.builder()
+            .status(status)
+            .reason("")
+            .request(Request.create(Request.HttpMethod.POST, "/api/v1/generate/render", Map.of(), null,
+                StandardCharsets.UTF_8, null))
+            .body(body)
+            .build();
+    }
 }
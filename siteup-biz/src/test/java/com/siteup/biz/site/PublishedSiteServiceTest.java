@@ -0,0 +1,158 @@
+package com.siteup.biz.site;
+
+import com.siteup.biz.artifact.HtmlArtifactWriter;
+import com.siteup.biz.artifact.LocalArtifactStore;
+import com.siteup.biz.model.Project;
+import com.siteup.biz.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PublishedSiteServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private LocalArtifactStore artifactStore;
+    private PublishedSiteIndex index;
+    private ProjectRepository projectRepository;
+    private PublishedSiteService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        artifactStore = new LocalArtifactStore(dir.resolve("artifacts").toString());
+        index = new PublishedSiteIndex(dir.resolve("sites").toString());
+        projectRepository = mock(ProjectRepository.class);
+        service = new PublishedSiteService(index, artifactStore, projectRepository, 60, 49152);
+    }
+
+    @Test
+    void serve_ShouldReturn304_WhenETagMatches() throws Exception {
+        // Given
+        byte[] html = "<html>发布</html>".getBytes(StandardCharsets.UTF_8);
+        String hash = artifactStore.put(html);
+        index.update(1L, hash);
+
+        // When
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        boolean found = service.serve(1L, new MockHttpServletRequest("GET", "/api/v1/generated/1"), first);
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/v1/generated/1");
+        conditional.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        service.serve(1L, conditional, second);
+
+        // Then
+        assertThat(found).isTrue();
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("ETag")).isEqualTo("\"" + hash + "\"");
+        assertThat(first.getHeader("Cache-Control")).isEqualTo("max-age=60, public");
+        assertThat(first.getContentAsByteArray()).isEqualTo(html);
+        assertThat(second.getStatus()).isEqualTo(304);
+        assertThat(second.getContentAsByteArray()).isEmpty();
+        verifyNoInteractions(projectRepository);
+    }
+
+    @Test
+    void serve_ShouldSendPrecompressedVariant_WhenClientAcceptsIt() throws Exception {
+        // Given
+        byte[] html = ("<html>" + "<p>发布页面</p>".repeat(200) + "</html>").getBytes(StandardCharsets.UTF_8);
+        String hash = new HtmlArtifactWriter(artifactStore, true, 1024, 11).write(html);
+        index.update(1L, hash);
+
+        // When
+        MockHttpServletRequest brRequest = new MockHttpServletRequest("GET", "/api/v1/generated/1");
+        brRequest.addHeader("Accept-Encoding", "gzip, deflate, br");
+        MockHttpServletResponse br = new MockHttpServletResponse();
+        service.serve(1L, brRequest, br);
+
+        MockHttpServletRequest gzipRequest = new MockHttpServletRequest("GET", "/api/v1/generated/1");
+        gzipRequest.addHeader("Accept-Encoding", "gzip, br;q=0");
+        MockHttpServletResponse gzip = new MockHttpServletResponse();
+        service.serve(1L, gzipRequest, gzip);
+
+        MockHttpServletResponse identity = new MockHttpServletResponse();
+        service.serve(1L, new MockHttpServletRequest("GET", "/api/v1/generated/1"), identity);
+
+        // Then
+        assertThat(br.getHeader("Content-Encoding")).isEqualTo("br");
+        assertThat(br.getHeader("ETag")).isEqualTo("\"" + hash + ".br\"");
+        assertThat(br.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(br.getContentAsByteArray()).isEqualTo(Files.readAllBytes(artifactStore.localPath(hash, "br")));
+        assertThat(br.getContentAsByteArray().length).isLessThan(html.length);
+
+        assertThat(gzip.getHeader("Content-Encoding")).isEqualTo("gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray()))) {
+            assertThat(in.readAllBytes()).isEqualTo(html);
+        }
+
+        assertThat(identity.getHeader("Content-Encoding")).isNull();
+        assertThat(identity.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(identity.getContentAsByteArray()).isEqualTo(html);
+    }
+
+    @Test
+    void serve_ShouldRebuildPointerFromDatabase_WhenIndexHasNoEntry() throws Exception {
+        // Given
+        byte[] html = "<html>legacy</html>".getBytes(StandardCharsets.UTF_8);
+        Project project = new Project();
+        project.setId(2L);
+        project.setHtmlHash(artifactStore.put(html));
+        project.setStatus("published");
+        project.setPublishedAt(LocalDateTime.of(2024, 3, 1, 12, 0));
+        when(projectRepository.findById(2L)).thenReturn(Optional.of(project));
+        when(projectRepository.findById(3L)).thenReturn(Optional.empty());
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean found = service.serve(2L, new MockHttpServletRequest("GET", "/api/v1/generated/2"), response);
+        boolean missing = service.serve(3L, new MockHttpServletRequest("GET", "/api/v1/generated/3"),
+            new MockHttpServletResponse());
+
+        // Then
+        assertThat(found).isTrue();
+        assertThat(response.getContentAsByteArray()).isEqualTo(html);
+        assertThat(index.lookup(2L).hash()).isEqualTo(project.getHtmlHash());
+        // Last-Modified 为原发布时间，而不是补写指针的时间
+        assertThat(response.getDateHeader("Last-Modified"))
+            .isEqualTo(project.getPublishedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        assertThat(missing).isFalse();
+        verify(projectRepository).findById(2L);
+    }
+
+    @Test
+    void serve_ShouldNotServeDraft_EvenWhenItHasRenderedHtml() throws Exception {
+        // Given: a draft re-rendered by a bulk republish with status=all
+        Project draft = new Project();
+        draft.setId(4L);
+        draft.setStatus("draft");
+        draft.setHtmlHash(artifactStore.put("<html>draft</html>".getBytes(StandardCharsets.UTF_8)));
+        when(projectRepository.findById(4L)).thenReturn(Optional.of(draft));
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean found = service.serve(4L, new MockHttpServletRequest("GET", "/api/v1/generated/4"), response);
+
+        // Then
+        assertThat(found).isFalse();
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(index.lookup(4L)).isNull();
+    }
+}
@@ -0,0 +1,51 @@
+package com.siteup.engine.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 透传写入下游的同时保留一份副本，用于在流式输出后回填渲染缓存。
+ * 副本超过上限后停止捕获（大页面不进入缓存，也不会因此多占内存）。
+ */
+public final class CapturingOutputStream extends FilterOutputStream {
+
+    private final long limit;
+    private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+    public CapturingOutputStream(OutputStream out, long limit) {
+        super(out);
+        this.limit = limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        capture(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        capture(b, off, len);
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        if (copy == null) {
+            return;
+        }
+        if (copy.size() + (long) len > limit) {
+            copy = null;
+            return;
+        }
+        copy.write(b, off, len);
+    }
+
+    /**
+     * @return 捕获到的完整内容；超过上限时返回 null
+     */
+    public byte[] captured() {
+        return copy != null ? copy.toByteArray() : null;
+    }
+}
@@ -0,0 +1,118 @@
+package com.siteup.engine.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 渲染缓存的磁盘二级存储：{dir}/{hash前两位}/{hash}.html
+ *
+ * 写入使用临时文件 + 原子移动，读取失败一律视为未命中；
+ * 总容量超过上限时按最后修改时间淘汰最旧的文件。
+ */
+class DiskRenderStore {
+
+    private final Path root;
+    private final long maxBytes;
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    DiskRenderStore(Path root, long maxBytes) throws IOException {
+        this.root = root;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(root);
+        usedBytes.set(scanSize());
+        trim();
+    }
+
+    byte[] read(String hash) {
+        try {
+            return Files.readAllBytes(pathFor(hash));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Render cache disk read failed for " + hash + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    void write(String hash, byte[] html) {
+        Path target = pathFor(hash);
+        if (Files.exists(target)) {
+            return; // 内容寻址：同一哈希内容必然相同
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            Files.write(tmp, html);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (usedBytes.addAndGet(html.length) > maxBytes) {
+                trim();
+            }
+        } catch (IOException e) {
+            System.err.println("Render cache disk write failed for " + hash + ": " + e.getMessage());
+        }
+    }
+
+    long usedBytes() {
+        return usedBytes.get();
+    }
+
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + ".html");
+    }
+
+    private long scanSize() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(p -> p.toString().endsWith(".html"))
+                    .mapToLong(p -> p.toFile().length())
+                    .sum();
+        }
+    }
+
+    /**
+     * 按最后修改时间从旧到新删除文件，直到总量回落到上限的 90%
+     */
+    private synchronized void trim() {
+        if (usedBytes.get() <= maxBytes) {
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.filter(p -> p.toString().endsWith(".html")).forEach(files::add);
+        } catch (IOException e) {
+            System.err.println("Render cache disk trim failed: " + e.getMessage());
+            return;
+        }
+        files.sort(Comparator.comparing(DiskRenderStore::lastModified));
+        long target = maxBytes / 10 * 9;
+        for (Path file : files) {
+            if (usedBytes.get() <= target) {
+                break;
+            }
+            long size = file.toFile().length();
+            try {
+                if (Files.deleteIfExists(file)) {
+                    usedBytes.addAndGet(-size);
+                }
+            } catch (IOException e) {
+                System.err.println("Render cache disk evict failed for " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.siteup.engine.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 整站渲染结果缓存（内容寻址）
+ *
+ * key 为 SiteConfig 的规范化哈希（title + themeConfig + root），value 为 UTF-8 编码的完整 HTML。
+ * - 一级：内存，按字节数限制容量（而不是条目数），W-TinyLFU 淘汰；
+ * - 二级（可选）：磁盘，重启后不必冷启动，异步写入。
+ *
+ * 命中/未命中/淘汰等指标通过 Micrometer 暴露在 /actuator/prometheus（前缀 siteup.render.cache）。
+ */
+@Component
+public class RenderCache {
+
+    /**
+     * 渲染输出格式版本：渲染器输出发生变化时递增，避免磁盘上的旧结果被继续使用
+     */
+    static final int FORMAT_VERSION = 5;
+
+    private static final String METRIC_PREFIX = "siteup.render.cache";
+
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final Cache<String, byte[]> memory;
+    private final DiskRenderStore disk;
+    private final ExecutorService diskWriter;
+    private final Counter diskHits;
+    private final Counter diskMisses;
+
+    public RenderCache(MeterRegistry meterRegistry,
+                       @Value("${siteup.engine.render-cache.enabled:true}") boolean enabled,
+                       @Value("${siteup.engine.render-cache.max-bytes:67108864}") long maxBytes,
+                       @Value("${siteup.engine.render-cache.max-entry-bytes:2097152}") long maxEntryBytes,
+                       @Value("${siteup.engine.render-cache.disk.enabled:false}") boolean diskEnabled,
+                       @Value("${siteup.engine.render-cache.disk.dir:cache/render}") String diskDir,
+                       @Value("${siteup.engine.render-cache.disk.max-bytes:536870912}") long diskMaxBytes) throws IOException {
+        this.enabled = enabled;
+        this.maxEntryBytes = maxEntryBytes;
+        this.memory = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, byte[] html) -> html.length + key.length())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memory, METRIC_PREFIX);
+        Gauge.builder(METRIC_PREFIX + ".bytes", memory,
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .description("Bytes held by the in-memory render cache")
+                .register(meterRegistry);
+
+        if (enabled && diskEnabled) {
+            this.disk = new DiskRenderStore(Path.of(diskDir, "v" + FORMAT_VERSION), diskMaxBytes);
+            this.diskWriter = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "render-cache-disk-writer");
+                t.setDaemon(true);
+                return t;
+            });
+            Gauge.builder(METRIC_PREFIX + ".disk.bytes", disk, DiskRenderStore::usedBytes)
+                    .description("Bytes held by the on-disk render cache tier")
+                    .register(meterRegistry);
+        } else {
+            this.disk = null;
+            this.diskWriter = null;
+        }
+        this.diskHits = Counter.builder(METRIC_PREFIX + ".disk.requests").tag("result", "hit").register(meterRegistry);
+        this.diskMisses = Counter.builder(METRIC_PREFIX + ".disk.requests").tag("result", "miss").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 查找缓存：先内存后磁盘，磁盘命中会回填内存
+     *
+     * @return UTF-8 HTML，未命中返回 null
+     */
+    public byte[] get(String hash) {
+        if (!enabled) {
+            return null;
+        }
+        byte[] html = memory.getIfPresent(hash);
+        if (html != null || disk == null) {
+            return html;
+        }
+        html = disk.read(hash);
+        if (html != null) {
+            diskHits.increment();
+            memory.put(hash, html);
+        } else {
+            diskMisses.increment();
+        }
+        return html;
+    }
+
+    /**
+     * 写入缓存；超过单条上限的结果不缓存
+     */
+    public void put(String hash, byte[] html) {
+        if (!enabled || html.length > maxEntryBytes) {
+            return;
+        }
+        memory.put(hash, html);
+        if (disk != null) {
+            diskWriter.execute(() -> disk.write(hash, html));
+        }
+    }
+
+    /**
+     * 单条缓存的最大字节数（超过后不再捕获输出）
+     */
+    public long maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void clear() {
+        memory.invalidateAll();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (diskWriter != null) {
+            diskWriter.shutdown();
+        }
+    }
+}
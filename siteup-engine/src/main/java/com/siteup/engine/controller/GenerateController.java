@@ -1,20 +1,36 @@
 package com.siteup.engine.controller;
 
+import com.siteup.engine.history.GenerationHistoryExporter;
+import com.siteup.engine.history.HistoryCursor;
+import com.siteup.engine.model.BatchRenderRequest;
 import com.siteup.engine.model.GenerationHistory;
 import com.siteup.engine.model.SiteConfig;
+import com.siteup.engine.renderer.RendererRegistry;
 import com.siteup.engine.renderer.RenderingService;
+import com.siteup.engine.renderer.plan.RenderReport;
 import com.siteup.engine.repository.GenerationHistoryRepository;
+import com.siteup.engine.stats.GenerationStatsAggregator;
+import com.siteup.engine.stats.StatsSnapshot;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -23,21 +39,102 @@ import java.util.Map;
 @Tag(name = "Site Generation", description = "Website generation and history APIs")
 public class GenerateController {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+
+    private static final String RENDER_REQUEST_SMILE = "application/x-jackson-smile";
+
     @Autowired
     private RenderingService renderingService;
 
     @Autowired
     private GenerationHistoryRepository historyRepository;
 
+    @Autowired
+    private RendererRegistry rendererRegistry;
+
+    @Autowired
+    private GenerationStatsAggregator statsAggregator;
+
+    @Autowired
+    private GenerationHistoryExporter historyExporter;
+
+    @Value("${siteup.engine.render.batch.max-items:100}")
+    private int maxBatchItems;
+
     /**
      * 基础网站生成（兼容旧版本）
      */
     @PostMapping
     @Operation(summary = "Generate website HTML",
-               description = "Generate HTML content from site configuration")
+               description = "Generate HTML content from site configuration, streamed directly to the response body")
     @ApiResponse(responseCode = "200", description = "HTML generated successfully")
-    public String generateSite(@RequestBody SiteConfig siteConfig) {
-        return renderingService.renderSite(siteConfig);
+    public void generateSite(@RequestBody SiteConfig siteConfig, HttpServletResponse response) throws IOException {
+        // 流式输出：渲染器直接写入响应流，不在内存中拼装完整文档；相同配置直接返回缓存字节
+        response.setContentType(MediaType.TEXT_HTML_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+        renderingService.renderSite(siteConfig, out);
+        out.flush();
+    }
+
+    /**
+     * 内部渲染通道（biz -> engine）：请求体为 Smile（二进制 JSON，也接受 JSON），
+     * 响应体为原始 UTF-8 HTML，渲染信息放在响应头中，HTML 不再被转义进 JSON 字符串
+     */
+    @PostMapping(value = "/render",
+                 consumes = {RENDER_REQUEST_SMILE, MediaType.APPLICATION_JSON_VALUE},
+                 produces = MediaType.TEXT_HTML_VALUE)
+    @Operation(summary = "Render website HTML for internal callers",
+               description = "Accept a Smile or JSON site configuration and return raw HTML with render metadata "
+                       + "in X-Render-* headers; history is recorded when projectId is given")
+    @ApiResponse(responseCode = "200", description = "HTML generated successfully")
+    public void render(@RequestBody SiteConfig siteConfig,
+                       @Parameter(description = "Project ID for history tracking")
+                       @RequestParam(required = false) Long projectId,
+                       @Parameter(description = "Template ID used")
+                       @RequestParam(required = false) String templateId,
+                       @Parameter(description = "User ID performing the generation")
+                       @RequestParam(required = false) String userId,
+                       HttpServletResponse response) throws IOException {
+        long start = System.nanoTime();
+        RenderReport report = new RenderReport();
+        byte[] html = renderingService.renderSiteBytesWithHistory(siteConfig, projectId, templateId, userId, report);
+
+        response.setContentType(MediaType.TEXT_HTML_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(html.length);
+        response.setHeader("X-Render-Duration-Ms", String.valueOf((System.nanoTime() - start) / 1_000_000));
+        response.setHeader("X-Render-Nodes-Rendered", String.valueOf(report.getNodesRendered()));
+        response.setHeader("X-Render-Nodes-Reused", String.valueOf(report.getNodesReused()));
+        response.setHeader("X-Render-Page-Cache-Hit", String.valueOf(report.isPageCacheHit()));
+        OutputStream out = response.getOutputStream();
+        out.write(html);
+        out.flush();
+    }
+
+    /**
+     * 批量渲染（biz 按模板批量重新发布时使用）：一次调用渲染多个项目，
+     * 请求与响应均可使用 Smile，结果与请求条目同序
+     */
+    @PostMapping(value = "/render/batch",
+                 consumes = {RENDER_REQUEST_SMILE, MediaType.APPLICATION_JSON_VALUE},
+                 produces = {RENDER_REQUEST_SMILE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Render many websites in one call",
+               description = "Render a batch of site configurations (at most siteup.engine.render.batch.max-items); "
+                       + "a failing item does not fail the batch")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch rendered; check each result's success flag"),
+        @ApiResponse(responseCode = "400", description = "Too many items in one batch")
+    })
+    public ResponseEntity<Object> renderBatch(@RequestBody BatchRenderRequest request) {
+        int size = request.getItems() != null ? request.getItems().size() : 0;
+        if (size > maxBatchItems) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Batch contains " + size + " items, at most " + maxBatchItems + " are allowed"
+            ));
+        }
+        return ResponseEntity.ok(renderingService.renderBatch(request));
     }
 
     /**
@@ -60,12 +157,14 @@ public class GenerateController {
             @RequestParam(required = false) String userId) {
 
         try {
-            String html = renderingService.renderSiteWithHistory(siteConfig, projectId, templateId, userId);
+            RenderReport report = new RenderReport();
+            String html = renderingService.renderSiteWithHistory(siteConfig, projectId, templateId, userId, report);
 
             Map<String, Object> response = Map.of(
                 "success", true,
                 "message", "Website generated successfully",
                 "html", html,
+                "render", report,
                 "projectId", projectId,
                 "generatedAt", java.time.LocalDateTime.now()
             );
@@ -83,73 +182,138 @@ public class GenerateController {
     }
 
     /**
-     * 获取生成历史记录
+     * 获取生成历史记录（按生成时间倒序，游标分页）
      */
     @GetMapping("/history")
     @Operation(summary = "Get generation history",
-               description = "Retrieve website generation history records")
-    @ApiResponse(responseCode = "200", description = "History retrieved successfully")
+               description = "Retrieve website generation history records, newest first. "
+                       + "Pass the returned nextCursor to fetch the following page")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "History retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
     public ResponseEntity<Map<String, Object>> getGenerationHistory(
             @Parameter(description = "Project ID to filter by")
             @RequestParam(required = false) Long projectId,
             @Parameter(description = "User ID to filter by")
             @RequestParam(required = false) String userId,
-            @Parameter(description = "Maximum number of records to return")
-            @RequestParam(defaultValue = "50") int limit) {
+            @Parameter(description = "Maximum number of records to return (at most " + MAX_HISTORY_PAGE_SIZE + ")")
+            @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String cursor) {
 
-        List<GenerationHistory> historyList;
+        HistoryCursor position;
+        try {
+            position = HistoryCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE)));
 
+        List<GenerationHistory> historyList;
         if (projectId != null) {
-            historyList = historyRepository.findByProjectIdOrderByGeneratedAtDesc(projectId);
+            historyList = historyRepository.findPageByProjectId(projectId, position.generatedAt(), position.id(), pageable);
         } else if (userId != null) {
-            historyList = historyRepository.findByUserIdOrderByGeneratedAtDesc(userId);
+            historyList = historyRepository.findPageByUserId(userId, position.generatedAt(), position.id(), pageable);
         } else {
-            Pageable pageable = PageRequest.of(0, limit);
-            historyList = historyRepository.findRecentGenerations(pageable);
+            historyList = historyRepository.findPage(position.generatedAt(), position.id(), pageable);
+        }
+
+        // 本页满了才可能还有下一页
+        String nextCursor = null;
+        if (historyList.size() == pageable.getPageSize()) {
+            GenerationHistory last = historyList.get(historyList.size() - 1);
+            nextCursor = new HistoryCursor(last.getGeneratedAt(), last.getId()).encode();
         }
 
-        // 计算统计信息
-        Long totalSuccess = historyRepository.countSuccessfulGenerations();
-        Long totalFailed = historyRepository.countFailedGenerations();
-        Double avgTime = historyRepository.getAverageGenerationTime();
-
-        Map<String, Object> response = Map.of(
-            "history", historyList,
-            "totalRecords", historyList.size(),
-            "statistics", Map.of(
-                "totalSuccess", totalSuccess,
-                "totalFailed", totalFailed,
-                "successRate", totalSuccess + totalFailed > 0 ?
-                    (double) totalSuccess / (totalSuccess + totalFailed) * 100 : 0.0,
-                "averageGenerationTime", avgTime != null ? avgTime : 0.0
-            )
-        );
+        // 统计信息来自预聚合汇总，不再扫描历史表
+        StatsSnapshot total = statsAggregator.total(GenerationStatsAggregator.Scope.GLOBAL, null);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("history", historyList);
+        response.put("totalRecords", historyList.size());
+        response.put("nextCursor", nextCursor);
+        response.put("statistics", Map.of(
+                "totalSuccess", total.getSuccessfulGenerations(),
+                "totalFailed", total.getFailedGenerations(),
+                "successRate", total.getSuccessRate(),
+                "averageGenerationTime", total.getAverageGenerationTimeMs()
+        ));
 
         return ResponseEntity.ok(response);
     }
 
     /**
-     * 获取生成统计信息
+     * 按时间范围导出生成历史（NDJSON 流式输出，适合大范围导出）
+     *
+     * 输出在异步线程中进行，总时长受 spring.mvc.async.request-timeout 限制
+     */
+    @GetMapping("/history/export")
+    @Operation(summary = "Export generation history",
+               description = "Stream generation history records in a time range as newline-delimited JSON, oldest first")
+    @ApiResponse(responseCode = "200", description = "History streamed successfully")
+    public ResponseEntity<StreamingResponseBody> exportGenerationHistory(
+            @Parameter(description = "Range start (ISO date-time)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (ISO date-time), defaults to now")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        StreamingResponseBody body = out -> historyExporter.export(from, end, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * 获取生成统计信息（累计值，读取一行预聚合汇总）
      */
     @GetMapping("/stats")
     @Operation(summary = "Get generation statistics",
-               description = "Retrieve overall generation statistics")
+               description = "Retrieve overall or per project/template/user generation statistics, "
+                       + "including p50/p95/p99 generation time and HTML size")
     @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
-    public ResponseEntity<Map<String, Object>> getGenerationStats() {
-        Long totalSuccess = historyRepository.countSuccessfulGenerations();
-        Long totalFailed = historyRepository.countFailedGenerations();
-        Double avgTime = historyRepository.getAverageGenerationTime();
-
-        long total = totalSuccess + totalFailed;
-
-        Map<String, Object> stats = Map.of(
-            "totalGenerations", total,
-            "successfulGenerations", totalSuccess,
-            "failedGenerations", totalFailed,
-            "successRate", total > 0 ? (double) totalSuccess / total * 100 : 0.0,
-            "averageGenerationTimeMs", avgTime != null ? avgTime : 0.0
-        );
-
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<StatsSnapshot> getGenerationStats(
+            @Parameter(description = "Statistics scope: GLOBAL, PROJECT, TEMPLATE or USER")
+            @RequestParam(defaultValue = "GLOBAL") GenerationStatsAggregator.Scope scope,
+            @Parameter(description = "Project ID, template ID or user ID for non-global scopes")
+            @RequestParam(required = false) String key) {
+        return ResponseEntity.ok(statsAggregator.total(scope, key));
+    }
+
+    /**
+     * 获取按时间桶划分的生成统计
+     */
+    @GetMapping("/stats/series")
+    @Operation(summary = "Get generation statistics time series",
+               description = "Retrieve per-minute, per-hour or per-day generation statistics in a time range")
+    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
+    public ResponseEntity<List<StatsSnapshot>> getGenerationStatsSeries(
+            @Parameter(description = "Statistics scope: GLOBAL, PROJECT, TEMPLATE or USER")
+            @RequestParam(defaultValue = "GLOBAL") GenerationStatsAggregator.Scope scope,
+            @Parameter(description = "Project ID, template ID or user ID for non-global scopes")
+            @RequestParam(required = false) String key,
+            @Parameter(description = "Bucket size: MINUTE, HOUR or DAY")
+            @RequestParam(defaultValue = "HOUR") GenerationStatsAggregator.Granularity granularity,
+            @Parameter(description = "Range start (ISO date-time), defaults to 24 hours before 'to'")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (ISO date-time), defaults to now")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(24);
+        return ResponseEntity.ok(statsAggregator.series(scope, key, granularity, start, end));
+    }
+
+    /**
+     * 渲染器注册表诊断：每个组件类型由哪个渲染器处理
+     */
+    @GetMapping("/renderers")
+    @Operation(summary = "List registered renderers",
+               description = "Show which renderer handles each component type")
+    @ApiResponse(responseCode = "200", description = "Renderer registry retrieved successfully")
+    public ResponseEntity<Map<String, String>> getRenderers() {
+        return ResponseEntity.ok(rendererRegistry.describe());
     }
 }
@@ -0,0 +1,103 @@
+package com.siteup.engine.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.siteup.engine.preview.PreviewResult;
+import com.siteup.engine.preview.PreviewService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/generate/preview")
+@Tag(name = "Editor Preview", description = "Incremental re-rendering for the interactive editor preview")
+public class PreviewController {
+
+    private static final String JSON_PATCH_VALUE = "application/json-patch+json";
+
+    @Autowired
+    private PreviewService previewService;
+
+    /**
+     * 提交完整配置，渲染整页并创建预览会话
+     */
+    @PostMapping
+    @Operation(summary = "Open preview",
+               description = "Render the full site configuration and return a renderId for subsequent patches")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Preview rendered"),
+        @ApiResponse(responseCode = "400", description = "Invalid site configuration")
+    })
+    public ResponseEntity<Map<String, Object>> openPreview(@RequestBody JsonNode config) {
+        try {
+            return ResponseEntity.ok(toResponse(previewService.open(config)));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    /**
+     * 基于上一次渲染应用 JSON Patch，默认只返回变化的片段
+     */
+    @PatchMapping(value = "/{renderId}", consumes = {JSON_PATCH_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Patch preview",
+               description = "Apply an RFC 6902 JSON Patch to a previous render and return changed fragments keyed by node id, or the full HTML")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Preview re-rendered"),
+        @ApiResponse(responseCode = "400", description = "Invalid patch or resulting configuration"),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired renderId; open a new preview")
+    })
+    public ResponseEntity<Map<String, Object>> patchPreview(
+            @PathVariable String renderId,
+            @RequestBody JsonNode patch,
+            @Parameter(description = "Response mode: fragments (default, falls back to full when needed) or full")
+            @RequestParam(defaultValue = PreviewResult.MODE_FRAGMENTS) String mode) {
+
+        try {
+            PreviewResult result = previewService.patch(renderId, patch, !PreviewResult.MODE_FULL.equalsIgnoreCase(mode));
+            if (result == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "success", false,
+                    "message", "Preview not found or expired: " + renderId
+                ));
+            }
+            return ResponseEntity.ok(toResponse(result));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    private static Map<String, Object> toResponse(PreviewResult result) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put("renderId", result.getRenderId());
+        if (result.getBaseRenderId() != null) {
+            response.put("baseRenderId", result.getBaseRenderId());
+        }
+        response.put("mode", result.getMode());
+        if (result.getFragments() != null) {
+            response.put("fragments", result.getFragments());
+        } else {
+            response.put("html", result.getHtml());
+        }
+        response.put("render", result.getReport());
+        return response;
+    }
+
+    private static ResponseEntity<Map<String, Object>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of(
+            "success", false,
+            "message", "Failed to render preview: " + e.getMessage(),
+            "error", e.getClass().getSimpleName()
+        ));
+    }
+}
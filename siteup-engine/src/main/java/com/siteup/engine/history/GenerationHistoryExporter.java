@@ -0,0 +1,54 @@
+package com.siteup.engine.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.siteup.engine.model.GenerationHistory;
+import com.siteup.engine.repository.GenerationHistoryRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * 生成历史导出：按时间范围流式读取，逐行写出 NDJSON（每行一条记录）
+ *
+ * 结果集逐行从数据库读取，每条记录写出后立即从持久化上下文中移除，
+ * 导出任意大的时间范围内存占用都是常数。
+ */
+@Service
+public class GenerationHistoryExporter {
+
+    private final GenerationHistoryRepository historyRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+
+    public GenerationHistoryExporter(GenerationHistoryRepository historyRepository, EntityManager entityManager,
+                                     ObjectMapper objectMapper) {
+        this.historyRepository = historyRepository;
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writerFor(GenerationHistory.class);
+    }
+
+    /**
+     * 导出 [from, to] 内的生成记录（按时间升序）
+     *
+     * @return 导出的记录数
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<GenerationHistory> records = historyRepository.findByGeneratedAtBetweenOrderByGeneratedAtAscIdAsc(from, to)) {
+            for (GenerationHistory history : (Iterable<GenerationHistory>) records::iterator) {
+                out.write(writer.writeValueAsBytes(history));
+                out.write('\n');
+                entityManager.detach(history);
+                count++;
+            }
+        }
+        return count;
+    }
+}
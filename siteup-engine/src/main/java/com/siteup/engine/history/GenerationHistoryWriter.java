@@ -0,0 +1,342 @@
+package com.siteup.engine.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.engine.model.GenerationHistory;
+import com.siteup.engine.stats.GenerationStatsAggregator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成历史的异步批量写入
+ *
+ * 渲染请求只把记录放入有界内存队列，后台线程按批次（攒满 batch-size 条或等待 flush-interval-ms）
+ * 用 JDBC 批量插入，渲染路径上不再有数据库往返。
+ *
+ * - 队列满时按 overflow-policy 处理：spool 写入本地暂存文件，drop 直接丢弃（计入指标）；
+ * - 批量插入失败（数据库不可用）时整批写入暂存文件，数据库恢复后在空闲时回放，
+ *   持续有负载时每隔 REPLAY_INTERVAL_MS 在两批之间回放一次，暂存文件不会因队列从不空闲而一直积压；
+ * - 停机时队列中剩余的记录先尝试写库，失败则写入暂存文件，下次启动后回放。
+ *
+ * 写库成功的记录同时累加到 {@link GenerationStatsAggregator} 的统计汇总中。
+ *
+ * 指标前缀 siteup.history：队列深度、暂存字节数、批量写入耗时与批大小、各去向的记录数。
+ */
+@Component
+public class GenerationHistoryWriter {
+
+    static final String INSERT_SQL = "INSERT INTO generation_history "
+            + "(project_id, template_id, generated_at, duration_ms, success, error_message, html_size_kb, user_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String METRIC_PREFIX = "siteup.history";
+
+    /**
+     * 回放失败后的重试间隔
+     */
+    private static final long REPLAY_BACKOFF_MS = 30_000L;
+
+    /**
+     * 队列持续非空时两次回放之间的最长间隔
+     */
+    private static final long REPLAY_INTERVAL_MS = 10_000L;
+
+    /**
+     * 队列满时的处理方式
+     */
+    public enum OverflowPolicy {
+        SPOOL, DROP
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean async;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingQueue<GenerationHistory> queue;
+    private final HistorySpool spool;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile long nextReplayAt;
+    private volatile long lastReplayAt;
+
+    @Autowired(required = false)
+    private GenerationStatsAggregator statsAggregator;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter written;
+    private final Counter spooled;
+    private final Counter dropped;
+
+    public GenerationHistoryWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                   @Value("${siteup.engine.history.async:true}") boolean async,
+                                   @Value("${siteup.engine.history.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${siteup.engine.history.batch-size:200}") int batchSize,
+                                   @Value("${siteup.engine.history.flush-interval-ms:1000}") long flushIntervalMs,
+                                   @Value("${siteup.engine.history.overflow-policy:spool}") String overflowPolicy,
+                                   @Value("${siteup.engine.history.spool-dir:data/history-spool}") String spoolDir) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.async = async;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1L, flushIntervalMs);
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.spool = new HistorySpool(Path.of(spoolDir), objectMapper);
+
+        Gauge.builder(METRIC_PREFIX + ".queue.size", queue, BlockingQueue::size)
+                .description("Generation history records waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".spool.bytes", spool, HistorySpool::sizeBytes)
+                .description("Bytes of generation history held in the local spool")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder(METRIC_PREFIX + ".flush")
+                .description("Latency of one generation history batch insert")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder(METRIC_PREFIX + ".flush.batch.size")
+                .register(meterRegistry);
+        this.written = Counter.builder(METRIC_PREFIX + ".records").tag("result", "written").register(meterRegistry);
+        this.spooled = Counter.builder(METRIC_PREFIX + ".records").tag("result", "spooled").register(meterRegistry);
+        this.dropped = Counter.builder(METRIC_PREFIX + ".records").tag("result", "dropped").register(meterRegistry);
+
+        if (async) {
+            this.worker = new Thread(this::runWorker, "generation-history-writer");
+            this.worker.setDaemon(true);
+            this.worker.start();
+        } else {
+            this.worker = null;
+        }
+    }
+
+    /**
+     * 提交一条生成历史（不阻塞渲染请求）
+     *
+     * @return 记录是否被接收（进入队列、写入数据库或暂存）；按 drop 策略丢弃时返回 false
+     */
+    public boolean submit(GenerationHistory history) {
+        if (!async) {
+            return flush(List.of(history));
+        }
+        if (queue.offer(history)) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.SPOOL && spoolRecords(List.of(history))) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * 当前排队等待写入的记录数
+     */
+    public int queueSize() {
+        return queue.size();
+    }
+
+    private void runWorker() {
+        List<GenerationHistory> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                GenerationHistory first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    replaySpool(); // 空闲时回放暂存文件
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    GenerationHistory next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+                if (System.currentTimeMillis() - lastReplayAt >= REPLAY_INTERVAL_MS) {
+                    replaySpool(); // 有负载时定期回放，不依赖队列空闲
+                }
+            } catch (InterruptedException e) {
+                // 停机：已取出的记录先写掉，剩余队列由 shutdown() 处理
+                flush(batch);
+                batch.clear();
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                System.err.println("Generation history writer error: " + e.getMessage());
+                spoolRecords(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 批量插入；失败时整批写入暂存文件
+     *
+     * @return 记录是否已写入数据库或暂存
+     */
+    boolean flush(List<GenerationHistory> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        if (insert(batch)) {
+            return true;
+        }
+        return spoolRecords(batch);
+    }
+
+    private boolean insert(List<GenerationHistory> batch) {
+        long start = System.nanoTime();
+        try {
+            KeyHolder keys = new GeneratedKeyHolder();
+            int size = batch.size();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            bind(ps, batch.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return size;
+                        }
+                    }, keys);
+            assignIds(batch, keys);
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+            written.increment(batch.size());
+            if (statsAggregator != null) {
+                batch.forEach(statsAggregator::record);
+            }
+            return true;
+        } catch (DataAccessException e) {
+            System.err.println("Generation history batch insert failed (" + batch.size() + " records): " + e.getMessage());
+            nextReplayAt = System.currentTimeMillis() + REPLAY_BACKOFF_MS;
+            return false;
+        }
+    }
+
+    private boolean spoolRecords(List<GenerationHistory> records) {
+        if (records.isEmpty()) {
+            return true;
+        }
+        if (spool.append(records)) {
+            spooled.increment(records.size());
+            return true;
+        }
+        dropped.increment(records.size());
+        return false;
+    }
+
+    /**
+     * 回放暂存文件：逐个文件分批写库，整个文件写入成功后删除；失败则等待退避时间后重试
+     */
+    void replaySpool() {
+        long now = System.currentTimeMillis();
+        if (now < nextReplayAt) {
+            return;
+        }
+        lastReplayAt = now;
+        try {
+            for (Path file : spool.seal()) {
+                List<GenerationHistory> records = spool.read(file);
+                for (int from = 0; from < records.size(); from += batchSize) {
+                    if (!insert(records.subList(from, Math.min(records.size(), from + batchSize)))) {
+                        // 已写入的前几批会在重试时重复写入（至少一次）
+                        return;
+                    }
+                }
+                spool.delete(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Generation history spool replay failed: " + e.getMessage());
+            nextReplayAt = System.currentTimeMillis() + REPLAY_BACKOFF_MS;
+        }
+    }
+
+    /**
+     * 回填自增 id：统计汇总据此跳过已由首次回填计入的记录
+     */
+    private static void assignIds(List<GenerationHistory> batch, KeyHolder keys) {
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        if (keyList.size() != batch.size()) {
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Object key = keyList.get(i).isEmpty() ? null : keyList.get(i).values().iterator().next();
+            if (key instanceof Number number) {
+                batch.get(i).setId(number.longValue());
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement ps, GenerationHistory history) throws SQLException {
+        ps.setObject(1, history.getProjectId(), Types.BIGINT);
+        ps.setString(2, history.getTemplateId());
+        LocalDateTime generatedAt = history.getGeneratedAt() != null ? history.getGeneratedAt() : LocalDateTime.now();
+        ps.setTimestamp(3, Timestamp.valueOf(generatedAt));
+        ps.setObject(4, history.getDurationMs(), Types.INTEGER);
+        ps.setBoolean(5, !Boolean.FALSE.equals(history.getSuccess()));
+        ps.setString(6, history.getErrorMessage());
+        BigDecimal sizeKb = history.getHtmlSizeKb();
+        ps.setBigDecimal(7, sizeKb != null ? sizeKb.setScale(2, RoundingMode.HALF_UP) : null);
+        ps.setString(8, history.getUserId());
+    }
+
+    /**
+     * 停机：等待后台线程退出，队列中剩余的记录写库或暂存
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<GenerationHistory> remaining = new ArrayList<>(queue.size());
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(remaining.subList(from, Math.min(remaining.size(), from + batchSize)));
+        }
+    }
+}
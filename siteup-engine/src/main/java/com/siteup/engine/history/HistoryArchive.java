@@ -0,0 +1,67 @@
+package com.siteup.engine.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.siteup.engine.model.GenerationHistory;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 过期生成历史的归档文件：按月一个 gzip 压缩的 NDJSON 文件 {dir}/generation-history-{yyyy-MM}.ndjson.gz
+ *
+ * 每批记录追加为一个独立的 gzip member（多个 member 直接拼接仍是合法的 gzip 文件，
+ * GZIPInputStream / zcat 可以连续读出），因此归档只追加，不需要重写已有文件。
+ */
+class HistoryArchive {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final Path dir;
+    private final ObjectWriter writer;
+
+    HistoryArchive(Path dir, ObjectMapper objectMapper) throws IOException {
+        this.dir = dir;
+        this.writer = objectMapper.writerFor(GenerationHistory.class);
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * 追加一批记录到各自月份的归档文件（写入并刷盘后才返回）
+     */
+    void append(List<GenerationHistory> records) throws IOException {
+        Map<String, List<GenerationHistory>> byMonth = new LinkedHashMap<>();
+        for (GenerationHistory record : records) {
+            LocalDateTime generatedAt = record.getGeneratedAt() != null ? record.getGeneratedAt() : LocalDateTime.now();
+            byMonth.computeIfAbsent(MONTH.format(generatedAt), m -> new ArrayList<>()).add(record);
+        }
+        for (Map.Entry<String, List<GenerationHistory>> month : byMonth.entrySet()) {
+            Path file = fileFor(month.getKey());
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+                for (GenerationHistory record : month.getValue()) {
+                    gzip.write(writer.writeValueAsBytes(record));
+                    gzip.write('\n');
+                }
+                gzip.finish();
+                channel.force(false); // 归档落盘后才允许删除数据库中的原始行
+            }
+        }
+    }
+
+    Path fileFor(String month) {
+        return dir.resolve("generation-history-" + month + ".ndjson.gz");
+    }
+}
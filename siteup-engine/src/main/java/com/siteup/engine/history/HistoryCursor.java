@@ -0,0 +1,46 @@
+package com.siteup.engine.history;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 生成历史的分页游标：上一页最后一条记录的 (generatedAt, id)
+ *
+ * 下一页查询 (generatedAt, id) 严格小于游标的记录，按复合索引 (..., generated_at) 定位，
+ * 与翻到第几页无关（不使用 OFFSET）。对外编码为不透明的 base64url 字符串。
+ */
+public record HistoryCursor(LocalDateTime generatedAt, long id) {
+
+    /**
+     * 第一页：比任何记录都"新"的位置
+     */
+    public static final HistoryCursor FIRST = new HistoryCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    public String encode() {
+        String raw = generatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor 为空表示第一页
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static HistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid history cursor: " + cursor);
+            }
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid history cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.siteup.engine.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.engine.model.GenerationHistory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 生成历史保留策略（定时任务）
+ *
+ * - 超过 raw-days 的原始记录先追加到按月归档的压缩文件（{@link HistoryArchive}），再按 id 分批删除，
+ *   每批一个短事务，热表及其索引只保留最近一段时间的数据；
+ * - 这些记录写入时已经累加进统计汇总（天/累计粒度长期保留），删除原始行不影响统计接口；
+ * - 汇总本身也逐级降采样：分钟桶保留 minute-rollup-days，小时桶保留 hour-rollup-days，天桶和累计值不删除。
+ *
+ * 单批行数和批间停顿可配置，避免长事务和主从延迟。
+ *
+ * 多个引擎实例同时触发时，用 MySQL 命名锁（GET_LOCK，会话级，连接断开自动释放）保证同一时间只有一个实例执行，
+ * 其余实例直接跳过；归档目录 archive-dir 因此必须是所有实例共享的存储（如 NFS 挂载），
+ * 否则归档会分散在执行过清理的各个实例上。
+ */
+@Component
+public class HistoryRetentionJob {
+
+    static final String SELECT_EXPIRED_SQL = "SELECT id, project_id, template_id, generated_at, duration_ms, success, "
+            + "error_message, html_size_kb, user_id FROM generation_history "
+            + "WHERE generated_at < ? ORDER BY generated_at, id LIMIT ?";
+
+    static final String LOCK_NAME = "siteup.history.retention";
+
+    private static final String DELETE_ROLLUP_SQL = "DELETE FROM generation_stats_rollup "
+            + "WHERE granularity = ? AND bucket_start < ? LIMIT ?";
+
+    private static final RowMapper<GenerationHistory> ROW_MAPPER = (rs, rowNum) -> {
+        GenerationHistory history = new GenerationHistory();
+        history.setId(rs.getLong("id"));
+        history.setProjectId(rs.getLong("project_id"));
+        history.setTemplateId(rs.getString("template_id"));
+        Timestamp generatedAt = rs.getTimestamp("generated_at");
+        history.setGeneratedAt(generatedAt != null ? generatedAt.toLocalDateTime() : null);
+        int duration = rs.getInt("duration_ms");
+        history.setDurationMs(rs.wasNull() ? null : duration);
+        history.setSuccess(rs.getBoolean("success"));
+        history.setErrorMessage(rs.getString("error_message"));
+        history.setHtmlSizeKb(rs.getBigDecimal("html_size_kb"));
+        history.setUserId(rs.getString("user_id"));
+        return history;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HistoryArchive archive;
+    private final boolean enabled;
+    private final int rawDays;
+    private final int minuteRollupDays;
+    private final int hourRollupDays;
+    private final int batchSize;
+    private final long pauseMs;
+    private final Counter archived;
+    private final Counter deleted;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public HistoryRetentionJob(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                               @Value("${siteup.engine.history.retention.enabled:true}") boolean enabled,
+                               @Value("${siteup.engine.history.retention.raw-days:90}") int rawDays,
+                               @Value("${siteup.engine.history.retention.minute-rollup-days:2}") int minuteRollupDays,
+                               @Value("${siteup.engine.history.retention.hour-rollup-days:90}") int hourRollupDays,
+                               @Value("${siteup.engine.history.retention.batch-size:5000}") int batchSize,
+                               @Value("${siteup.engine.history.retention.pause-ms:100}") long pauseMs,
+                               @Value("${siteup.engine.history.retention.archive-dir:data/history-archive}") String archiveDir) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.rawDays = rawDays;
+        this.minuteRollupDays = minuteRollupDays;
+        this.hourRollupDays = hourRollupDays;
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMs = pauseMs;
+        // archive-dir 为空表示不归档，过期记录直接删除
+        this.archive = archiveDir == null || archiveDir.isBlank() ? null : new HistoryArchive(Path.of(archiveDir), objectMapper);
+        this.archived = Counter.builder("siteup.history.retention.rows").tag("action", "archived").register(meterRegistry);
+        this.deleted = Counter.builder("siteup.history.retention.rows").tag("action", "deleted").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${siteup.engine.history.retention.cron:0 30 3 * * *}")
+    public void run() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // 在持有锁的连接上执行回调，清理本身使用连接池中的其他连接
+            Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+                if (!namedLock(con, "SELECT GET_LOCK(?, 0)")) {
+                    return false;
+                }
+                try {
+                    retain();
+                } finally {
+                    namedLock(con, "SELECT RELEASE_LOCK(?)");
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(ran)) {
+                System.out.println("History retention: skipped, another instance holds the lock");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("History retention failed: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static boolean namedLock(Connection con, String sql) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setString(1, LOCK_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void retain() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long rows = purgeRawHistory(now.minusDays(rawDays));
+            long minuteBuckets = purgeRollups("MINUTE", now.minusDays(minuteRollupDays));
+            long hourBuckets = purgeRollups("HOUR", now.minusDays(hourRollupDays));
+            System.out.println("History retention: removed " + rows + " history rows, "
+                    + minuteBuckets + " minute and " + hourBuckets + " hour rollup buckets");
+        } catch (RuntimeException | IOException e) {
+            System.err.println("History retention failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 归档并删除 cutoff 之前的原始记录
+     *
+     * @return 删除的行数
+     */
+    long purgeRawHistory(LocalDateTime cutoff) throws IOException, InterruptedException {
+        long total = 0;
+        while (true) {
+            List<GenerationHistory> batch = jdbcTemplate.query(SELECT_EXPIRED_SQL, ROW_MAPPER,
+                    Timestamp.valueOf(cutoff), batchSize);
+            if (batch.isEmpty()) {
+                return total;
+            }
+            if (archive != null) {
+                archive.append(batch);
+                archived.increment(batch.size());
+            }
+            int removed = deleteByIds(batch);
+            deleted.increment(removed);
+            total += removed;
+            if (batch.size() < batchSize) {
+                return total;
+            }
+            pause();
+        }
+    }
+
+    private int deleteByIds(List<GenerationHistory> batch) {
+        StringBuilder sql = new StringBuilder("DELETE FROM generation_history WHERE id IN (");
+        Object[] ids = new Object[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+            ids[i] = batch.get(i).getId();
+        }
+        sql.append(')');
+        return jdbcTemplate.update(sql.toString(), ids);
+    }
+
+    /**
+     * 分批删除某一粒度下早于 cutoff 的汇总桶
+     */
+    long purgeRollups(String granularity, LocalDateTime cutoff) throws InterruptedException {
+        long total = 0;
+        while (true) {
+            int removed = jdbcTemplate.update(DELETE_ROLLUP_SQL, granularity, Timestamp.valueOf(cutoff), batchSize);
+            total += removed;
+            if (removed < batchSize) {
+                return total;
+            }
+            pause();
+        }
+    }
+
+    private void pause() throws InterruptedException {
+        if (pauseMs > 0) {
+            Thread.sleep(pauseMs);
+        }
+    }
+}
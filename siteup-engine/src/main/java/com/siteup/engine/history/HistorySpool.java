@@ -0,0 +1,126 @@
+package com.siteup.engine.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.engine.model.GenerationHistory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 未写入数据库的生成历史的本地暂存（NDJSON，每行一条记录）
+ *
+ * - 追加写入 {dir}/active.ndjson，每次追加都是完整的若干行；进程崩溃时最多留下一行不完整的记录，回放时跳过；
+ * - 回放前先把 active 文件封存为 sealed-{时间戳}.ndjson，再逐个文件写库，写库成功后删除文件；
+ * - 语义为至少一次：回放写库成功但删除文件前崩溃，重启后会重复写入这一批记录。
+ */
+class HistorySpool {
+
+    private static final String ACTIVE = "active.ndjson";
+    private static final String SEALED_PREFIX = "sealed-";
+
+    private final Path dir;
+    private final ObjectMapper objectMapper;
+    private long sealSequence;
+
+    HistorySpool(Path dir, ObjectMapper objectMapper) throws IOException {
+        this.dir = dir;
+        this.objectMapper = objectMapper;
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * 追加一批记录；失败时返回 false（调用方据此计入丢弃）
+     */
+    synchronized boolean append(List<GenerationHistory> records) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(records.size() * 256);
+        try {
+            for (GenerationHistory record : records) {
+                lines.write(objectMapper.writeValueAsBytes(record));
+                lines.write('\n');
+            }
+            try (FileChannel channel = FileChannel.open(dir.resolve(ACTIVE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("History spool append failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 封存当前 active 文件，返回所有待回放的文件（从旧到新）
+     */
+    synchronized List<Path> seal() throws IOException {
+        Path active = dir.resolve(ACTIVE);
+        if (Files.exists(active)) {
+            String name = SEALED_PREFIX + System.currentTimeMillis() + "-" + (sealSequence++) + ".ndjson";
+            Files.move(active, dir.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        }
+        List<Path> sealed = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().startsWith(SEALED_PREFIX)).forEach(sealed::add);
+        }
+        sealed.sort(null);
+        return sealed;
+    }
+
+    /**
+     * 读取封存文件中的记录，跳过无法解析的行（崩溃时写了一半的行）
+     */
+    List<GenerationHistory> read(Path file) throws IOException {
+        List<GenerationHistory> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    records.add(objectMapper.readValue(line, GenerationHistory.class));
+                } catch (IOException e) {
+                    System.err.println("Skipping corrupt history spool line in " + file.getFileName() + ": " + e.getMessage());
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return records;
+        }
+        return records;
+    }
+
+    void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("History spool delete failed for " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * 当前暂存的字节数（active + 已封存文件）
+     */
+    long sizeBytes() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(p -> p.toFile().length()).sum();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.siteup.engine.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * 批量渲染请求：一次调用渲染多个站点配置（用于按模板批量重新发布）
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchRenderRequest {
+
+    private List<Item> items;
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Item {
+        private Long projectId;
+        private String templateId;
+        private String userId;
+        private SiteConfig config;
+
+        public Long getProjectId() { return projectId; }
+        public void setProjectId(Long projectId) { this.projectId = projectId; }
+
+        public String getTemplateId() { return templateId; }
+        public void setTemplateId(String templateId) { this.templateId = templateId; }
+
+        public String getUserId() { return userId; }
+        public void setUserId(String userId) { this.userId = userId; }
+
+        public SiteConfig getConfig() { return config; }
+        public void setConfig(SiteConfig config) { this.config = config; }
+    }
+}
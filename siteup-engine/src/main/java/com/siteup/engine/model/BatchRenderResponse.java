@@ -0,0 +1,52 @@
+package com.siteup.engine.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量渲染响应：结果与请求条目一一对应（同序），单条失败不影响其他条目
+ */
+public class BatchRenderResponse {
+
+    private List<Result> results = new ArrayList<>();
+
+    public List<Result> getResults() { return results; }
+    public void setResults(List<Result> results) { this.results = results; }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Result {
+        private Long projectId;
+        private boolean success;
+        private String html;
+        private String error;
+
+        public static Result success(Long projectId, String html) {
+            Result result = new Result();
+            result.projectId = projectId;
+            result.success = true;
+            result.html = html;
+            return result;
+        }
+
+        public static Result failure(Long projectId, String error) {
+            Result result = new Result();
+            result.projectId = projectId;
+            result.error = error;
+            return result;
+        }
+
+        public Long getProjectId() { return projectId; }
+        public void setProjectId(Long projectId) { this.projectId = projectId; }
+
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+
+        public String getHtml() { return html; }
+        public void setHtml(String html) { this.html = html; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
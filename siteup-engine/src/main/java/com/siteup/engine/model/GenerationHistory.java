@@ -11,7 +11,11 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "generation_history")
+@Table(name = "generation_history", indexes = {
+    @Index(name = "idx_project_generated", columnList = "project_id, generated_at"),
+    @Index(name = "idx_user_generated", columnList = "user_id, generated_at"),
+    @Index(name = "idx_generated_at", columnList = "generated_at")
+})
 public class GenerationHistory {
 
     @Id
@@ -0,0 +1,92 @@
+package com.siteup.engine.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 生成统计汇总实体类
+ * 按维度（全局/项目/模板/用户）和时间粒度（分钟/小时/天/累计）预先聚合的生成统计，
+ * 统计接口只读取少量汇总行，不再扫描 generation_history
+ */
+@Data
+@Entity
+@Table(name = "generation_stats_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_rollup_bucket",
+               columnNames = {"scope", "scope_key", "granularity", "bucket_start"}),
+       indexes = @Index(name = "idx_rollup_granularity_bucket", columnList = "granularity, bucket_start"))
+public class GenerationStatsRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String scope; // GLOBAL / PROJECT / TEMPLATE / USER
+
+    @Column(name = "scope_key", nullable = false)
+    private String scopeKey; // 维度取值（全局为空字符串）
+
+    @Column(nullable = false, length = 16)
+    private String granularity; // MINUTE / HOUR / DAY / TOTAL
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart; // 时间桶起点（TOTAL 固定为 1970-01-01）
+
+    @Column(nullable = false)
+    private Long successCount = 0L; // 成功次数
+
+    @Column(nullable = false)
+    private Long failureCount = 0L; // 失败次数
+
+    @Column(nullable = false)
+    private Long durationSumMs = 0L; // 成功生成的耗时总和（毫秒）
+
+    @Column(nullable = false)
+    private Long sizeSumBytes = 0L; // 生成的 HTML 大小总和（字节）
+
+    @Column(columnDefinition = "TEXT")
+    private String durationHistogram; // 耗时直方图（LogHistogram 编码）
+
+    @Column(columnDefinition = "TEXT")
+    private String sizeHistogram; // HTML 大小直方图（LogHistogram 编码）
+
+    private LocalDateTime updatedAt; // 最后一次合并时间
+
+    // Explicit getters and setters for Lombok compatibility
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getScope() { return scope; }
+    public void setScope(String scope) { this.scope = scope; }
+
+    public String getScopeKey() { return scopeKey; }
+    public void setScopeKey(String scopeKey) { this.scopeKey = scopeKey; }
+
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public Long getSuccessCount() { return successCount; }
+    public void setSuccessCount(Long successCount) { this.successCount = successCount; }
+
+    public Long getFailureCount() { return failureCount; }
+    public void setFailureCount(Long failureCount) { this.failureCount = failureCount; }
+
+    public Long getDurationSumMs() { return durationSumMs; }
+    public void setDurationSumMs(Long durationSumMs) { this.durationSumMs = durationSumMs; }
+
+    public Long getSizeSumBytes() { return sizeSumBytes; }
+    public void setSizeSumBytes(Long sizeSumBytes) { this.sizeSumBytes = sizeSumBytes; }
+
+    public String getDurationHistogram() { return durationHistogram; }
+    public void setDurationHistogram(String durationHistogram) { this.durationHistogram = durationHistogram; }
+
+    public String getSizeHistogram() { return sizeHistogram; }
+    public void setSizeHistogram(String sizeHistogram) { this.sizeHistogram = sizeHistogram; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,195 @@
+package com.siteup.engine.preview;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 6902 JSON Patch（add / remove / replace / move / copy / test），直接作用于 Jackson 树
+ *
+ * 路径使用 RFC 6901 JSON Pointer（~1 表示 "/"，~0 表示 "~"，数组末尾用 "-"）。
+ * 补丁作用于目标文档的副本，任一操作失败整个补丁无效，原文档不受影响。
+ */
+public final class JsonPatch {
+
+    private JsonPatch() {
+    }
+
+    /**
+     * 应用补丁
+     *
+     * @param target 目标文档（不会被修改）
+     * @param patch  操作数组
+     * @return 应用补丁后的新文档
+     */
+    public static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (patch == null || !patch.isArray()) {
+            throw new JsonPatchException("JSON Patch must be an array of operations");
+        }
+        JsonNode doc = target.deepCopy();
+        for (JsonNode operation : patch) {
+            doc = applyOperation(doc, operation);
+        }
+        return doc;
+    }
+
+    private static JsonNode applyOperation(JsonNode doc, JsonNode operation) {
+        String op = requiredText(operation, "op");
+        List<String> path = parsePointer(requiredText(operation, "path"));
+        switch (op) {
+            case "add":
+                return add(doc, path, requiredValue(operation).deepCopy());
+            case "remove":
+                return remove(doc, path);
+            case "replace":
+                if (path.isEmpty()) {
+                    return requiredValue(operation).deepCopy();
+                }
+                return add(remove(doc, path), path, requiredValue(operation).deepCopy());
+            case "move": {
+                List<String> from = parsePointer(requiredText(operation, "from"));
+                if (from.equals(path)) {
+                    get(doc, from);
+                    return doc;
+                }
+                if (path.size() > from.size() && path.subList(0, from.size()).equals(from)) {
+                    throw new JsonPatchException("Cannot move a value into one of its own children: " + operation);
+                }
+                JsonNode value = get(doc, from);
+                return add(remove(doc, from), path, value);
+            }
+            case "copy": {
+                List<String> from = parsePointer(requiredText(operation, "from"));
+                return add(doc, path, get(doc, from).deepCopy());
+            }
+            case "test":
+                if (!get(doc, path).equals(requiredValue(operation))) {
+                    throw new JsonPatchException("Test failed at " + operation.get("path").asText());
+                }
+                return doc;
+            default:
+                throw new JsonPatchException("Unsupported JSON Patch operation: " + op);
+        }
+    }
+
+    private static JsonNode add(JsonNode doc, List<String> path, JsonNode value) {
+        if (path.isEmpty()) {
+            return value;
+        }
+        JsonNode parent = get(doc, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+        if (parent instanceof ObjectNode object) {
+            object.set(token, value);
+        } else if (parent instanceof ArrayNode array) {
+            if ("-".equals(token)) {
+                array.add(value);
+            } else {
+                int index = arrayIndex(token, array.size() + 1);
+                array.insert(index, value);
+            }
+        } else {
+            throw new JsonPatchException("Cannot add to a scalar value at " + pointer(path));
+        }
+        return doc;
+    }
+
+    private static JsonNode remove(JsonNode doc, List<String> path) {
+        if (path.isEmpty()) {
+            throw new JsonPatchException("Cannot remove the document root");
+        }
+        JsonNode parent = get(doc, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+        if (parent instanceof ObjectNode object) {
+            if (!object.has(token)) {
+                throw new JsonPatchException("No such path: " + pointer(path));
+            }
+            object.remove(token);
+        } else if (parent instanceof ArrayNode array) {
+            array.remove(arrayIndex(token, array.size()));
+        } else {
+            throw new JsonPatchException("No such path: " + pointer(path));
+        }
+        return doc;
+    }
+
+    private static JsonNode get(JsonNode doc, List<String> path) {
+        JsonNode current = doc;
+        for (String token : path) {
+            if (current.isObject()) {
+                current = current.get(token);
+            } else if (current.isArray()) {
+                current = current.get(arrayIndex(token, current.size()));
+            } else {
+                current = null;
+            }
+            if (current == null) {
+                throw new JsonPatchException("No such path: " + pointer(path));
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 数组下标：非负十进制整数，不允许前导 0，且必须小于 bound
+     */
+    private static int arrayIndex(String token, int bound) {
+        if (token.isEmpty() || (token.length() > 1 && token.charAt(0) == '0')) {
+            throw new JsonPatchException("Invalid array index: " + token);
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                throw new JsonPatchException("Invalid array index: " + token);
+            }
+        }
+        int index;
+        try {
+            index = Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new JsonPatchException("Invalid array index: " + token);
+        }
+        if (index >= bound) {
+            throw new JsonPatchException("Array index out of bounds: " + token);
+        }
+        return index;
+    }
+
+    static List<String> parsePointer(String pointer) {
+        List<String> tokens = new ArrayList<>();
+        if (pointer.isEmpty()) {
+            return tokens;
+        }
+        if (pointer.charAt(0) != '/') {
+            throw new JsonPatchException("JSON Pointer must start with '/': " + pointer);
+        }
+        for (String raw : pointer.substring(1).split("/", -1)) {
+            tokens.add(raw.replace("~1", "/").replace("~0", "~"));
+        }
+        return tokens;
+    }
+
+    private static String pointer(List<String> path) {
+        StringBuilder sb = new StringBuilder();
+        for (String token : path) {
+            sb.append('/').append(token.replace("~", "~0").replace("/", "~1"));
+        }
+        return sb.toString();
+    }
+
+    private static String requiredText(JsonNode operation, String field) {
+        JsonNode value = operation.get(field);
+        if (value == null || !value.isTextual()) {
+            throw new JsonPatchException("Missing '" + field + "' in operation: " + operation);
+        }
+        return value.asText();
+    }
+
+    private static JsonNode requiredValue(JsonNode operation) {
+        if (!operation.has("value")) {
+            throw new JsonPatchException("Missing 'value' in operation: " + operation);
+        }
+        return operation.get("value");
+    }
+}
@@ -0,0 +1,11 @@
+package com.siteup.engine.preview;
+
+/**
+ * Thrown when an RFC 6902 JSON Patch is malformed or cannot be applied to the target document.
+ */
+public class JsonPatchException extends IllegalArgumentException {
+
+    public JsonPatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,83 @@
+package com.siteup.engine.preview;
+
+import com.siteup.engine.renderer.plan.RenderReport;
+
+import java.util.List;
+
+/**
+ * 预览渲染结果：整页 HTML，或按 ComponentNode.id 给出的片段列表（二者只有一个非空）
+ */
+public class PreviewResult {
+
+    public static final String MODE_FULL = "full";
+    public static final String MODE_FRAGMENTS = "fragments";
+
+    private final String renderId;
+    private final String baseRenderId;
+    private final String html;
+    private final List<Fragment> fragments;
+    private final RenderReport report;
+
+    private PreviewResult(String renderId, String baseRenderId, String html, List<Fragment> fragments,
+                          RenderReport report) {
+        this.renderId = renderId;
+        this.baseRenderId = baseRenderId;
+        this.html = html;
+        this.fragments = fragments;
+        this.report = report;
+    }
+
+    static PreviewResult full(String renderId, String baseRenderId, String html, RenderReport report) {
+        return new PreviewResult(renderId, baseRenderId, html, null, report);
+    }
+
+    static PreviewResult fragments(String renderId, String baseRenderId, List<Fragment> fragments,
+                                   RenderReport report) {
+        return new PreviewResult(renderId, baseRenderId, null, fragments, report);
+    }
+
+    public String getRenderId() {
+        return renderId;
+    }
+
+    public String getBaseRenderId() {
+        return baseRenderId;
+    }
+
+    public String getMode() {
+        return fragments != null ? MODE_FRAGMENTS : MODE_FULL;
+    }
+
+    public String getHtml() {
+        return html;
+    }
+
+    public List<Fragment> getFragments() {
+        return fragments;
+    }
+
+    public RenderReport getReport() {
+        return report;
+    }
+
+    /**
+     * 需要替换的节点：id 对应节点的完整子树 HTML，页面中由 {@code [data-node-id="id"]} 的元素整体替换
+     */
+    public static class Fragment {
+        private final String id;
+        private final String html;
+
+        Fragment(String id, String html) {
+            this.id = id;
+            this.html = html;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getHtml() {
+            return html;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.siteup.engine.preview;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.siteup.engine.model.SiteConfig;
+import com.siteup.engine.renderer.RenderingService;
+import com.siteup.engine.renderer.plan.ContentHasher;
+import com.siteup.engine.renderer.plan.RenderReport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 编辑器预览的增量渲染
+ *
+ * 流程：
+ *  - open：提交完整配置，渲染整页并返回 renderId；
+ *  - patch：基于某个 renderId 提交 RFC 6902 补丁，得到新的配置与新的 renderId；
+ *    未变化的子树直接复用子树渲染计划缓存，只有被修改的节点（及其祖先）重新编译，
+ *    再按 ComponentNode.id 比较新旧子树哈希，只下发发生变化的最上层节点的片段。
+ *    预览渲染在每个有 id 的节点上输出 data-node-id 锚点（正式页面不输出），编辑器按它找到要替换的元素；
+ *    锚点随 id 变化，这里的子树哈希因此包含节点 id（{@link ContentHasher#hashTree(SiteConfig.ComponentNode, boolean)}）。
+ *
+ * 无法按 id 定位时（标题/主题变化、根节点本身变化、节点缺少 id 或 id 重复）退回整页 HTML。
+ */
+@Service
+public class PreviewService {
+
+    private final RenderingService renderingService;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, PreviewSession> sessions;
+
+    public PreviewService(RenderingService renderingService, ObjectMapper objectMapper,
+                          @Value("${siteup.engine.preview.max-sessions:1000}") long maxSessions,
+                          @Value("${siteup.engine.preview.ttl-minutes:30}") long ttlMinutes) {
+        this.renderingService = renderingService;
+        this.objectMapper = objectMapper;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * 渲染完整配置并创建预览会话
+     */
+    public PreviewResult open(JsonNode config) {
+        SiteConfig siteConfig = toSiteConfig(config);
+        String renderId = store(config, siteConfig);
+
+        RenderReport report = new RenderReport();
+        String html = renderingService.renderPreview(siteConfig, report);
+        return PreviewResult.full(renderId, null, html, report);
+    }
+
+    /**
+     * 对 baseRenderId 对应的配置应用补丁并重新渲染
+     *
+     * @param preferFragments 为 true 时尽量只返回变化的片段
+     * @return 渲染结果；baseRenderId 不存在或已过期时返回 null
+     */
+    public PreviewResult patch(String baseRenderId, JsonNode patch, boolean preferFragments) {
+        PreviewSession base = sessions.getIfPresent(baseRenderId);
+        if (base == null) {
+            return null;
+        }
+
+        JsonNode config = JsonPatch.apply(base.config(), patch);
+        SiteConfig siteConfig = toSiteConfig(config);
+        Map<SiteConfig.ComponentNode, String> hashes = ContentHasher.hashTree(siteConfig.getRoot(), true);
+        PreviewSession next = PreviewSession.of(config, siteConfig, hashes);
+        String renderId = UUID.randomUUID().toString();
+        sessions.put(renderId, next);
+
+        RenderReport report = new RenderReport();
+        if (preferFragments) {
+            List<SiteConfig.ComponentNode> dirty = dirtyNodes(base, next, siteConfig, hashes);
+            if (dirty != null) {
+                List<PreviewResult.Fragment> fragments = new ArrayList<>(dirty.size());
+                for (SiteConfig.ComponentNode node : dirty) {
+                    String html = renderingService.previewPlanFor(node, report).toString();
+                    fragments.add(new PreviewResult.Fragment(node.getId(), html));
+                }
+                return PreviewResult.fragments(renderId, baseRenderId, fragments, report);
+            }
+        }
+        String html = renderingService.renderPreview(siteConfig, report);
+        return PreviewResult.full(renderId, baseRenderId, html, report);
+    }
+
+    /**
+     * 找出需要重新下发的最上层节点；返回 null 表示只能整页返回
+     */
+    private List<SiteConfig.ComponentNode> dirtyNodes(PreviewSession base, PreviewSession next, SiteConfig siteConfig,
+                                                      Map<SiteConfig.ComponentNode, String> hashes) {
+        if (!base.isAddressable() || !next.isAddressable() || !base.headHash().equals(next.headHash())) {
+            return null;
+        }
+        SiteConfig.ComponentNode root = siteConfig.getRoot();
+        if (root == null || root.getId() == null) {
+            return null;
+        }
+        List<SiteConfig.ComponentNode> dirty = new ArrayList<>();
+        collectDirty(root, base, next, hashes, dirty);
+        if (dirty.size() == 1 && dirty.get(0) == root) {
+            return null;
+        }
+        return dirty;
+    }
+
+    private void collectDirty(SiteConfig.ComponentNode node, PreviewSession base, PreviewSession next,
+                              Map<SiteConfig.ComponentNode, String> hashes, List<SiteConfig.ComponentNode> dirty) {
+        PreviewSession.NodeState before = base.node(node.getId());
+        if (before != null && before.subtreeHash.equals(hashes.get(node))) {
+            return; // 子树未变化
+        }
+        if (before == null || !before.shapeHash.equals(next.node(node.getId()).shapeHash)) {
+            dirty.add(node); // 节点自身（type/props/子节点列表）变化，整棵子树重新下发
+            return;
+        }
+        // 形状未变：变化都发生在有 id 的子节点内部（没有 id 的子节点已包含在形状哈希中）
+        if (node.getChildren() == null) {
+            return;
+        }
+        for (SiteConfig.ComponentNode child : node.getChildren()) {
+            if (child != null && child.getId() != null) {
+                collectDirty(child, base, next, hashes, dirty);
+            }
+        }
+    }
+
+    private String store(JsonNode config, SiteConfig siteConfig) {
+        PreviewSession session = PreviewSession.of(config, siteConfig, ContentHasher.hashTree(siteConfig.getRoot(), true));
+        String renderId = UUID.randomUUID().toString();
+        sessions.put(renderId, session);
+        return renderId;
+    }
+
+    private SiteConfig toSiteConfig(JsonNode config) {
+        if (config == null || !config.isObject()) {
+            throw new IllegalArgumentException("Site config must be a JSON object");
+        }
+        try {
+            return objectMapper.treeToValue(config, SiteConfig.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid site config: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.siteup.engine.preview;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.siteup.engine.model.SiteConfig;
+import com.siteup.engine.renderer.plan.ContentHasher;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次预览渲染的快照（不可变）：原始配置 JSON 以及按 ComponentNode.id 索引的子树哈希与形状哈希，
+ * 用于和下一次补丁后的配置比较出需要重新下发的节点。
+ */
+final class PreviewSession {
+
+    private final JsonNode config;
+    private final String headHash;
+    private final Map<String, NodeState> nodes;
+    private final boolean addressable;
+
+    private PreviewSession(JsonNode config, String headHash, Map<String, NodeState> nodes, boolean addressable) {
+        this.config = config;
+        this.headHash = headHash;
+        this.nodes = nodes;
+        this.addressable = addressable;
+    }
+
+    /**
+     * @param hashes {@link ContentHasher#hashTree(SiteConfig.ComponentNode, boolean)}（包含节点 id）对 siteConfig.root 的计算结果
+     */
+    static PreviewSession of(JsonNode config, SiteConfig siteConfig,
+                             Map<SiteConfig.ComponentNode, String> hashes) {
+        Map<String, NodeState> nodes = new HashMap<>();
+        boolean unique = index(siteConfig.getRoot(), hashes, nodes);
+        return new PreviewSession(config, ContentHasher.hashHead(siteConfig), nodes, unique);
+    }
+
+    private static boolean index(SiteConfig.ComponentNode node, Map<SiteConfig.ComponentNode, String> hashes,
+                                 Map<String, NodeState> nodes) {
+        if (node == null) {
+            return true;
+        }
+        boolean unique = true;
+        if (node.getId() != null) {
+            NodeState state = new NodeState(hashes.get(node), ContentHasher.shapeHash(node, hashes));
+            unique = nodes.put(node.getId(), state) == null;
+        }
+        List<SiteConfig.ComponentNode> children = node.getChildren();
+        if (children != null) {
+            for (SiteConfig.ComponentNode child : children) {
+                unique &= index(child, hashes, nodes);
+            }
+        }
+        return unique;
+    }
+
+    JsonNode config() {
+        return config;
+    }
+
+    String headHash() {
+        return headHash;
+    }
+
+    NodeState node(String id) {
+        return nodes.get(id);
+    }
+
+    /**
+     * 所有节点 id 是否唯一（否则无法按 id 下发片段，只能返回整页）
+     */
+    boolean isAddressable() {
+        return addressable;
+    }
+
+    static final class NodeState {
+        final String subtreeHash;
+        final String shapeHash;
+
+        NodeState(String subtreeHash, String shapeHash) {
+            this.subtreeHash = subtreeHash;
+            this.shapeHash = shapeHash;
+        }
+    }
+}
@@ -1,8 +1,33 @@
 package com.siteup.engine.renderer;
 
 import com.siteup.engine.model.SiteConfig;
+import com.siteup.engine.renderer.plan.RenderPlanBuilder;
+
+import java.io.IOException;
 
 public interface ComponentRenderer {
-    boolean supports(String type);
-    String render(SiteConfig.ComponentNode node, RenderingService service);
+
+    /**
+     * 该渲染器处理的组件类型（对应 ComponentNode.type），启动时由 {@link RendererRegistry} 登记，
+     * 同一类型只能有一个渲染器。
+     */
+    String type();
+
+    /**
+     * 流式渲染：把节点 HTML 直接写入共享的输出 sink。
+     * 子节点通过 {@link RenderingService#render(SiteConfig.ComponentNode, Appendable)} 写入同一个 sink，
+     * 不再为每个节点生成中间字符串。
+     */
+    void render(SiteConfig.ComponentNode node, Appendable out, RenderingService service) throws IOException;
+
+    /**
+     * 在开始标签内写入节点锚点 {@code data-node-id}，编辑器预览按它定位并替换增量下发的片段。
+     * 只在预览编译（{@link RenderPlanBuilder#nodeAnchors()}）时输出，正式页面和发布产物不带锚点；
+     * 节点没有 id 时不输出。
+     */
+    static void nodeId(SiteConfig.ComponentNode node, Appendable out) throws IOException {
+        if (node.getId() != null && out instanceof RenderPlanBuilder builder && builder.nodeAnchors()) {
+            HtmlEscaper.attribute("data-node-id", node.getId(), out);
+        }
+    }
 }
@@ -0,0 +1,104 @@
+package com.siteup.engine.renderer;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * HTML 转义工具（单次遍历，直接写入 sink）
+ *
+ * 不需要转义的连续字符整段写出，只有遇到特殊字符时才写替换串，不产生中间字符串：
+ * - text：&amp; &lt; &gt;
+ * - multilineText：同 text，另外把换行转为 &lt;br/&gt;
+ * - attribute：同 text，另外转义双引号/单引号，并去掉换行（属性值统一用双引号包裹）
+ *
+ * 所有渲染器输出用户配置的内容时都应通过这里，而不是直接 append。
+ */
+public final class HtmlEscaper {
+
+    private static final String[] TEXT = new String[128];
+    private static final String[] MULTILINE_TEXT = new String[128];
+    private static final String[] ATTRIBUTE = new String[128];
+
+    static {
+        for (String[] table : new String[][] {TEXT, MULTILINE_TEXT, ATTRIBUTE}) {
+            table['&'] = "&amp;";
+            table['<'] = "&lt;";
+            table['>'] = "&gt;";
+        }
+        MULTILINE_TEXT['\n'] = "<br/>";
+        ATTRIBUTE['"'] = "&quot;";
+        ATTRIBUTE['\''] = "&#39;";
+        ATTRIBUTE['\n'] = "";
+        ATTRIBUTE['\r'] = "";
+    }
+
+    private HtmlEscaper() {
+    }
+
+    /**
+     * 写入转义后的文本内容；null 视为空
+     */
+    public static void text(CharSequence value, Appendable out) throws IOException {
+        escape(value, out, TEXT);
+    }
+
+    /**
+     * 写入转义后的文本内容，换行转为 &lt;br/&gt;
+     */
+    public static void multilineText(CharSequence value, Appendable out) throws IOException {
+        escape(value, out, MULTILINE_TEXT);
+    }
+
+    /**
+     * 写入转义后的属性值（不含两侧引号）
+     */
+    public static void attribute(CharSequence value, Appendable out) throws IOException {
+        escape(value, out, ATTRIBUTE);
+    }
+
+    /**
+     * 写入完整属性：{@code  name="value"}（值会被转义）
+     */
+    public static void attribute(String name, CharSequence value, Appendable out) throws IOException {
+        out.append(' ').append(name).append("=\"");
+        escape(value, out, ATTRIBUTE);
+        out.append('"');
+    }
+
+    private static void escape(CharSequence value, Appendable out, String[] replacements) throws IOException {
+        if (value == null) {
+            return;
+        }
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 128) {
+                String replacement = replacements[c];
+                if (replacement != null) {
+                    if (i > start) {
+                        appendRange(value, start, i, out);
+                    }
+                    out.append(replacement);
+                    start = i + 1;
+                }
+            }
+        }
+        if (start == 0) {
+            out.append(value);
+        } else if (start < length) {
+            appendRange(value, start, length, out);
+        }
+    }
+
+    /**
+     * Writer.append(csq, start, end) 会先 subSequence 出一个新字符串，这里对 String 直接按区间写入
+     */
+    private static void appendRange(CharSequence value, int start, int end, Appendable out) throws IOException {
+        if (out instanceof Writer writer && value instanceof String string) {
+            writer.write(string, start, end - start);
+        } else {
+            out.append(value, start, end);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.siteup.engine.renderer;
+
+import com.siteup.engine.model.SiteConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 宽容器并行编译配置（默认关闭）
+ *
+ * 子节点数达到阈值的 container/page 会把各个子树放到独立的 ForkJoinPool 上并行编译，
+ * 再按原顺序拼接为渲染计划，输出与顺序编译逐字节一致。
+ * 子节点很少或子树很小时，任务调度开销大于收益，因此只对足够宽的节点生效。
+ */
+@Component
+public class RenderParallelism {
+
+    private final boolean enabled;
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    public RenderParallelism(@Value("${siteup.engine.render.parallel.enabled:false}") boolean enabled,
+                             @Value("${siteup.engine.render.parallel.threshold:64}") int threshold,
+                             @Value("${siteup.engine.render.parallel.pool-size:0}") int poolSize) {
+        this.enabled = enabled;
+        this.threshold = Math.max(threshold, 2);
+        this.pool = enabled
+                ? new ForkJoinPool(poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors())
+                : null;
+    }
+
+    /**
+     * 该节点的子树是否应当并行编译
+     */
+    boolean shouldFork(SiteConfig.ComponentNode node) {
+        if (!enabled) {
+            return false;
+        }
+        List<SiteConfig.ComponentNode> children = node.getChildren();
+        return children != null && children.size() >= threshold;
+    }
+
+    ForkJoinPool pool() {
+        return pool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
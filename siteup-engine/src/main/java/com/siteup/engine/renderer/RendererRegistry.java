@@ -0,0 +1,105 @@
+package com.siteup.engine.renderer;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 组件渲染器注册表：启动时把所有 {@link ComponentRenderer} 按 {@link ComponentRenderer#type()} 登记一次。
+ *
+ * - 每个类型分配一个从 0 开始的整数 id，渲染器存放在按 id 索引的数组中；
+ * - 两个渲染器声明同一类型时启动失败，异常信息中给出冲突的两个类；
+ * - 查找先按原样精确匹配，未命中再做大小写不敏感匹配（兼容旧配置中的 "Text"、"CONTAINER"），
+ *   不会为每个节点分配小写字符串。
+ */
+@Component
+public class RendererRegistry {
+
+    /**
+     * 未登记类型的 id
+     */
+    public static final int UNKNOWN = -1;
+
+    private final ComponentRenderer[] renderers;
+    private final String[] types;
+    private final Map<String, Integer> exactIds;
+    private final Map<String, Integer> caseInsensitiveIds;
+
+    public RendererRegistry(List<ComponentRenderer> renderers) {
+        Map<String, Integer> exact = new HashMap<>();
+        TreeMap<String, Integer> relaxed = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<ComponentRenderer> ordered = new ArrayList<>(renderers.size());
+        for (ComponentRenderer renderer : renderers) {
+            String type = renderer.type();
+            if (type == null || type.isBlank()) {
+                throw new IllegalStateException("Renderer " + renderer.getClass().getName() + " declares no component type");
+            }
+            Integer existing = relaxed.get(type);
+            if (existing != null) {
+                throw new IllegalStateException("Component type '" + type + "' is claimed by both "
+                        + ordered.get(existing).getClass().getName() + " and " + renderer.getClass().getName());
+            }
+            int id = ordered.size();
+            ordered.add(renderer);
+            exact.put(type, id);
+            relaxed.put(type, id);
+        }
+        this.renderers = ordered.toArray(new ComponentRenderer[0]);
+        this.types = new String[this.renderers.length];
+        for (int i = 0; i < this.renderers.length; i++) {
+            this.types[i] = this.renderers[i].type();
+        }
+        this.exactIds = exact;
+        this.caseInsensitiveIds = relaxed;
+    }
+
+    /**
+     * @return 类型对应的 id，未登记返回 {@link #UNKNOWN}
+     */
+    public int typeId(String type) {
+        if (type == null) {
+            return UNKNOWN;
+        }
+        Integer id = exactIds.get(type);
+        if (id == null) {
+            id = caseInsensitiveIds.get(type);
+        }
+        return id != null ? id : UNKNOWN;
+    }
+
+    /**
+     * @return 类型对应的渲染器，未登记返回 null
+     */
+    public ComponentRenderer resolve(String type) {
+        int id = typeId(type);
+        return id != UNKNOWN ? renderers[id] : null;
+    }
+
+    /**
+     * @return id 对应的渲染器
+     */
+    public ComponentRenderer get(int typeId) {
+        return renderers[typeId];
+    }
+
+    public int size() {
+        return renderers.length;
+    }
+
+    /**
+     * 诊断信息：类型 -> 渲染器类名（按 id 顺序）
+     */
+    public Map<String, String> describe() {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < renderers.length; i++) {
+            result.put(types[i], renderers[i].getClass().getName());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
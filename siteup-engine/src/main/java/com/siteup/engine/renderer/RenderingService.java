@@ -1,59 +1,243 @@
 package com.siteup.engine.renderer;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.engine.cache.CapturingOutputStream;
+import com.siteup.engine.cache.RenderCache;
+import com.siteup.engine.history.GenerationHistoryWriter;
+import com.siteup.engine.model.BatchRenderRequest;
+import com.siteup.engine.model.BatchRenderResponse;
 import com.siteup.engine.model.GenerationHistory;
 import com.siteup.engine.model.SiteConfig;
-import com.siteup.engine.repository.GenerationHistoryRepository;
+import com.siteup.engine.renderer.plan.ContentHasher;
+import com.siteup.engine.renderer.plan.RenderPlan;
+import com.siteup.engine.renderer.plan.RenderPlanBuilder;
+import com.siteup.engine.renderer.plan.RenderPlanCache;
+import com.siteup.engine.renderer.plan.RenderReport;
+import com.siteup.engine.renderer.plan.Utf8Sink;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 /**
- * 渲染服务：使用 Spring 注入的 Map<String, ComponentRenderer> 实现策略分发。
+ * 渲染服务：通过 {@link RendererRegistry} 按组件类型分发到对应的 {@link ComponentRenderer}。
  *
  * 渲染流程：
- *  - 生成 HTML 头部（包含 Tailwind CDN）
+ *  - 生成 HTML 头部（包含 Tailwind CDN 与主题配置）
  *  - 递归渲染 root 节点（container/page 会递归渲染子节点）
+ *
+ * 所有渲染器都写入同一个 {@link Appendable} sink：传入 Servlet 的 Writer 即可边渲染边输出，
+ * 单次请求的内存占用只与树深度相关，而与 HTML 体积无关。
+ *
+ * 站点渲染走"编译 + 执行"两步：组件树先按内容哈希编译为 {@link RenderPlan}（渲染器只在编译期调用），
+ * 之后相同配置的渲染只是把预先生成的片段写入 sink。计划按子树内容哈希缓存，
+ * 页眉/页脚/卡片等重复子树在页面和项目之间共享，编辑一个节点后只需重新编译它和它的祖先。
+ * 每次渲染的复用情况记录在 {@link RenderReport} 中。
+ * 开启 {@link RenderParallelism} 后，宽容器的各个子树在 ForkJoinPool 上并行编译，再按原顺序拼接。
+ *
+ * 整站输出另有 {@link RenderCache}：按 SiteConfig 的规范化哈希缓存完整 HTML 字节，
+ * 命中时不再经过渲染（从模板新建、尚未修改的项目与模板本身命中同一条缓存）。
+ *
+ * 编辑器预览（{@link #renderPreview}、{@link #previewPlanFor}）是单独的计划变体：渲染器输出 data-node-id 锚点，
+ * 计划按包含节点 id 的子树哈希缓存，不经过整站缓存；正式渲染的输出和哈希都不包含 id。
  */
 @Service
 public class RenderingService {
 
-    private final Map<String, ComponentRenderer> rendererMap;
+    private static final ObjectMapper THEME_MAPPER = new ObjectMapper();
+
+    private static final int INITIAL_PAGE_BYTES = 16 * 1024;
+
+    private static final StaticHtml HEAD_START = new StaticHtml(
+            "<!DOCTYPE html>\n"
+            + "<html lang=\"en\">\n"
+            + "<head>\n"
+            + "  <meta charset=\"utf-8\" />\n"
+            + "  <meta name=\"viewport\" content=\"width=device-width, initial-scale=1\" />\n"
+            + "  <title>");
+    private static final StaticHtml HEAD_TITLE_END = new StaticHtml(
+            "</title>\n"
+            + "  <script src=\"https://cdn.tailwindcss.com\"></script>\n");
+    private static final StaticHtml THEME_START = new StaticHtml(
+            "  <script>\n"
+            + "    window.siteTheme = ");
+    private static final StaticHtml THEME_END = new StaticHtml(
+            ";\n"
+            + "    tailwind.config = { theme: { extend: {\n"
+            + "      colors: window.siteTheme.primaryColor ? { primary: window.siteTheme.primaryColor } : {},\n"
+            + "      fontFamily: window.siteTheme.fontFamily ? { sans: [window.siteTheme.fontFamily, 'sans-serif'] } : {}\n"
+            + "    } } };\n"
+            + "  </script>\n");
+    private static final StaticHtml HEAD_END = new StaticHtml(
+            "</head>\n"
+            + "<body class=\"antialiased bg-gray-50 text-gray-900\">\n");
+    private static final StaticHtml DOCUMENT_END = new StaticHtml("\n</body>\n</html>");
 
-    @Autowired(required = false)
-    private GenerationHistoryRepository historyRepository;
+    private final RendererRegistry registry;
+    private final RenderPlanCache planCache;
+    private final GenerationHistoryWriter historyWriter;
+    private final RenderCache renderCache;
+    private final RenderParallelism parallelism;
 
+    /**
+     * 不记录生成历史、不使用整站缓存、不并行编译的渲染服务
+     */
+    public RenderingService(RendererRegistry registry, RenderPlanCache planCache) {
+        this(registry, planCache, Optional.empty(), Optional.empty(), Optional.empty());
+    }
+
+    /**
+     * @param historyWriter 生成历史写入器（没有数据源时不存在）
+     * @param renderCache   整站 HTML 缓存
+     * @param parallelism   宽容器并行编译（未开启时不存在）
+     */
     @Autowired
-    public RenderingService(Map<String, ComponentRenderer> rendererMap) {
-        this.rendererMap = rendererMap;
+    public RenderingService(RendererRegistry registry, RenderPlanCache planCache,
+                            Optional<GenerationHistoryWriter> historyWriter,
+                            Optional<RenderCache> renderCache,
+                            Optional<RenderParallelism> parallelism) {
+        this.registry = registry;
+        this.planCache = planCache;
+        this.historyWriter = historyWriter.orElse(null);
+        this.renderCache = renderCache.orElse(null);
+        this.parallelism = parallelism.orElse(null);
     }
 
     /**
      * 渲染整个站点配置为 HTML 字符串
      */
     public String renderSite(SiteConfig siteConfig) {
-        StringBuilder html = new StringBuilder();
+        return renderSite(siteConfig, new RenderReport());
+    }
+
+    /**
+     * 渲染整个站点配置为 HTML 字符串，复用情况记录到 report
+     */
+    public String renderSite(SiteConfig siteConfig, RenderReport report) {
+        return new String(renderSiteBytes(siteConfig, report), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 渲染整个站点为 UTF-8 字节（命中渲染缓存时返回缓存中的数组，调用方不得修改）
+     */
+    public byte[] renderSiteBytes(SiteConfig siteConfig, RenderReport report) {
+        String cacheKey = cacheKey(siteConfig);
+        if (cacheKey != null) {
+            byte[] cached = renderCache.get(cacheKey);
+            if (cached != null) {
+                report.pageCacheHit(countNodes(siteConfig.getRoot()));
+                return cached;
+            }
+        }
+
+        ByteArrayOutputStream html = new ByteArrayOutputStream(INITIAL_PAGE_BYTES);
+        try (Utf8Sink sink = Utf8Sink.to(html)) {
+            renderSite(siteConfig, sink, report);
+        } catch (IOException e) {
+            // ByteArrayOutputStream 不会抛出 IOException
+            throw new UncheckedIOException(e);
+        }
+        byte[] result = html.toByteArray();
+        if (cacheKey != null) {
+            renderCache.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * 流式渲染整个站点为 UTF-8 字节（例如 HttpServletResponse 的 OutputStream）：
+     * 缓存命中时直接写出缓存字节，未命中时边渲染边输出并回填缓存。
+     * 渲染计划中的片段已是 UTF-8 字节，经由池化缓冲区直接拷贝到 out，不再转码。
+     */
+    public RenderReport renderSite(SiteConfig siteConfig, OutputStream out) throws IOException {
+        RenderReport report = new RenderReport();
+        String cacheKey = cacheKey(siteConfig);
+        if (cacheKey != null) {
+            byte[] cached = renderCache.get(cacheKey);
+            if (cached != null) {
+                report.pageCacheHit(countNodes(siteConfig.getRoot()));
+                out.write(cached);
+                return report;
+            }
+        }
+
+        CapturingOutputStream capture = cacheKey != null
+                ? new CapturingOutputStream(out, renderCache.maxEntryBytes())
+                : null;
+        try (Utf8Sink sink = Utf8Sink.to(capture != null ? capture : out)) {
+            renderSite(siteConfig, sink, report);
+        }
+
+        if (capture != null) {
+            byte[] html = capture.captured();
+            if (html != null) {
+                renderCache.put(cacheKey, html);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * 流式渲染整个站点：HTML 直接写入 out（例如 HttpServletResponse 的 Writer）
+     */
+    public RenderReport renderSite(SiteConfig siteConfig, Appendable out) throws IOException {
+        RenderReport report = new RenderReport();
+        renderSite(siteConfig, out, report);
+        return report;
+    }
+
+    /**
+     * 编辑器预览的整页渲染：带 data-node-id 锚点，不读写整站缓存
+     */
+    public String renderPreview(SiteConfig siteConfig, RenderReport report) {
+        ByteArrayOutputStream html = new ByteArrayOutputStream(INITIAL_PAGE_BYTES);
+        try (Utf8Sink sink = Utf8Sink.to(html)) {
+            renderSite(siteConfig, sink, report, true);
+        } catch (IOException e) {
+            // ByteArrayOutputStream 不会抛出 IOException
+            throw new UncheckedIOException(e);
+        }
+        return html.toString(StandardCharsets.UTF_8);
+    }
 
-        html.append("<!doctype html>\n");
-        html.append("<html lang=\"en\">\n");
-        html.append("<head>\n");
-        html.append("  <meta charset=\"utf-8\" />\n");
-        html.append("  <meta name=\"viewport\" content=\"width=device-width, initial-scale=1\" />\n");
-        html.append("  <title>").append(escape(siteConfig.getTitle())).append("</title>\n");
+    private void renderSite(SiteConfig siteConfig, Appendable out, RenderReport report) throws IOException {
+        renderSite(siteConfig, out, report, false);
+    }
+
+    private void renderSite(SiteConfig siteConfig, Appendable out, RenderReport report,
+                            boolean nodeAnchors) throws IOException {
+        String title = siteConfig != null ? siteConfig.getTitle() : null;
+
+        HEAD_START.writeTo(out);
+        HtmlEscaper.text(title != null ? title : "SiteUp Generated Site", out);
         // Tailwind CDN
-        html.append("  <script src=\"https://cdn.tailwindcss.com\"></script>\n");
-        html.append("</head>\n");
-        html.append("<body class=\"antialiased bg-gray-50 text-gray-900\">\n");
+        HEAD_TITLE_END.writeTo(out);
+        if (siteConfig != null && siteConfig.getThemeConfig() != null) {
+            writeThemeConfig(siteConfig.getThemeConfig(), out);
+        }
+        HEAD_END.writeTo(out);
 
         if (siteConfig != null && siteConfig.getRoot() != null) {
-            html.append(renderComponentRecursively(siteConfig.getRoot()));
+            planFor(siteConfig.getRoot(), report, nodeAnchors).writeTo(out);
         }
 
-        html.append("\n</body>\n</html>");
-        return html.toString();
+        DOCUMENT_END.writeTo(out);
     }
 
     /**
@@ -61,12 +245,60 @@ public class RenderingService {
      */
     public String renderSiteWithHistory(SiteConfig siteConfig, Long projectId,
                                        String templateId, String userId) {
+        return renderSiteWithHistory(siteConfig, projectId, templateId, userId, new RenderReport());
+    }
+
+    /**
+     * 渲染网站并记录生成历史，复用情况记录到 report
+     */
+    public String renderSiteWithHistory(SiteConfig siteConfig, Long projectId,
+                                       String templateId, String userId, RenderReport report) {
+        return withHistory(projectId, templateId, userId,
+                () -> renderSite(siteConfig, report), RenderingService::utf8Length);
+    }
+
+    /**
+     * 渲染网站为 UTF-8 字节并记录生成历史（命中渲染缓存时返回缓存中的数组，调用方不得修改）
+     */
+    public byte[] renderSiteBytesWithHistory(SiteConfig siteConfig, Long projectId,
+                                             String templateId, String userId, RenderReport report) {
+        return withHistory(projectId, templateId, userId,
+                () -> renderSiteBytes(siteConfig, report), html -> html.length);
+    }
+
+    /**
+     * 批量渲染：逐条渲染并记录生成历史，单条失败只影响该条结果
+     */
+    public BatchRenderResponse renderBatch(BatchRenderRequest request) {
+        BatchRenderResponse response = new BatchRenderResponse();
+        if (request == null || request.getItems() == null) {
+            return response;
+        }
+        for (BatchRenderRequest.Item item : request.getItems()) {
+            if (item == null || item.getConfig() == null) {
+                response.getResults().add(BatchRenderResponse.Result.failure(
+                        item != null ? item.getProjectId() : null, "Missing site configuration"));
+                continue;
+            }
+            try {
+                String html = renderSiteWithHistory(item.getConfig(), item.getProjectId(),
+                        item.getTemplateId(), item.getUserId());
+                response.getResults().add(BatchRenderResponse.Result.success(item.getProjectId(), html));
+            } catch (Exception e) {
+                response.getResults().add(BatchRenderResponse.Result.failure(item.getProjectId(), e.getMessage()));
+            }
+        }
+        return response;
+    }
+
+    private <T> T withHistory(Long projectId, String templateId, String userId,
+                              Supplier<T> render, ToIntFunction<T> size) {
         long startTime = System.currentTimeMillis();
         GenerationHistory history = null;
 
         try {
-            // 创建历史记录（如果提供了项目ID且有历史仓库）
-            if (projectId != null && historyRepository != null) {
+            // 创建历史记录（如果提供了项目ID且有历史写入器）
+            if (projectId != null && historyWriter != null) {
                 history = new GenerationHistory();
                 history.setProjectId(projectId);
                 history.setTemplateId(templateId);
@@ -76,89 +308,303 @@ public class RenderingService {
             }
 
             // 生成HTML
-            String html = renderSite(siteConfig);
+            T html = render.get();
 
-            // 更新历史记录（如果创建了且有历史仓库）
-            if (history != null && historyRepository != null) {
+            // 更新历史记录：放入异步写入队列，不在请求内等待数据库
+            if (history != null) {
                 long duration = System.currentTimeMillis() - startTime;
-                double sizeKb = html.length() / 1024.0;
+                double sizeKb = size.applyAsInt(html) / 1024.0;
 
                 history.setSuccess(true);
                 history.setDurationMs((int) duration);
                 history.setHtmlSizeKb(BigDecimal.valueOf(sizeKb));
 
-                historyRepository.save(history);
+                historyWriter.submit(history);
             }
 
             return html;
 
         } catch (Exception e) {
             // 记录失败历史
-            if (history != null && historyRepository != null) {
+            if (history != null) {
                 history.setErrorMessage(e.getMessage());
-                historyRepository.save(history);
+                historyWriter.submit(history);
             }
             throw e; // 重新抛出异常
         }
     }
 
     /**
-     * 渲染单个组件节点（供渲染器内部调用）
+     * 渲染单个组件节点为字符串（便于调试和测试）
      */
     public String render(SiteConfig.ComponentNode node) {
-        return renderComponentRecursively(node);
+        StringBuilder html = new StringBuilder();
+        try {
+            render(node, html);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return html.toString();
+    }
+
+    /**
+     * 获取组件树的渲染计划（按子树内容哈希缓存，未命中的子树才编译）
+     */
+    public RenderPlan planFor(SiteConfig.ComponentNode root) {
+        return planFor(root, new RenderReport());
     }
 
     /**
-     * 递归渲染节点：
-     * - 如果 rendererMap 中存在对应类型的渲染器，使用之；
-     * - 否则，如果类型为 container 或 page，则递归渲染子节点并使用容器 className（如果有）；
-     * - 其他未知类型，返回注释占位以便调试（不抛异常）。
+     * 获取组件树的渲染计划，复用/编译的节点数记录到 report
      */
-    public String renderComponentRecursively(SiteConfig.ComponentNode node) {
-        if (node == null) return "";
+    public RenderPlan planFor(SiteConfig.ComponentNode root, RenderReport report) {
+        return planFor(root, report, false);
+    }
 
+    /**
+     * 编辑器预览的渲染计划：带 data-node-id 锚点，按包含节点 id 的子树哈希缓存
+     */
+    public RenderPlan previewPlanFor(SiteConfig.ComponentNode root, RenderReport report) {
+        return planFor(root, report, true);
+    }
+
+    private RenderPlan planFor(SiteConfig.ComponentNode root, RenderReport report, boolean nodeAnchors) {
+        if (root == null) {
+            return compile(null);
+        }
+        Compilation compilation = new Compilation(ContentHasher.hashTree(root, nodeAnchors), report, nodeAnchors);
+        return compile(root, compilation);
+    }
+
+    /**
+     * 编译一个子树：先按内容哈希查缓存，命中则整棵子树直接复用
+     */
+    private RenderPlan compile(SiteConfig.ComponentNode node, Compilation compilation) {
+        String hash = compilation.hashes.get(node);
+        if (hash == null) {
+            // 渲染器自行构造的节点不在预先计算的哈希表中
+            hash = ContentHasher.hash(node, compilation.nodeAnchors);
+        }
+        RenderPlan plan = planCache.getIfPresent(hash);
+        if (plan != null) {
+            compilation.report.reused(plan.nodeCount());
+            return plan;
+        }
+
+        CompilingBuilder builder = new CompilingBuilder(compilation);
+        if (parallelism != null && parallelism.shouldFork(node)) {
+            builder.precompiled = compileChildrenInParallel(node.getChildren(), compilation);
+        }
+        try {
+            dispatch(node, builder);
+        } catch (IOException e) {
+            // RenderPlanBuilder 不会抛出 IOException
+            throw new UncheckedIOException(e);
+        }
+        plan = builder.build();
+        compilation.report.rendered();
+        planCache.put(hash, plan);
+        return plan;
+    }
+
+    /**
+     * 把组件树编译为渲染计划（不经过缓存）：渲染器写入 RenderPlanBuilder，子节点递归编译为子计划
+     */
+    public RenderPlan compile(SiteConfig.ComponentNode node) {
+        RenderPlanBuilder builder = new RenderPlanBuilder();
+        if (node == null) {
+            return builder.build();
+        }
+        try {
+            dispatch(node, builder);
+        } catch (IOException e) {
+            // RenderPlanBuilder 不会抛出 IOException
+            throw new UncheckedIOException(e);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 递归渲染节点到 out（供渲染器内部调用）。
+     * 编译期（out 为 RenderPlanBuilder）子节点被编译为独立的子计划，而不是内联展开。
+     */
+    public void render(SiteConfig.ComponentNode node, Appendable out) throws IOException {
+        if (node == null) return;
+
+        if (out instanceof CompilingBuilder builder) {
+            RenderPlan precompiled = builder.precompiled != null ? builder.precompiled.get(node) : null;
+            builder.child(precompiled != null ? precompiled : compile(node, builder.compilation));
+            return;
+        }
+        if (out instanceof RenderPlanBuilder builder) {
+            builder.child(compile(node));
+            return;
+        }
+        dispatch(node, out);
+    }
+
+    /**
+     * 按类型分发到渲染器（{@link RendererRegistry} 启动时已解析好类型）；
+     * 未知类型输出注释占位以便调试（不抛异常）。
+     */
+    private void dispatch(SiteConfig.ComponentNode node, Appendable out) throws IOException {
         String type = node.getType();
-        if (type != null) {
-            // 大小写容错：统一转小写查找
-            ComponentRenderer renderer = rendererMap.get(type.toLowerCase());
-            if (renderer != null) {
-                return renderer.render(node, this);
+        ComponentRenderer renderer = registry.resolve(type);
+        if (renderer != null) {
+            renderer.render(node, out, this);
+            return;
+        }
+
+        // 未知类型：输出注释（不抛异常）
+        out.append("<!-- Unknown component type: ");
+        HtmlEscaper.text(type, out);
+        out.append(" -->");
+    }
+
+    /**
+     * 在 ForkJoinPool 上并行编译各个子树（嵌套的宽容器在工作线程内继续拆分）。
+     * 结果按节点身份索引，随后由渲染器按原顺序拼接，输出与顺序编译一致。
+     */
+    private Map<SiteConfig.ComponentNode, RenderPlan> compileChildrenInParallel(
+            List<SiteConfig.ComponentNode> children, Compilation compilation) {
+        List<ForkJoinTask<RenderPlan>> tasks = new ArrayList<>(children.size());
+        for (SiteConfig.ComponentNode child : children) {
+            if (child != null) {
+                tasks.add(ForkJoinTask.adapt(() -> compile(child, compilation)));
             }
+        }
+        ForkJoinPool pool = parallelism.pool();
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        }
 
-            // 策略模式兜底：container/page 递归渲染
-            if ("container".equalsIgnoreCase(type) || "page".equalsIgnoreCase(type)) {
-                String className = "";
-                if (node.getProps() != null && node.getProps().get("className") != null) {
-                    className = String.valueOf(node.getProps().get("className"));
-                }
-                StringBuilder sb = new StringBuilder();
-                sb.append("<div");
-                if (!className.isBlank()) {
-                    sb.append(" class=\"").append(escapeAttr(className)).append("\"");
-                }
-                sb.append(">");
-                List<SiteConfig.ComponentNode> children = node.getChildren();
-                if (children != null) {
-                    for (SiteConfig.ComponentNode child : children) {
-                        sb.append(renderComponentRecursively(child));
-                    }
+        Map<SiteConfig.ComponentNode, RenderPlan> plans = new IdentityHashMap<>(tasks.size() * 2);
+        int i = 0;
+        for (SiteConfig.ComponentNode child : children) {
+            if (child != null) {
+                plans.put(child, tasks.get(i++).join());
+            }
+        }
+        return plans;
+    }
+
+    /**
+     * 字符串按 UTF-8 编码后的字节数（与 getBytes(UTF_8) 一致，不做实际编码），
+     * 使 String 与 byte[] 两条渲染路径记录的 html_size_kb 口径相同
+     */
+    static int utf8Length(String html) {
+        int length = html.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = html.charAt(i);
+            if (c >= 0x800) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(html.charAt(i + 1))) {
+                    bytes += 2; // 代理对：2 个 char 共 4 字节
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    bytes += 2;
                 }
-                sb.append("</div>");
-                return sb.toString();
+                // 孤立的代理字符编码为 '?'，1 字节
+            } else if (c >= 0x80) {
+                bytes += 1;
+            }
+        }
+        return bytes;
+    }
+
+    private static int countNodes(SiteConfig.ComponentNode node) {
+        if (node == null) return 0;
+        int count = 1;
+        if (node.getChildren() != null) {
+            for (SiteConfig.ComponentNode child : node.getChildren()) {
+                count += countNodes(child);
             }
         }
+        return count;
+    }
+
+    /**
+     * 整站缓存的 key；未启用缓存时返回 null
+     */
+    private String cacheKey(SiteConfig siteConfig) {
+        if (renderCache == null || !renderCache.isEnabled()) {
+            return null;
+        }
+        return ContentHasher.hash(siteConfig);
+    }
+
+    /**
+     * 把 themeConfig 注入 Tailwind 运行时配置（primaryColor -> colors.primary，fontFamily -> fontFamily.sans）
+     */
+    private static void writeThemeConfig(Object themeConfig, Appendable out) throws IOException {
+        String json;
+        try {
+            json = THEME_MAPPER.writeValueAsString(themeConfig);
+        } catch (JsonProcessingException e) {
+            return; // 主题配置无法序列化时忽略，不影响页面主体
+        }
+        // 防止配置内容提前闭合 <script> 标签
+        json = json.replace("</", "<\\/");
+
+        THEME_START.writeTo(out);
+        out.append(json);
+        THEME_END.writeTo(out);
+    }
+
+    /**
+     * 一次编译过程的上下文：整棵树的子树哈希（只计算一次，并行编译时只读）、复用统计，
+     * 以及是否输出预览锚点
+     */
+    private static final class Compilation {
+        private final Map<SiteConfig.ComponentNode, String> hashes;
+        private final RenderReport report;
+        private final boolean nodeAnchors;
 
-        // 未知类型：返回注释（不抛异常）
-        return "<!-- Unknown component type: " + escape(type) + " -->";
+        private Compilation(Map<SiteConfig.ComponentNode, String> hashes, RenderReport report, boolean nodeAnchors) {
+            this.hashes = hashes;
+            this.report = report;
+            this.nodeAnchors = nodeAnchors;
+        }
     }
 
-    private static String escape(String s) {
-        if (s == null) return "";
-        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    /**
+     * 携带编译上下文的 RenderPlanBuilder，子节点据此查找子树缓存
+     */
+    private static final class CompilingBuilder extends RenderPlanBuilder {
+        private final Compilation compilation;
+        private Map<SiteConfig.ComponentNode, RenderPlan> precompiled;
+
+        private CompilingBuilder(Compilation compilation) {
+            this.compilation = compilation;
+        }
+
+        @Override
+        public boolean nodeAnchors() {
+            return compilation.nodeAnchors;
+        }
     }
 
-    private static String escapeAttr(String s) {
-        return escape(s).replace("\"", "&quot;").replace("\n", "").replace("\r", "");
+    /**
+     * 页面骨架中的静态 HTML：同时保存字符串与预先编码的 UTF-8 字节，
+     * 写入 {@link Utf8Sink} 时直接拷贝字节
+     */
+    private static final class StaticHtml {
+        private final String text;
+        private final byte[] bytes;
+
+        private StaticHtml(String text) {
+            this.text = text;
+            this.bytes = text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        private void writeTo(Appendable out) throws IOException {
+            if (out instanceof Utf8Sink sink) {
+                sink.write(bytes);
+            } else {
+                out.append(text);
+            }
+        }
     }
 }
@@ -2,21 +2,23 @@ package com.siteup.engine.renderer.impl;
 
 import com.siteup.engine.model.SiteConfig;
 import com.siteup.engine.renderer.ComponentRenderer;
+import com.siteup.engine.renderer.HtmlEscaper;
 import com.siteup.engine.renderer.RenderingService;
 import org.springframework.stereotype.Component;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 
-@Component("button")
+@Component
 public class ButtonRenderer implements ComponentRenderer {
 
     @Override
-    public boolean supports(String type) {
-        return "button".equals(type);
+    public String type() {
+        return "button";
     }
 
     @Override
-    public String render(SiteConfig.ComponentNode node, RenderingService service) {
+    public void render(SiteConfig.ComponentNode node, Appendable out, RenderingService service) throws IOException {
         Map<String, Object> props = node.getProps();
         if (props == null) props = Collections.emptyMap();
 
@@ -35,6 +37,12 @@ public class ButtonRenderer implements ComponentRenderer {
         // 简单策略：直接拼接，让 CSS 的层叠特性去处理（或者完全信任 JSON）
         String finalClass = customClass.isEmpty() ? defaultClass : customClass;
 
-        return String.format("<a href=\"%s\" class=\"%s\">%s</a>", link, finalClass, text);
+        out.append("<a");
+        ComponentRenderer.nodeId(node, out);
+        HtmlEscaper.attribute("href", link, out);
+        HtmlEscaper.attribute("class", finalClass, out);
+        out.append(">");
+        HtmlEscaper.text(text, out);
+        out.append("</a>");
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.siteup.engine.renderer.impl;
+
+import com.siteup.engine.model.SiteConfig;
+import com.siteup.engine.renderer.ComponentRenderer;
+import com.siteup.engine.renderer.HtmlEscaper;
+import com.siteup.engine.renderer.RenderingService;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class ContainerRenderer implements ComponentRenderer {
+
+    private static final Set<String> ALLOWED_TAGS = Set.of("div", "header", "main", "section", "article", "footer", "nav", "aside");
+
+    @Override
+    public String type() {
+        return "container";
+    }
+
+    @Override
+    public void render(SiteConfig.ComponentNode node, Appendable out, RenderingService service) throws IOException {
+        // Extract properties
+        Map<String, Object> props = node.getProps();
+        if (props == null) {
+            props = Collections.emptyMap();
+        }
+        Object tagName = props.get("tagName");
+        // Validate tag for security - only allow known safe tags
+        String tag = tagName instanceof String && ALLOWED_TAGS.contains(tagName) ? (String) tagName : "div";
+        Object className = props.get("className");
+
+        // Build opening tag
+        out.append("<").append(tag);
+        ComponentRenderer.nodeId(node, out);
+        if (className != null && !String.valueOf(className).isBlank()) {
+            HtmlEscaper.attribute("class", String.valueOf(className), out);
+        }
+        out.append(">");
+
+        // Render children recursively
+        List<SiteConfig.ComponentNode> children = node.getChildren();
+        if (children != null) {
+            for (SiteConfig.ComponentNode child : children) {
+                service.render(child, out);
+            }
+        }
+
+        // Build closing tag
+        out.append("</").append(tag).append(">");
+    }
+}
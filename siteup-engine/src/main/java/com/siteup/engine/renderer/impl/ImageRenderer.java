@@ -2,22 +2,23 @@ package com.siteup.engine.renderer.impl; // 👈 修改包名
 
 import com.siteup.engine.model.SiteConfig;
 import com.siteup.engine.renderer.ComponentRenderer;
+import com.siteup.engine.renderer.HtmlEscaper;
 import com.siteup.engine.renderer.RenderingService;
 import org.springframework.stereotype.Component;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 
-@Component("image")
+@Component
 public class ImageRenderer implements ComponentRenderer {
 
     @Override
-    public boolean supports(String type) {
-        return "image".equals(type);
+    public String type() {
+        return "image";
     }
 
     @Override
-    public String render(SiteConfig.ComponentNode node, RenderingService service) {
-        StringBuilder html = new StringBuilder();
+    public void render(SiteConfig.ComponentNode node, Appendable out, RenderingService service) throws IOException {
         Map<String, Object> props = node.getProps();
         if (props == null) props = Collections.emptyMap();
 
@@ -25,17 +26,17 @@ public class ImageRenderer implements ComponentRenderer {
         String alt = (String) props.getOrDefault("alt", "");
         String cssClass = (String) props.getOrDefault("className", "");
 
-        html.append("<img");
-        if (src != null) html.append(" src=\"").append(src).append("\"");
-        if (!alt.isEmpty()) html.append(" alt=\"").append(alt).append("\"");
+        out.append("<img");
+        ComponentRenderer.nodeId(node, out);
+        if (src != null) HtmlEscaper.attribute("src", src, out);
+        if (!alt.isEmpty()) HtmlEscaper.attribute("alt", alt, out);
 
         // 默认加上 lazy load 和 decoding async，性能优化
-        html.append(" loading=\"lazy\" decoding=\"async\"");
+        out.append(" loading=\"lazy\" decoding=\"async\"");
 
         if (!cssClass.isEmpty()) {
-            html.append(" class=\"").append(cssClass).append("\"");
+            HtmlEscaper.attribute("class", cssClass, out);
         }
-        html.append(" />");
-        return html.toString();
+        out.append(" />");
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.siteup.engine.renderer.impl;
+
+import com.siteup.engine.model.SiteConfig;
+import com.siteup.engine.renderer.ComponentRenderer;
+import com.siteup.engine.renderer.HtmlEscaper;
+import com.siteup.engine.renderer.RenderingService;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class PageRenderer implements ComponentRenderer {
+
+    @Override
+    public String type() {
+        return "page";
+    }
+
+    @Override
+    public void render(SiteConfig.ComponentNode node, Appendable out, RenderingService service) throws IOException {
+        // Extract properties
+        Map<String, Object> props = node.getProps();
+        Object className = props != null ? props.get("className") : null;
+
+        // Build opening tag
+        out.append("<div");
+        ComponentRenderer.nodeId(node, out);
+        if (className != null && !String.valueOf(className).isBlank()) {
+            HtmlEscaper.attribute("class", String.valueOf(className), out);
+        }
+        out.append(">");
+
+        // Render children
+        List<SiteConfig.ComponentNode> children = node.getChildren();
+        if (children != null) {
+            for (SiteConfig.ComponentNode child : children) {
+                service.render(child, out);
+            }
+        }
+
+        // Build closing tag
+        out.append("</div>");
+    }
+}
@@ -2,23 +2,24 @@ package com.siteup.engine.renderer.impl; // 👈 修改包名
 
 import com.siteup.engine.model.SiteConfig;
 import com.siteup.engine.renderer.ComponentRenderer;
+import com.siteup.engine.renderer.HtmlEscaper;
 import com.siteup.engine.renderer.RenderingService;
 import org.springframework.stereotype.Component;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 
-@Component("text") // 👈 确保这个注解存在
+@Component
 public class TextRenderer implements ComponentRenderer {
 
     @Override
-    public boolean supports(String type) {
-        return "text".equals(type);
+    public String type() {
+        return "text";
     }
 
     @Override
-    public String render(SiteConfig.ComponentNode node, RenderingService service) {
+    public void render(SiteConfig.ComponentNode node, Appendable out, RenderingService service) throws IOException {
         // ... 保持原有逻辑不变，或者复制下面的完整代码 ...
-        StringBuilder html = new StringBuilder();
         Map<String, Object> props = node.getProps();
         if (props == null) props = Collections.emptyMap();
 
@@ -37,15 +38,13 @@ public class TextRenderer implements ComponentRenderer {
             tag = "p";
         }
 
-        html.append("<").append(tag);
+        out.append("<").append(tag);
+        ComponentRenderer.nodeId(node, out);
         if (!cssClass.isEmpty()) {
-            html.append(" class=\"").append(cssClass).append("\"");
+            HtmlEscaper.attribute("class", cssClass, out);
         }
-        html.append(">");
-        if (text != null) {
-            html.append(text.replace("\n", "<br/>"));
-        }
-        html.append("</").append(tag).append(">");
-        return html.toString();
+        out.append(">");
+        HtmlEscaper.multilineText(text, out);
+        out.append("</").append(tag).append(">");
     }
 }
\ No newline at end of file
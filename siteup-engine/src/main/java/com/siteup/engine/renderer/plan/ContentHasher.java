@@ -0,0 +1,226 @@
+package com.siteup.engine.renderer.plan;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.siteup.engine.model.SiteConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 组件树的内容哈希（SHA-256，Merkle 方式）
+ *
+ * hash(node) = SHA-256(type, 规范化 props, hash(child1), hash(child2), ...)
+ *
+ * - props 按 key 排序后序列化，保证语义相同的配置得到相同哈希；
+ * - 节点 id 不影响正式渲染的输出，默认不参与哈希，id 不同但内容相同的子树共用同一个渲染计划；
+ * - 编辑器预览的输出带有 data-node-id 锚点，使用 withIds 变体：有 id 的节点以区分前缀加 id 开头，
+ *   与正式渲染的哈希不会相同；整棵子树都没有 id 时输出与正式渲染一致，哈希也相同，两者共用渲染计划。
+ */
+public final class ContentHasher {
+
+    private static final ObjectMapper CANONICAL_MAPPER = JsonMapper.builder()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private ContentHasher() {
+    }
+
+    /**
+     * 计算整站配置的规范化哈希：title + themeConfig + root 子树哈希
+     */
+    public static String hash(SiteConfig siteConfig) {
+        MessageDigest md = newDigest();
+        if (siteConfig != null) {
+            updateHead(md, siteConfig);
+            md.update(digest(siteConfig.getRoot()));
+        }
+        return HEX.formatHex(md.digest());
+    }
+
+    /**
+     * 只计算页面头部（title + themeConfig）的哈希，不包含组件树
+     */
+    public static String hashHead(SiteConfig siteConfig) {
+        MessageDigest md = newDigest();
+        if (siteConfig != null) {
+            updateHead(md, siteConfig);
+        }
+        return HEX.formatHex(md.digest());
+    }
+
+    /**
+     * 节点"形状"哈希：type + props + 子节点引用（有 id 的子节点只记 id，没有 id 的记子树哈希）。
+     * 形状不变而子树哈希变化，说明变化全部发生在有 id 的子节点内部。
+     *
+     * @param hashes {@link #hashTree} 的结果
+     */
+    public static String shapeHash(SiteConfig.ComponentNode node, Map<SiteConfig.ComponentNode, String> hashes) {
+        MessageDigest md = newDigest();
+        updateString(md, node.getType());
+        if (node.getProps() != null && !node.getProps().isEmpty()) {
+            md.update((byte) 1);
+            updateJson(md, node.getProps());
+        } else {
+            md.update((byte) 0);
+        }
+        if (node.getChildren() != null) {
+            for (SiteConfig.ComponentNode child : node.getChildren()) {
+                if (child != null && child.getId() != null) {
+                    md.update((byte) 'i');
+                    updateString(md, child.getId());
+                } else {
+                    md.update((byte) 'h');
+                    updateString(md, child != null ? hashes.get(child) : null);
+                }
+            }
+        }
+        return HEX.formatHex(md.digest());
+    }
+
+    private static void updateHead(MessageDigest md, SiteConfig siteConfig) {
+        updateString(md, siteConfig.getTitle());
+        if (siteConfig.getThemeConfig() != null) {
+            md.update((byte) 1);
+            updateJson(md, siteConfig.getThemeConfig());
+        } else {
+            md.update((byte) 0);
+        }
+    }
+
+    /**
+     * 计算组件子树的内容哈希（十六进制字符串）
+     */
+    public static String hash(SiteConfig.ComponentNode node) {
+        return hash(node, false);
+    }
+
+    /**
+     * @param withIds 节点 id 是否参与哈希（编辑器预览的带锚点渲染）
+     */
+    public static String hash(SiteConfig.ComponentNode node, boolean withIds) {
+        return HEX.formatHex(digest(node, null, withIds));
+    }
+
+    /**
+     * 一次遍历计算整棵树中每个子树的哈希（自底向上，每个节点只哈希一次）
+     *
+     * @return 节点 -> 十六进制哈希（按对象身份索引，同一节点对象出现多次也只计算一次）
+     */
+    public static Map<SiteConfig.ComponentNode, String> hashTree(SiteConfig.ComponentNode root) {
+        return hashTree(root, false);
+    }
+
+    /**
+     * @param withIds 节点 id 是否参与哈希（编辑器预览的带锚点渲染）
+     */
+    public static Map<SiteConfig.ComponentNode, String> hashTree(SiteConfig.ComponentNode root, boolean withIds) {
+        Map<SiteConfig.ComponentNode, String> hashes = new IdentityHashMap<>();
+        if (root != null) {
+            digest(root, hashes, withIds);
+        }
+        return hashes;
+    }
+
+    static byte[] digest(SiteConfig.ComponentNode node) {
+        return digest(node, null, false);
+    }
+
+    private static byte[] digest(SiteConfig.ComponentNode node, Map<SiteConfig.ComponentNode, String> hashes,
+                                 boolean withIds) {
+        MessageDigest md = newDigest();
+        if (node == null) {
+            return md.digest();
+        }
+        if (hashes != null && hashes.containsKey(node)) {
+            return HEX.parseHex(hashes.get(node));
+        }
+        if (withIds && node.getId() != null) {
+            md.update((byte) 'a');
+            updateString(md, node.getId());
+        }
+        updateString(md, node.getType());
+        if (node.getProps() != null && !node.getProps().isEmpty()) {
+            md.update((byte) 1);
+            updateJson(md, node.getProps());
+        } else {
+            md.update((byte) 0);
+        }
+        List<SiteConfig.ComponentNode> children = node.getChildren();
+        if (children != null) {
+            for (SiteConfig.ComponentNode child : children) {
+                md.update(digest(child, hashes, withIds));
+            }
+        }
+        byte[] result = md.digest();
+        if (hashes != null) {
+            hashes.put(node, HEX.formatHex(result));
+        }
+        return result;
+    }
+
+    static void updateString(MessageDigest md, String value) {
+        if (value == null) {
+            md.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        md.update((byte) 1);
+        md.update(intBytes(bytes.length));
+        md.update(bytes);
+    }
+
+    static void updateJson(MessageDigest md, Object value) {
+        try {
+            CANONICAL_MAPPER.writeValue(new DigestOutput(md), value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] intBytes(int value) {
+        return new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    /**
+     * 直接写入 MessageDigest，避免先序列化成字符串
+     */
+    private static final class DigestOutput extends OutputStream {
+        private final MessageDigest md;
+
+        DigestOutput(MessageDigest md) {
+            this.md = md;
+        }
+
+        @Override
+        public void write(int b) {
+            md.update((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            md.update(b, off, len);
+        }
+    }
+}
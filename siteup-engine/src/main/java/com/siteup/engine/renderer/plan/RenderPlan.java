@@ -0,0 +1,130 @@
+package com.siteup.engine.renderer.plan;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 编译后的渲染计划（不可变）
+ *
+ * 一个节点被编译为 "静态片段 + 子计划" 交替的结构：
+ * fragments[0], children[0], fragments[1], children[1], ..., fragments[n]
+ *
+ * 片段在编译期已完成所有 props 读取、标签选择与转义，并预先编码为 UTF-8 字节，
+ * 执行计划时写入 {@link Utf8Sink} 只是字节拷贝，不再查找渲染器、不再读取 props、不再转码。
+ * 计划可以被多个项目/请求安全地共享。
+ */
+public final class RenderPlan {
+
+    private final byte[][] fragments;
+    private final RenderPlan[] children;
+    private final long length;
+    private final long ownLength;
+    private final long retainedFootprint;
+    private final int nodeCount;
+
+    RenderPlan(byte[][] fragments, RenderPlan[] children) {
+        this.fragments = fragments;
+        this.children = children;
+        long own = 0;
+        for (byte[] fragment : fragments) {
+            own += fragment.length;
+        }
+        this.ownLength = own;
+        long total = own;
+        long retained = footprint();
+        int nodes = 1;
+        for (RenderPlan child : children) {
+            total += child.length;
+            retained = saturatedAdd(retained, child.retainedFootprint);
+            nodes += child.nodeCount;
+        }
+        this.length = total;
+        this.retainedFootprint = retained;
+        this.nodeCount = nodes;
+    }
+
+    /**
+     * 执行计划：把 UTF-8 字节写入 sink
+     */
+    public void writeTo(Utf8Sink out) throws IOException {
+        out.write(fragments[0]);
+        for (int i = 0; i < children.length; i++) {
+            children[i].writeTo(out);
+            out.write(fragments[i + 1]);
+        }
+    }
+
+    /**
+     * 执行计划：写入字符 sink（需要逐个片段解码，字节输出请使用 {@link #writeTo(Utf8Sink)}）
+     */
+    public void writeTo(Appendable out) throws IOException {
+        if (out instanceof Utf8Sink sink) {
+            writeTo(sink);
+            return;
+        }
+        out.append(new String(fragments[0], StandardCharsets.UTF_8));
+        for (int i = 0; i < children.length; i++) {
+            children[i].writeTo(out);
+            out.append(new String(fragments[i + 1], StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 渲染结果的 UTF-8 字节数（用于预分配缓冲区与缓存容量统计）
+     */
+    public long length() {
+        return length;
+    }
+
+    public int childCount() {
+        return children.length;
+    }
+
+    /**
+     * 计划覆盖的组件节点数（自身 + 所有后代）
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 计划自身占用的内存估算（字节）：只计本节点的片段与引用
+     */
+    public long footprint() {
+        return ownLength + fragments.length * 16L + children.length * 8L + 64;
+    }
+
+    /**
+     * 计划保持可达的全部内存估算（字节）：自身加上所有后代计划。
+     * 父计划直接引用子计划，缓存淘汰子计划条目并不会释放它，缓存容量因此按这个值计算；
+     * 被多处引用的子计划会重复计入，估算只会偏大。
+     */
+    public long retainedFootprint() {
+        return retainedFootprint;
+    }
+
+    /**
+     * 渲染为 UTF-8 字节
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(length, Integer.MAX_VALUE - 8));
+        try (Utf8Sink sink = Utf8Sink.to(bytes)) {
+            writeTo(sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    @Override
+    public String toString() {
+        return new String(toBytes(), StandardCharsets.UTF_8);
+    }
+}
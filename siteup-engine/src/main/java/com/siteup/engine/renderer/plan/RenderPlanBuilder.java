@@ -0,0 +1,79 @@
+package com.siteup.engine.renderer.plan;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译期使用的 sink：渲染器照常 append 静态 HTML，
+ * RenderingService 遇到子节点时调用 {@link #child(RenderPlan)} 插入子计划。
+ *
+ * 这样所有现有渲染器无需修改即可被"编译"。
+ * RenderingService 可以继承它以携带编译期上下文（子树哈希、渲染报告）。
+ *
+ * 片段在这里编码为 UTF-8 字节；最常见的短片段（换行、闭合标签等）共享同一个字节数组。
+ */
+public class RenderPlanBuilder implements Appendable {
+
+    private static final Map<String, byte[]> COMMON_FRAGMENTS = Map.of(
+            "", new byte[0],
+            "\n", bytes("\n"),
+            ">\n", bytes(">\n"),
+            "</div>", bytes("</div>"),
+            "</div>\n", bytes("</div>\n"));
+
+    private final List<byte[]> fragments = new ArrayList<>();
+    private final List<RenderPlan> children = new ArrayList<>();
+    private final StringBuilder current = new StringBuilder();
+
+    @Override
+    public RenderPlanBuilder append(CharSequence csq) {
+        current.append(csq);
+        return this;
+    }
+
+    @Override
+    public RenderPlanBuilder append(CharSequence csq, int start, int end) {
+        current.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public RenderPlanBuilder append(char c) {
+        current.append(c);
+        return this;
+    }
+
+    /**
+     * 渲染器是否在开始标签中输出 data-node-id 锚点（{@link com.siteup.engine.renderer.ComponentRenderer#nodeId}），
+     * 只有编辑器预览的编译为 true
+     */
+    public boolean nodeAnchors() {
+        return false;
+    }
+
+    /**
+     * 在当前位置插入一个已编译的子计划
+     */
+    public void child(RenderPlan plan) {
+        closeFragment();
+        children.add(plan);
+    }
+
+    public RenderPlan build() {
+        closeFragment();
+        return new RenderPlan(fragments.toArray(new byte[0][]), children.toArray(new RenderPlan[0]));
+    }
+
+    private void closeFragment() {
+        String fragment = current.toString();
+        byte[] common = COMMON_FRAGMENTS.get(fragment);
+        fragments.add(common != null ? common : bytes(fragment));
+        current.setLength(0);
+    }
+
+    private static byte[] bytes(String fragment) {
+        return fragment.getBytes(StandardCharsets.UTF_8);
+    }
+}
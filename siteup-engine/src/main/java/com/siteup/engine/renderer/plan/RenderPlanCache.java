@@ -0,0 +1,49 @@
+package com.siteup.engine.renderer.plan;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 渲染计划缓存：按子树内容哈希缓存编译结果（整棵树与其中每个子树各占一条）。
+ *
+ * 大量项目共享少数模板配置，页眉/页脚/卡片等子树也在页面和项目之间反复出现，
+ * 相同子树只编译一次；编辑一个节点后只有它和它的祖先需要重新编译。
+ * 容量按字节估算限制，而不是按条目数：每个条目按它保持可达的整棵子计划计算
+ * （{@link RenderPlan#retainedFootprint()}），缓存实际持有的内存不会超过 max-bytes。
+ *
+ * 编译是递归的，因此这里只提供 getIfPresent/put，而不是 Caffeine 的 get(key, fn)
+ * （后者不允许在计算函数中再次访问同一个缓存）。
+ */
+@Component
+public class RenderPlanCache {
+
+    private final Cache<String, RenderPlan> plans;
+
+    public RenderPlanCache(@Value("${siteup.engine.render-plan.max-bytes:33554432}") long maxBytes) {
+        this.plans = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String hash, RenderPlan plan) -> (int) Math.min(plan.retainedFootprint(), Integer.MAX_VALUE))
+                .build();
+    }
+
+    /**
+     * @return 内容哈希对应的计划，未缓存时返回 null
+     */
+    public RenderPlan getIfPresent(String contentHash) {
+        return plans.getIfPresent(contentHash);
+    }
+
+    public void put(String contentHash, RenderPlan plan) {
+        plans.put(contentHash, plan);
+    }
+
+    public long size() {
+        return plans.estimatedSize();
+    }
+
+    public void clear() {
+        plans.invalidateAll();
+    }
+}
@@ -0,0 +1,50 @@
+package com.siteup.engine.renderer.plan;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单次渲染的统计：多少节点复用了已缓存的子树，多少节点实际调用了渲染器
+ *
+ * - nodesReused：命中子树缓存（或整页缓存）而跳过渲染的节点数（含被复用子树中的所有后代）
+ * - nodesRendered：本次实际调用渲染器编译的节点数
+ * - pageCacheHit：整页 HTML 是否直接来自渲染缓存
+ *
+ * 并行编译时多个线程同时计数，因此计数器是原子的。
+ */
+public class RenderReport {
+
+    private final AtomicInteger nodesReused = new AtomicInteger();
+    private final AtomicInteger nodesRendered = new AtomicInteger();
+    private volatile boolean pageCacheHit;
+
+    public void reused(int nodes) {
+        nodesReused.addAndGet(nodes);
+    }
+
+    public void rendered() {
+        nodesRendered.incrementAndGet();
+    }
+
+    public void pageCacheHit(int nodes) {
+        pageCacheHit = true;
+        nodesReused.addAndGet(nodes);
+    }
+
+    public int getNodesReused() {
+        return nodesReused.get();
+    }
+
+    public int getNodesRendered() {
+        return nodesRendered.get();
+    }
+
+    public boolean isPageCacheHit() {
+        return pageCacheHit;
+    }
+
+    @Override
+    public String toString() {
+        return "RenderReport{nodesReused=" + nodesReused.get() + ", nodesRendered=" + nodesRendered.get()
+                + ", pageCacheHit=" + pageCacheHit + "}";
+    }
+}
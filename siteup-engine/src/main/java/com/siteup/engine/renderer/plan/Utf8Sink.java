@@ -0,0 +1,167 @@
+package com.siteup.engine.renderer.plan;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 直接输出 UTF-8 字节的渲染 sink
+ *
+ * - 渲染计划中预先编码好的字节片段原样拷贝（{@link #write(byte[])}），不再经过 UTF-16 -> UTF-8 转码；
+ * - 渲染器/转义器追加的字符在这里一次性编码为 UTF-8；
+ * - 缓冲区满时写入下游流，缓冲区来自一个有界的共享池，用完通过 {@link #close()} 归还。
+ *
+ * 非线程安全，一次渲染使用一个实例。close 只归还缓冲区，不关闭下游流。
+ */
+public final class Utf8Sink implements Appendable, AutoCloseable {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final BlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(64);
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int position;
+    private char pendingHighSurrogate;
+
+    private Utf8Sink(OutputStream out) {
+        this.out = out;
+        byte[] pooled = POOL.poll();
+        this.buffer = pooled != null ? pooled : new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * 创建写入 out 的 sink（缓冲区取自共享池）
+     */
+    public static Utf8Sink to(OutputStream out) {
+        return new Utf8Sink(out);
+    }
+
+    /**
+     * 写入已编码的 UTF-8 字节
+     */
+    public void write(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - position) {
+            flushBuffer();
+            if (length >= buffer.length) {
+                out.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    @Override
+    public Utf8Sink append(CharSequence csq) throws IOException {
+        CharSequence value = csq != null ? csq : "null";
+        return append(value, 0, value.length());
+    }
+
+    @Override
+    public Utf8Sink append(CharSequence csq, int start, int end) throws IOException {
+        CharSequence value = csq != null ? csq : "null";
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80 && pendingHighSurrogate == 0) {
+                if (position == buffer.length) {
+                    flushBuffer();
+                }
+                buffer[position++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public Utf8Sink append(char c) throws IOException {
+        encode(c);
+        return this;
+    }
+
+    /**
+     * 把缓冲区内容写入下游流（不 flush 下游流本身）
+     */
+    public void flush() throws IOException {
+        if (pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            put((byte) '?');
+        }
+        flushBuffer();
+    }
+
+    /**
+     * 写出剩余内容并归还缓冲区
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            byte[] released = buffer;
+            buffer = null;
+            POOL.offer(released);
+        }
+    }
+
+    private void encode(char c) throws IOException {
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                ensure(4);
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            // 孤立的高代理项：与 String.getBytes(UTF_8) 一致，替换为 '?'
+            put((byte) '?');
+        }
+        if (c < 0x80) {
+            put((byte) c);
+        } else if (c < 0x800) {
+            ensure(2);
+            buffer[position++] = (byte) (0xC0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            put((byte) '?');
+        } else {
+            ensure(3);
+            buffer[position++] = (byte) (0xE0 | (c >> 12));
+            buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void put(byte b) throws IOException {
+        ensure(1);
+        buffer[position++] = b;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.length - position < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -1,57 +1,70 @@
 package com.siteup.engine.repository;
 
 import com.siteup.engine.model.GenerationHistory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * 生成历史记录数据访问层
+ *
+ * 列表查询统一按 (generatedAt, id) 倒序做游标分页：条件 "(generatedAt, id) < 游标" 配合
+ * 复合索引 (project_id, generated_at) / (user_id, generated_at) / (generated_at)，每页只扫描 limit 行。
  */
 @Repository
 public interface GenerationHistoryRepository extends JpaRepository<GenerationHistory, Long> {
 
     /**
-     * 根据项目ID查询生成历史
+     * 根据项目ID分页查询生成历史（游标之后的一页）
      */
-    List<GenerationHistory> findByProjectIdOrderByGeneratedAtDesc(Long projectId);
+    @Query("SELECT g FROM GenerationHistory g WHERE g.projectId = :projectId"
+            + " AND (g.generatedAt < :generatedAt OR (g.generatedAt = :generatedAt AND g.id < :id))"
+            + " ORDER BY g.generatedAt DESC, g.id DESC")
+    List<GenerationHistory> findPageByProjectId(@Param("projectId") Long projectId,
+                                                @Param("generatedAt") LocalDateTime generatedAt,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
 
     /**
-     * 根据用户ID查询生成历史
+     * 根据用户ID分页查询生成历史（游标之后的一页）
      */
-    List<GenerationHistory> findByUserIdOrderByGeneratedAtDesc(String userId);
+    @Query("SELECT g FROM GenerationHistory g WHERE g.userId = :userId"
+            + " AND (g.generatedAt < :generatedAt OR (g.generatedAt = :generatedAt AND g.id < :id))"
+            + " ORDER BY g.generatedAt DESC, g.id DESC")
+    List<GenerationHistory> findPageByUserId(@Param("userId") String userId,
+                                             @Param("generatedAt") LocalDateTime generatedAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
 
     /**
-     * 查询指定时间范围内的生成记录
+     * 分页查询最近的生成记录（游标之后的一页）
      */
-    List<GenerationHistory> findByGeneratedAtBetweenOrderByGeneratedAtDesc(
-        LocalDateTime startTime, LocalDateTime endTime);
-
-    /**
-     * 统计成功率
-     */
-    @Query("SELECT COUNT(g) FROM GenerationHistory g WHERE g.success = true")
-    Long countSuccessfulGenerations();
-
-    @Query("SELECT COUNT(g) FROM GenerationHistory g WHERE g.success = false")
-    Long countFailedGenerations();
+    @Query("SELECT g FROM GenerationHistory g"
+            + " WHERE g.generatedAt < :generatedAt OR (g.generatedAt = :generatedAt AND g.id < :id)"
+            + " ORDER BY g.generatedAt DESC, g.id DESC")
+    List<GenerationHistory> findPage(@Param("generatedAt") LocalDateTime generatedAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
 
     /**
-     * 计算平均生成时间
+     * 流式读取指定时间范围内的生成记录（用于导出，调用方需在只读事务内消费并关闭 Stream）
+     * MySQL 驱动在 fetchSize = Integer.MIN_VALUE 时逐行读取，不会把结果集整体加载到内存
      */
-    @Query("SELECT AVG(g.durationMs) FROM GenerationHistory g WHERE g.success = true")
-    Double getAverageGenerationTime();
-
-    /**
-     * 获取最近N次的生成记录
-     */
-    @Query("SELECT g FROM GenerationHistory g ORDER BY g.generatedAt DESC")
-    List<GenerationHistory> findRecentGenerations(
-        org.springframework.data.domain.Pageable pageable);
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<GenerationHistory> findByGeneratedAtBetweenOrderByGeneratedAtAscIdAsc(
+        LocalDateTime startTime, LocalDateTime endTime);
 
     /**
      * 根据项目ID统计生成次数
@@ -0,0 +1,28 @@
+package com.siteup.engine.repository;
+
+import com.siteup.engine.model.GenerationStatsRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 生成统计汇总数据访问层
+ */
+@Repository
+public interface GenerationStatsRollupRepository extends JpaRepository<GenerationStatsRollup, Long> {
+
+    /**
+     * 按唯一键查找一个汇总桶
+     */
+    Optional<GenerationStatsRollup> findByScopeAndScopeKeyAndGranularityAndBucketStart(
+        String scope, String scopeKey, String granularity, LocalDateTime bucketStart);
+
+    /**
+     * 查询时间范围内的汇总桶（按时间升序）
+     */
+    List<GenerationStatsRollup> findByScopeAndScopeKeyAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+        String scope, String scopeKey, String granularity, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,359 @@
+package com.siteup.engine.stats;
+
+import com.siteup.engine.model.GenerationHistory;
+import com.siteup.engine.model.GenerationStatsRollup;
+import com.siteup.engine.repository.GenerationStatsRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 生成统计预聚合
+ *
+ * 每条写入数据库的生成历史同时累加到 4 个维度（全局/项目/模板/用户）× 4 个粒度（分钟/小时/天/累计）的汇总桶中。
+ * 增量先在内存中累加，定时合并进 generation_stats_rollup 表；读取时汇总行 + 未合并的增量即为最新值，
+ * 统计接口只读取固定数量的汇总行，与历史表大小无关。
+ *
+ * 多个引擎实例会合并同一个桶：每个桶在一个短事务中先确保行存在，再 SELECT ... FOR UPDATE 加行锁，
+ * 合并计数和直方图后写回，实例之间不会互相覆盖。
+ *
+ * 汇总表为空时（首次部署），启动后从 generation_history 流式回填一次，多实例只回填一次且不与实时累加重复：
+ * - 回填前先取 MAX(id) 作为上界，用 INSERT IGNORE 写入标记行（scope = BACKFILL，success_count 存上界），
+ *   写入成功的实例执行回填，只扫描 id <= 上界的记录；
+ * - 所有实例读取标记行中的上界，实时累加跳过 id <= 上界的记录（这些记录由回填计入）；
+ *   上界确定之前写入的记录先暂存在内存中，确定后再按上界过滤累加。
+ */
+@Component
+public class GenerationStatsAggregator {
+
+    /**
+     * 统计维度
+     */
+    public enum Scope {
+        GLOBAL, PROJECT, TEMPLATE, USER
+    }
+
+    /**
+     * 时间粒度；TOTAL 为累计值，只有一个桶
+     */
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES, 24 * 60),
+        HOUR(ChronoUnit.HOURS, 31 * 24),
+        DAY(ChronoUnit.DAYS, 366),
+        TOTAL(null, 1);
+
+        private final ChronoUnit unit;
+        private final int maxBuckets;
+
+        Granularity(ChronoUnit unit, int maxBuckets) {
+            this.unit = unit;
+            this.maxBuckets = maxBuckets;
+        }
+
+        LocalDateTime bucketOf(LocalDateTime time) {
+            return unit != null ? time.truncatedTo(unit) : TOTAL_BUCKET;
+        }
+    }
+
+    static final LocalDateTime TOTAL_BUCKET = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    static final String BACKFILL_SQL = "SELECT project_id, template_id, user_id, generated_at, "
+            + "duration_ms, success, html_size_kb FROM generation_history WHERE id <= ?";
+
+    static final String MAX_HISTORY_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM generation_history";
+
+    /** 回填标记行：唯一键保证只有一个实例写入成功；汇总表非空（已在实时累加）时上界为 0，不回填 */
+    static final String CLAIM_BACKFILL_SQL = "INSERT IGNORE INTO generation_stats_rollup (scope, scope_key, "
+            + "granularity, bucket_start, success_count, failure_count, duration_sum_ms, size_sum_bytes, updated_at) "
+            + "VALUES ('BACKFILL', '', 'TOTAL', ?, ?, 0, 0, 0, ?)";
+
+    static final String BACKFILL_BOUND_SQL = "SELECT success_count FROM generation_stats_rollup "
+            + "WHERE scope = 'BACKFILL' AND scope_key = '' AND granularity = 'TOTAL' AND bucket_start = ?";
+
+    private static final int BACKFILL_FLUSH_EVERY = 10_000;
+
+    static final String ENSURE_ROW_SQL = "INSERT INTO generation_stats_rollup (scope, scope_key, granularity, "
+            + "bucket_start, success_count, failure_count, duration_sum_ms, size_sum_bytes, updated_at) "
+            + "VALUES (?, ?, ?, ?, 0, 0, 0, 0, ?) ON DUPLICATE KEY UPDATE id = id";
+
+    static final String LOCK_ROW_SQL = "SELECT id, success_count, failure_count, duration_sum_ms, size_sum_bytes, "
+            + "duration_histogram, size_histogram FROM generation_stats_rollup "
+            + "WHERE scope = ? AND scope_key = ? AND granularity = ? AND bucket_start = ? FOR UPDATE";
+
+    static final String UPDATE_ROW_SQL = "UPDATE generation_stats_rollup SET success_count = ?, failure_count = ?, "
+            + "duration_sum_ms = ?, size_sum_bytes = ?, duration_histogram = ?, size_histogram = ?, updated_at = ? "
+            + "WHERE id = ?";
+
+    private static final RowMapper<GenerationStatsRollup> LOCKED_ROW_MAPPER = (rs, rowNum) -> {
+        GenerationStatsRollup row = new GenerationStatsRollup();
+        row.setId(rs.getLong("id"));
+        row.setSuccessCount(rs.getLong("success_count"));
+        row.setFailureCount(rs.getLong("failure_count"));
+        row.setDurationSumMs(rs.getLong("duration_sum_ms"));
+        row.setSizeSumBytes(rs.getLong("size_sum_bytes"));
+        row.setDurationHistogram(rs.getString("duration_histogram"));
+        row.setSizeHistogram(rs.getString("size_histogram"));
+        return row;
+    };
+
+    private final GenerationStatsRollupRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean backfill;
+    private final Map<RollupKey, StatsBucket> pending = new ConcurrentHashMap<>();
+    private final List<GenerationHistory> awaitingBound = new ArrayList<>();
+    private volatile long backfillBound = -1; // -1 表示上界尚未确定
+
+    public GenerationStatsAggregator(GenerationStatsRollupRepository repository, JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${siteup.engine.stats.backfill:true}") boolean backfill) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.backfill = backfill;
+        if (!backfill) {
+            backfillBound = 0;
+        }
+    }
+
+    /**
+     * 累加一条已写入数据库的生成历史；id 不超过回填上界的记录已由回填计入，跳过
+     */
+    public void record(GenerationHistory history) {
+        if (backfillBound < 0) {
+            synchronized (awaitingBound) {
+                if (backfillBound < 0) {
+                    awaitingBound.add(history);
+                    return;
+                }
+            }
+        }
+        if (history.getId() != null && history.getId() <= backfillBound) {
+            return;
+        }
+        accumulate(history);
+    }
+
+    private void accumulate(GenerationHistory history) {
+        LocalDateTime time = history.getGeneratedAt() != null ? history.getGeneratedAt() : LocalDateTime.now();
+        boolean success = !Boolean.FALSE.equals(history.getSuccess());
+        BigDecimal sizeKb = history.getHtmlSizeKb();
+        Long sizeBytes = sizeKb != null ? sizeKb.multiply(BigDecimal.valueOf(1024)).longValue() : null;
+        record(Scope.GLOBAL, "", time, success, history.getDurationMs(), sizeBytes);
+        if (history.getProjectId() != null) {
+            record(Scope.PROJECT, String.valueOf(history.getProjectId()), time, success, history.getDurationMs(), sizeBytes);
+        }
+        if (history.getTemplateId() != null) {
+            record(Scope.TEMPLATE, history.getTemplateId(), time, success, history.getDurationMs(), sizeBytes);
+        }
+        if (history.getUserId() != null) {
+            record(Scope.USER, history.getUserId(), time, success, history.getDurationMs(), sizeBytes);
+        }
+    }
+
+    private void record(Scope scope, String key, LocalDateTime time, boolean success, Integer durationMs, Long sizeBytes) {
+        for (Granularity granularity : Granularity.values()) {
+            RollupKey rollupKey = new RollupKey(scope, key, granularity, granularity.bucketOf(time));
+            pending.compute(rollupKey, (k, bucket) -> {
+                StatsBucket target = bucket != null ? bucket : new StatsBucket();
+                target.add(success, durationMs, sizeBytes);
+                return target;
+            });
+        }
+    }
+
+    /**
+     * 累计统计：一行汇总 + 内存增量
+     */
+    public StatsSnapshot total(Scope scope, String key) {
+        RollupKey rollupKey = new RollupKey(scope, normalize(key), Granularity.TOTAL, TOTAL_BUCKET);
+        StatsBucket bucket = repository.findByScopeAndScopeKeyAndGranularityAndBucketStart(
+                        scope.name(), rollupKey.key(), Granularity.TOTAL.name(), TOTAL_BUCKET)
+                .map(StatsBucket::from)
+                .orElseGet(StatsBucket::new);
+        mergePending(rollupKey, bucket);
+        return new StatsSnapshot(null, bucket);
+    }
+
+    /**
+     * 时间序列统计：[from, to] 内每个时间桶一项（只返回有数据的桶），桶数量按粒度限制
+     */
+    public List<StatsSnapshot> series(Scope scope, String key, Granularity granularity,
+                                      LocalDateTime from, LocalDateTime to) {
+        if (granularity == Granularity.TOTAL) {
+            return List.of(total(scope, key));
+        }
+        String scopeKey = normalize(key);
+        LocalDateTime end = granularity.bucketOf(to);
+        LocalDateTime earliest = end.minus(granularity.maxBuckets - 1L, granularity.unit);
+        LocalDateTime start = granularity.bucketOf(from).isBefore(earliest) ? earliest : granularity.bucketOf(from);
+
+        TreeMap<LocalDateTime, StatsBucket> buckets = new TreeMap<>();
+        for (GenerationStatsRollup row : repository
+                .findByScopeAndScopeKeyAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+                        scope.name(), scopeKey, granularity.name(), start, end)) {
+            buckets.put(row.getBucketStart(), StatsBucket.from(row));
+        }
+        for (RollupKey pendingKey : pending.keySet()) {
+            if (pendingKey.scope() == scope && pendingKey.granularity() == granularity
+                    && pendingKey.key().equals(scopeKey)
+                    && !pendingKey.bucketStart().isBefore(start) && !pendingKey.bucketStart().isAfter(end)) {
+                mergePending(pendingKey, buckets.computeIfAbsent(pendingKey.bucketStart(), t -> new StatsBucket()));
+            }
+        }
+        List<StatsSnapshot> result = new ArrayList<>(buckets.size());
+        buckets.forEach((bucketStart, bucket) -> result.add(new StatsSnapshot(bucketStart, bucket)));
+        return result;
+    }
+
+    private void mergePending(RollupKey key, StatsBucket target) {
+        pending.computeIfPresent(key, (k, bucket) -> {
+            target.merge(bucket);
+            return bucket;
+        });
+    }
+
+    /**
+     * 把内存增量合并进汇总表；失败的增量放回内存，下次重试
+     */
+    @Scheduled(fixedDelayString = "${siteup.engine.stats.flush-interval-ms:10000}")
+    public void flush() {
+        for (RollupKey key : new ArrayList<>(pending.keySet())) {
+            StatsBucket delta = pending.remove(key);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(tx -> mergeInto(key, delta));
+            } catch (RuntimeException e) {
+                System.err.println("Generation stats flush failed for " + key + ": " + e.getMessage());
+                pending.merge(key, delta, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                });
+            }
+        }
+    }
+
+    /**
+     * 在行锁下把增量合并进一个汇总桶（调用方负责事务）
+     */
+    private void mergeInto(RollupKey key, StatsBucket delta) {
+        Timestamp bucketStart = Timestamp.valueOf(key.bucketStart());
+        jdbcTemplate.update(ENSURE_ROW_SQL, key.scope().name(), key.key(), key.granularity().name(), bucketStart,
+                Timestamp.valueOf(LocalDateTime.now()));
+        GenerationStatsRollup row = jdbcTemplate.queryForObject(LOCK_ROW_SQL, LOCKED_ROW_MAPPER,
+                key.scope().name(), key.key(), key.granularity().name(), bucketStart);
+        StatsBucket merged = StatsBucket.from(row);
+        merged.merge(delta);
+        merged.writeTo(row);
+        jdbcTemplate.update(UPDATE_ROW_SQL, row.getSuccessCount(), row.getFailureCount(), row.getDurationSumMs(),
+                row.getSizeSumBytes(), row.getDurationHistogram(), row.getSizeHistogram(),
+                Timestamp.valueOf(row.getUpdatedAt()), row.getId());
+    }
+
+    /**
+     * 首次部署时从历史表回填汇总（汇总表非空或其他实例已认领回填则跳过），并确定实时累加的上界
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfill) {
+            return;
+        }
+        long bound = 0;
+        try {
+            Timestamp marker = Timestamp.valueOf(TOTAL_BUCKET);
+            Long maxId = jdbcTemplate.queryForObject(MAX_HISTORY_ID_SQL, Long.class);
+            long candidate = repository.count() == 0 && maxId != null ? maxId : 0L;
+            boolean claimed = jdbcTemplate.update(CLAIM_BACKFILL_SQL, marker, candidate,
+                    Timestamp.valueOf(LocalDateTime.now())) == 1;
+            Long stored = jdbcTemplate.queryForObject(BACKFILL_BOUND_SQL, Long.class, marker);
+            bound = stored != null ? stored : 0L;
+            applyBound(bound);
+            if (!claimed || bound == 0) {
+                return;
+            }
+            long limit = bound;
+            long[] rows = {0L};
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(BACKFILL_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setLong(1, limit);
+                ps.setFetchSize(Integer.MIN_VALUE); // MySQL 驱动：逐行流式读取
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                accumulate(toHistory(rs));
+                if (++rows[0] % BACKFILL_FLUSH_EVERY == 0) {
+                    flush();
+                }
+            });
+            flush();
+            System.out.println("Generation stats backfilled from " + rows[0] + " history records");
+        } catch (RuntimeException e) {
+            System.err.println("Generation stats backfill failed: " + e.getMessage());
+            applyBound(bound);
+        }
+    }
+
+    /**
+     * 确定回填上界，并按上界累加此前暂存的记录
+     */
+    private void applyBound(long bound) {
+        List<GenerationHistory> held;
+        synchronized (awaitingBound) {
+            if (backfillBound >= 0) {
+                return;
+            }
+            backfillBound = bound;
+            held = new ArrayList<>(awaitingBound);
+            awaitingBound.clear();
+        }
+        held.forEach(this::record);
+    }
+
+    private static GenerationHistory toHistory(ResultSet rs) throws SQLException {
+        GenerationHistory history = new GenerationHistory();
+        history.setProjectId(rs.getLong("project_id"));
+        history.setTemplateId(rs.getString("template_id"));
+        history.setUserId(rs.getString("user_id"));
+        Timestamp generatedAt = rs.getTimestamp("generated_at");
+        history.setGeneratedAt(generatedAt != null ? generatedAt.toLocalDateTime() : null);
+        int duration = rs.getInt("duration_ms");
+        history.setDurationMs(rs.wasNull() ? null : duration);
+        history.setSuccess(rs.getBoolean("success"));
+        history.setHtmlSizeKb(rs.getBigDecimal("html_size_kb"));
+        return history;
+    }
+
+    private static String normalize(String key) {
+        return key != null ? key : "";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    record RollupKey(Scope scope, String key, Granularity granularity, LocalDateTime bucketStart) {
+    }
+}
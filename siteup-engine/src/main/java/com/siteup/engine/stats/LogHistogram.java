@@ -0,0 +1,103 @@
+package com.siteup.engine.stats;
+
+/**
+ * 对数分桶直方图：每个 2 的幂区间再均分为 4 个桶，相对误差约 ±10%。
+ *
+ * 桶边界固定，不同时间段/维度的直方图直接按桶相加即可合并，
+ * 因此分钟桶可以无损地汇总为小时桶、天桶，并据此计算 p50/p95/p99。
+ * 持久化为稀疏文本 "桶下标:计数,..."。
+ */
+public final class LogHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = 1 + 40 * SUB_BUCKETS; // 覆盖到 2^40
+    private static final double LOG2 = Math.log(2);
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+
+    public void record(long value) {
+        counts[indexOf(value)]++;
+        total++;
+    }
+
+    public void merge(LogHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    /**
+     * 估算分位数（取所在桶的几何中点）；没有数据时返回 0
+     *
+     * @param quantile 0 ~ 1
+     */
+    public double quantile(double quantile) {
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == 0 ? 0.0 : Math.sqrt(lowerBound(i) * upperBound(i));
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    public String encode() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append(i).append(':').append(counts[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    public static LogHistogram decode(String encoded) {
+        LogHistogram histogram = new LogHistogram();
+        if (encoded == null || encoded.isBlank()) {
+            return histogram;
+        }
+        for (String entry : encoded.split(",")) {
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            int index = Integer.parseInt(entry.substring(0, colon).trim());
+            long count = Long.parseLong(entry.substring(colon + 1).trim());
+            if (index >= 0 && index < BUCKETS) {
+                histogram.counts[index] += count;
+                histogram.total += count;
+            }
+        }
+        return histogram;
+    }
+
+    static int indexOf(long value) {
+        if (value <= 0) {
+            return 0;
+        }
+        int index = 1 + (int) (Math.log(value) / LOG2 * SUB_BUCKETS);
+        return Math.min(BUCKETS - 1, index);
+    }
+
+    private static double lowerBound(int index) {
+        return Math.pow(2, (index - 1) / (double) SUB_BUCKETS);
+    }
+
+    private static double upperBound(int index) {
+        return Math.pow(2, index / (double) SUB_BUCKETS);
+    }
+}
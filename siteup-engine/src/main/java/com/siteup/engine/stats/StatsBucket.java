@@ -0,0 +1,78 @@
+package com.siteup.engine.stats;
+
+import com.siteup.engine.model.GenerationStatsRollup;
+
+import java.time.LocalDateTime;
+
+/**
+ * 一个汇总桶的累加值（内存中的增量，或从汇总行还原）；非线程安全，由调用方同步
+ */
+final class StatsBucket {
+
+    long successCount;
+    long failureCount;
+    long durationSumMs;
+    long sizeSumBytes;
+    final LogHistogram durations;
+    final LogHistogram sizes;
+
+    StatsBucket() {
+        this(new LogHistogram(), new LogHistogram());
+    }
+
+    private StatsBucket(LogHistogram durations, LogHistogram sizes) {
+        this.durations = durations;
+        this.sizes = sizes;
+    }
+
+    void add(boolean success, Integer durationMs, Long sizeBytes) {
+        if (success) {
+            successCount++;
+        } else {
+            failureCount++;
+        }
+        if (durationMs != null) {
+            durationSumMs += durationMs;
+            durations.record(durationMs);
+        }
+        if (sizeBytes != null) {
+            sizeSumBytes += sizeBytes;
+            sizes.record(sizeBytes);
+        }
+    }
+
+    void merge(StatsBucket other) {
+        successCount += other.successCount;
+        failureCount += other.failureCount;
+        durationSumMs += other.durationSumMs;
+        sizeSumBytes += other.sizeSumBytes;
+        durations.merge(other.durations);
+        sizes.merge(other.sizes);
+    }
+
+    StatsBucket copy() {
+        StatsBucket copy = new StatsBucket();
+        copy.merge(this);
+        return copy;
+    }
+
+    static StatsBucket from(GenerationStatsRollup row) {
+        StatsBucket bucket = new StatsBucket(LogHistogram.decode(row.getDurationHistogram()),
+                LogHistogram.decode(row.getSizeHistogram()));
+        bucket.successCount = row.getSuccessCount();
+        bucket.failureCount = row.getFailureCount();
+        bucket.durationSumMs = row.getDurationSumMs();
+        bucket.sizeSumBytes = row.getSizeSumBytes();
+        return bucket;
+    }
+
+    void writeTo(GenerationStatsRollup row) {
+        row.setSuccessCount(successCount);
+        row.setFailureCount(failureCount);
+        row.setDurationSumMs(durationSumMs);
+        row.setSizeSumBytes(sizeSumBytes);
+        row.setDurationHistogram(durations.encode());
+        row.setSizeHistogram(sizes.encode());
+        row.setUpdatedAt(LocalDateTime.now());
+    }
+}
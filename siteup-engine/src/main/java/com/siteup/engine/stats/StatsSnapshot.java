@@ -0,0 +1,70 @@
+package com.siteup.engine.stats;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * 一个维度、一个时间桶（或累计）的生成统计，字段直接作为统计接口的响应
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StatsSnapshot {
+
+    private final LocalDateTime bucketStart;
+    private final long totalGenerations;
+    private final long successfulGenerations;
+    private final long failedGenerations;
+    private final double successRate;
+    private final double averageGenerationTimeMs;
+    private final double p50GenerationTimeMs;
+    private final double p95GenerationTimeMs;
+    private final double p99GenerationTimeMs;
+    private final double averageHtmlSizeKb;
+    private final double p50HtmlSizeKb;
+    private final double p95HtmlSizeKb;
+    private final double p99HtmlSizeKb;
+
+    StatsSnapshot(LocalDateTime bucketStart, StatsBucket bucket) {
+        this.bucketStart = bucketStart;
+        this.successfulGenerations = bucket.successCount;
+        this.failedGenerations = bucket.failureCount;
+        this.totalGenerations = bucket.successCount + bucket.failureCount;
+        this.successRate = totalGenerations > 0 ? (double) successfulGenerations / totalGenerations * 100 : 0.0;
+        long timed = bucket.durations.count();
+        this.averageGenerationTimeMs = timed > 0 ? (double) bucket.durationSumMs / timed : 0.0;
+        this.p50GenerationTimeMs = bucket.durations.quantile(0.50);
+        this.p95GenerationTimeMs = bucket.durations.quantile(0.95);
+        this.p99GenerationTimeMs = bucket.durations.quantile(0.99);
+        long sized = bucket.sizes.count();
+        this.averageHtmlSizeKb = sized > 0 ? bucket.sizeSumBytes / 1024.0 / sized : 0.0;
+        this.p50HtmlSizeKb = bucket.sizes.quantile(0.50) / 1024.0;
+        this.p95HtmlSizeKb = bucket.sizes.quantile(0.95) / 1024.0;
+        this.p99HtmlSizeKb = bucket.sizes.quantile(0.99) / 1024.0;
+    }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+
+    public long getTotalGenerations() { return totalGenerations; }
+
+    public long getSuccessfulGenerations() { return successfulGenerations; }
+
+    public long getFailedGenerations() { return failedGenerations; }
+
+    public double getSuccessRate() { return successRate; }
+
+    public double getAverageGenerationTimeMs() { return averageGenerationTimeMs; }
+
+    public double getP50GenerationTimeMs() { return p50GenerationTimeMs; }
+
+    public double getP95GenerationTimeMs() { return p95GenerationTimeMs; }
+
+    public double getP99GenerationTimeMs() { return p99GenerationTimeMs; }
+
+    public double getAverageHtmlSizeKb() { return averageHtmlSizeKb; }
+
+    public double getP50HtmlSizeKb() { return p50HtmlSizeKb; }
+
+    public double getP95HtmlSizeKb() { return p95HtmlSizeKb; }
+
+    public double getP99HtmlSizeKb() { return p99HtmlSizeKb; }
+}
@@ -0,0 +1,145 @@
+package com.siteup.engine.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.engine.model.GenerationHistory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GenerationHistoryWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path spoolDir;
+
+    private static GenerationHistory history(long projectId) {
+        GenerationHistory history = new GenerationHistory();
+        history.setProjectId(projectId);
+        history.setDurationMs(12);
+        history.setHtmlSizeKb(BigDecimal.valueOf(3.5));
+        return history;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_ShouldWriteQueuedRecordsInOneBatch() throws Exception {
+        // Given
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        GenerationHistoryWriter writer = new GenerationHistoryWriter(jdbcTemplate, objectMapper,
+                new SimpleMeterRegistry(), true, 100, 5, 60_000, "spool", spoolDir.toString());
+
+        // When
+        for (long i = 1; i <= 5; i++) {
+            assertThat(writer.submit(history(i))).isTrue();
+        }
+
+        // Then：攒满 batch-size 后立即作为一批写入，不必等待 flush-interval
+        verify(jdbcTemplate, timeout(5_000)).batchUpdate(any(PreparedStatementCreator.class),
+                argThat((BatchPreparedStatementSetter setter) -> setter.getBatchSize() == 5), any(KeyHolder.class));
+        writer.shutdown();
+    }
+
+    @Test
+    void flush_ShouldAssignGeneratedIds() throws Exception {
+        // Given
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+                    KeyHolder keys = invocation.getArgument(2);
+                    keys.getKeyList().add(Map.of("GENERATED_KEY", BigInteger.valueOf(41)));
+                    keys.getKeyList().add(Map.of("GENERATED_KEY", BigInteger.valueOf(42)));
+                    return new int[] {1, 1};
+                });
+        GenerationHistoryWriter writer = new GenerationHistoryWriter(jdbcTemplate, objectMapper,
+                new SimpleMeterRegistry(), false, 100, 10, 60_000, "spool", spoolDir.toString());
+        List<GenerationHistory> batch = List.of(history(1), history(2));
+
+        // When
+        assertThat(writer.flush(batch)).isTrue();
+
+        // Then
+        assertThat(batch).extracting(GenerationHistory::getId).containsExactly(41L, 42L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldSpoolBatch_WhenDatabaseIsDown_AndReplayLater() throws Exception {
+        // Given
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class),
+                any(BatchPreparedStatementSetter.class), any(KeyHolder.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(new int[0]);
+        GenerationHistoryWriter writer = new GenerationHistoryWriter(jdbcTemplate, objectMapper,
+                new SimpleMeterRegistry(), false, 100, 10, 1_000, "spool", spoolDir.toString());
+
+        // When
+        assertThat(writer.submit(history(1))).isTrue();
+        HistorySpool spool = new HistorySpool(spoolDir, objectMapper);
+        List<Path> pending = spool.seal();
+
+        // Then：失败的记录进入暂存文件
+        assertThat(pending).hasSize(1);
+        assertThat(spool.read(pending.get(0))).extracting(GenerationHistory::getProjectId).containsExactly(1L);
+
+        // When：退避时间内不回放
+        writer.replaySpool();
+        verify(jdbcTemplate, times(1)).batchUpdate(any(PreparedStatementCreator.class),
+                any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+
+        // When：数据库恢复后回放并删除暂存文件
+        ReflectionTestUtils.setField(writer, "nextReplayAt", 0L);
+        writer.replaySpool();
+
+        // Then
+        verify(jdbcTemplate, times(2)).batchUpdate(any(PreparedStatementCreator.class),
+                any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+        try (var files = Files.list(spoolDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runWorker_ShouldReplaySpool_WhenQueueIsNeverIdle() throws Exception {
+        // Given：上次停机留下的暂存记录；flush-interval 足够长，工作线程不会因为空闲而回放
+        new HistorySpool(spoolDir, objectMapper).append(List.of(history(1)));
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        GenerationHistoryWriter writer = new GenerationHistoryWriter(jdbcTemplate, objectMapper,
+                new SimpleMeterRegistry(), true, 100, 1, 60_000, "spool", spoolDir.toString());
+
+        // When
+        assertThat(writer.submit(history(2))).isTrue();
+
+        // Then：写完一批后回放暂存文件
+        verify(jdbcTemplate, timeout(5_000).times(2)).batchUpdate(any(PreparedStatementCreator.class),
+                argThat((BatchPreparedStatementSetter setter) -> setter.getBatchSize() == 1), any(KeyHolder.class));
+        writer.shutdown();
+        try (var files = Files.list(spoolDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+}
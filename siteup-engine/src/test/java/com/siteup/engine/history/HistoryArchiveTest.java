@@ -0,0 +1,61 @@
+package com.siteup.engine.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.engine.model.GenerationHistory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistoryArchiveTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path archiveDir;
+
+    private static GenerationHistory history(long id, LocalDateTime generatedAt) {
+        GenerationHistory history = new GenerationHistory();
+        history.setId(id);
+        history.setProjectId(1L);
+        history.setGeneratedAt(generatedAt);
+        return history;
+    }
+
+    private List<GenerationHistory> readAll(Path file) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().map(line -> {
+                try {
+                    return objectMapper.readValue(line, GenerationHistory.class);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+        }
+    }
+
+    @Test
+    void append_ShouldSplitByMonth_AndKeepEarlierBatchesReadable() throws Exception {
+        // Given
+        HistoryArchive archive = new HistoryArchive(archiveDir, objectMapper);
+
+        // When：两批记录，第一批跨月
+        archive.append(List.of(history(1, LocalDateTime.of(2024, 1, 30, 8, 0)),
+                history(2, LocalDateTime.of(2024, 2, 1, 9, 0))));
+        archive.append(List.of(history(3, LocalDateTime.of(2024, 1, 31, 23, 59))));
+
+        // Then：同一月份的多个 gzip member 连续读出
+        assertThat(readAll(archive.fileFor("2024-01"))).extracting(GenerationHistory::getId).containsExactly(1L, 3L);
+        assertThat(readAll(archive.fileFor("2024-02"))).extracting(GenerationHistory::getId).containsExactly(2L);
+    }
+}
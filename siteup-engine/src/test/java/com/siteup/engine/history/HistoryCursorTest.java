@@ -0,0 +1,25 @@
+package com.siteup.engine.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HistoryCursorTest {
+
+    @Test
+    void decode_ShouldRoundTripEncodedCursor() {
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2024, 1, 14, 10, 30, 0, 123_000_000), 42L);
+
+        assertThat(HistoryCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(HistoryCursor.decode(null)).isEqualTo(HistoryCursor.FIRST);
+    }
+
+    @Test
+    void decode_ShouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> HistoryCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.siteup.engine.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HistoryRetentionJobTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_ShouldPurge_OnlyWhileHoldingTheNamedLock() throws Exception {
+        // Given：第一次拿到锁，第二次锁被其他实例持有
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement getLock = lockStatement(1, 0);
+        PreparedStatement releaseLock = lockStatement(1);
+        when(connection.prepareStatement("SELECT GET_LOCK(?, 0)")).thenReturn(getLock);
+        when(connection.prepareStatement("SELECT RELEASE_LOCK(?)")).thenReturn(releaseLock);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+            .thenAnswer(invocation -> ((ConnectionCallback<?>) invocation.getArgument(0)).doInConnection(connection));
+        when(jdbcTemplate.query(eq(HistoryRetentionJob.SELECT_EXPIRED_SQL), any(RowMapper.class), any(Object[].class)))
+            .thenReturn(List.of());
+        HistoryRetentionJob job = new HistoryRetentionJob(jdbcTemplate, new ObjectMapper(), new SimpleMeterRegistry(),
+            true, 90, 2, 90, 100, 0, "");
+
+        // When
+        job.run();
+
+        // Then
+        verify(jdbcTemplate).query(eq(HistoryRetentionJob.SELECT_EXPIRED_SQL), any(RowMapper.class), any(Object[].class));
+        verify(getLock).setString(1, HistoryRetentionJob.LOCK_NAME);
+        verify(releaseLock).executeQuery();
+
+        // When：锁被占用时直接跳过
+        clearInvocations(jdbcTemplate, releaseLock);
+        job.run();
+
+        // Then
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(Object[].class));
+        verify(releaseLock, never()).executeQuery();
+    }
+
+    private static PreparedStatement lockStatement(Integer first, Integer... more) throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(first, more);
+        return statement;
+    }
+}
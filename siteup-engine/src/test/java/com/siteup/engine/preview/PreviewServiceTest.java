@@ -0,0 +1,120 @@
+package com.siteup.engine.preview;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siteup.engine.renderer.RendererRegistry;
+import com.siteup.engine.renderer.RenderingService;
+import com.siteup.engine.renderer.impl.ContainerRenderer;
+import com.siteup.engine.renderer.impl.PageRenderer;
+import com.siteup.engine.renderer.impl.TextRenderer;
+import com.siteup.engine.renderer.plan.RenderPlanCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PreviewServiceTest {
+
+    private static final String CONFIG = """
+            {
+              "title": "Preview",
+              "root": {
+                "id": "root", "type": "page",
+                "children": [
+                  { "id": "header", "type": "text", "props": { "text": "Header" } },
+                  { "id": "body", "type": "container", "children": [
+                    { "id": "greeting", "type": "text", "props": { "text": "Hello" } }
+                  ] }
+                ]
+              }
+            }
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PreviewService previewService;
+
+    @BeforeEach
+    void setUp() {
+        RenderingService renderingService = new RenderingService(
+                new RendererRegistry(List.of(new TextRenderer(), new ContainerRenderer(), new PageRenderer())),
+                new RenderPlanCache(1024 * 1024));
+        previewService = new PreviewService(renderingService, objectMapper, 100, 30);
+    }
+
+    @Test
+    void patch_ShouldReturnOnlyChangedFragment_WhenOneTextNodeIsEdited() throws Exception {
+        // Given
+        PreviewResult opened = previewService.open(objectMapper.readTree(CONFIG));
+        JsonNode patch = objectMapper.readTree("""
+                [ { "op": "replace", "path": "/root/children/1/children/0/props/text", "value": "Bye" } ]
+                """);
+
+        // When
+        PreviewResult result = previewService.patch(opened.getRenderId(), patch, true);
+
+        // Then
+        assertThat(opened.getHtml()).contains("<span data-node-id=\"greeting\">Hello</span>");
+        assertThat(result.getMode()).isEqualTo(PreviewResult.MODE_FRAGMENTS);
+        assertThat(result.getBaseRenderId()).isEqualTo(opened.getRenderId());
+        assertThat(result.getFragments()).hasSize(1);
+        assertThat(result.getFragments().get(0).getId()).isEqualTo("greeting");
+        assertThat(result.getFragments().get(0).getHtml()).isEqualTo("<span data-node-id=\"greeting\">Bye</span>");
+    }
+
+    @Test
+    void patch_ShouldReturnParentFragment_WhenChildIsAdded() throws Exception {
+        // Given
+        PreviewResult opened = previewService.open(objectMapper.readTree(CONFIG));
+        JsonNode patch = objectMapper.readTree("""
+                [ { "op": "add", "path": "/root/children/1/children/-",
+                    "value": { "id": "extra", "type": "text", "props": { "text": "More" } } } ]
+                """);
+
+        // When
+        PreviewResult result = previewService.patch(opened.getRenderId(), patch, true);
+
+        // Then
+        assertThat(result.getFragments()).extracting(PreviewResult.Fragment::getId).containsExactly("body");
+        assertThat(result.getFragments().get(0).getHtml()).isEqualTo("<div data-node-id=\"body\">"
+                + "<span data-node-id=\"greeting\">Hello</span><span data-node-id=\"extra\">More</span></div>");
+    }
+
+    @Test
+    void patch_ShouldFallBackToFullHtml_WhenTitleChanges() throws Exception {
+        // Given
+        PreviewResult opened = previewService.open(objectMapper.readTree(CONFIG));
+        JsonNode patch = objectMapper.readTree("""
+                [ { "op": "replace", "path": "/title", "value": "Renamed" } ]
+                """);
+
+        // When
+        PreviewResult result = previewService.patch(opened.getRenderId(), patch, true);
+
+        // Then
+        assertThat(result.getMode()).isEqualTo(PreviewResult.MODE_FULL);
+        assertThat(result.getHtml()).contains("<title>Renamed</title>");
+    }
+
+    @Test
+    void patch_ShouldRejectPatch_WhenTestOperationFails() throws Exception {
+        // Given
+        PreviewResult opened = previewService.open(objectMapper.readTree(CONFIG));
+        JsonNode patch = objectMapper.readTree("""
+                [ { "op": "test", "path": "/title", "value": "Other" },
+                  { "op": "remove", "path": "/root/children/0" } ]
+                """);
+
+        // When / Then
+        assertThatThrownBy(() -> previewService.patch(opened.getRenderId(), patch, true))
+                .isInstanceOf(JsonPatchException.class);
+    }
+
+    @Test
+    void patch_ShouldReturnNull_WhenRenderIdIsUnknown() throws Exception {
+        assertThat(previewService.patch("missing", objectMapper.readTree("[]"), true)).isNull();
+    }
+}
@@ -0,0 +1,39 @@
+package com.siteup.engine.renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HtmlEscaperTest {
+
+    @Test
+    void text_ShouldEscapeMarkup_AndKeepQuotes() throws Exception {
+        StringBuilder out = new StringBuilder();
+        HtmlEscaper.text("Tom & Jerry <b>\"hi\"</b>", out);
+        assertThat(out.toString()).isEqualTo("Tom &amp; Jerry &lt;b&gt;\"hi\"&lt;/b&gt;");
+    }
+
+    @Test
+    void multilineText_ShouldConvertNewlines_AfterEscaping() throws Exception {
+        StringBuilder out = new StringBuilder();
+        HtmlEscaper.multilineText("a<b\nc", out);
+        assertThat(out.toString()).isEqualTo("a&lt;b<br/>c");
+    }
+
+    @Test
+    void attribute_ShouldEscapeQuotes_AndDropLineBreaks() throws Exception {
+        StringWriter out = new StringWriter();
+        HtmlEscaper.attribute("href", "https://x.test/?a=1&b=\"2'\r\n", out);
+        assertThat(out.toString()).isEqualTo(" href=\"https://x.test/?a=1&amp;b=&quot;2&#39;\"");
+    }
+
+    @Test
+    void text_ShouldWriteValueUnchanged_WhenNothingToEscape() throws Exception {
+        StringBuilder out = new StringBuilder();
+        HtmlEscaper.text("全栈开发者 UI 设计师", out);
+        HtmlEscaper.text(null, out);
+        assertThat(out.toString()).isEqualTo("全栈开发者 UI 设计师");
+    }
+}
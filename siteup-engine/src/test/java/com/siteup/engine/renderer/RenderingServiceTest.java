@@ -1,19 +1,37 @@
 package com.siteup.engine.renderer;
 
+import com.siteup.engine.cache.RenderCache;
+import com.siteup.engine.model.BatchRenderRequest;
+import com.siteup.engine.model.BatchRenderResponse;
 import com.siteup.engine.model.SiteConfig;
-import com.siteup.engine.repository.GenerationHistoryRepository; // 1. 导入 Repository
+import com.siteup.engine.renderer.impl.ContainerRenderer;
+import com.siteup.engine.renderer.impl.PageRenderer;
+import com.siteup.engine.renderer.impl.TextRenderer;
+import com.siteup.engine.renderer.plan.RenderPlan;
+import com.siteup.engine.renderer.plan.RenderPlanCache;
+import com.siteup.engine.renderer.plan.RenderReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,26 +43,35 @@ class RenderingServiceTest {
     @Mock
     private ComponentRenderer imageRenderer;
 
-    @Mock
-    private GenerationHistoryRepository historyRepository; // 2. Mock 历史记录仓库
-
+    private RendererRegistry registry;
     private RenderingService renderingService;
 
     @BeforeEach
     void setUp() {
-        // 3. 修正构造函数调用，传入 historyRepository
-        renderingService = new RenderingService(List.of(textRenderer, imageRenderer), historyRepository);
+        when(textRenderer.type()).thenReturn("text");
+        when(imageRenderer.type()).thenReturn("image");
+        registry = new RendererRegistry(List.of(textRenderer, imageRenderer,
+                new ContainerRenderer(), new PageRenderer()));
+        renderingService = new RenderingService(registry, new RenderPlanCache(1024 * 1024));
+    }
+
+    /**
+     * 模拟渲染器把固定片段写入共享 sink
+     */
+    private void stubOutput(ComponentRenderer renderer, SiteConfig.ComponentNode node, String html) throws Exception {
+        doAnswer(invocation -> {
+            Appendable out = invocation.getArgument(1);
+            out.append(html);
+            return null;
+        }).when(renderer).render(eq(node), any(Appendable.class), any(RenderingService.class));
     }
 
     @Test
-    void render_ShouldReturnRendererOutput_WhenSupported() {
+    void render_ShouldReturnRendererOutput_WhenSupported() throws Exception {
         // Given
         SiteConfig.ComponentNode node = new SiteConfig.ComponentNode();
         node.setType("text");
-
-        when(textRenderer.supports("text")).thenReturn(true);
-        // 注意：这里用 eq(renderingService) 或 any() 会更稳健，直接传实例也可以
-        when(textRenderer.render(eq(node), any(RenderingService.class))).thenReturn("<p>Hello World</p>");
+        stubOutput(textRenderer, node, "<p>Hello World</p>");
 
         // When
         String result = renderingService.render(node);
@@ -59,18 +86,36 @@ class RenderingServiceTest {
         SiteConfig.ComponentNode node = new SiteConfig.ComponentNode();
         node.setType("unknown");
 
-        when(textRenderer.supports("unknown")).thenReturn(false);
-        when(imageRenderer.supports("unknown")).thenReturn(false);
+        // When
+        String result = renderingService.render(node);
+
+        // Then
+        assertThat(result).isEqualTo("<!-- Unknown component type: unknown -->");
+    }
+
+    @Test
+    void render_ShouldResolveTypeCaseInsensitively() throws Exception {
+        // Given
+        SiteConfig.ComponentNode node = new SiteConfig.ComponentNode();
+        node.setType("Text");
+        stubOutput(textRenderer, node, "<p>Hello</p>");
 
         // When
         String result = renderingService.render(node);
 
         // Then
-        assertThat(result).isEqualTo("");
+        assertThat(result).isEqualTo("<p>Hello</p>");
     }
 
     @Test
-    void renderSite_ShouldGenerateCompleteHTML() {
+    void registry_ShouldFailFast_WhenTwoRenderersClaimSameType() {
+        assertThatThrownBy(() -> new RendererRegistry(List.of(new TextRenderer(), new TextRenderer())))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("'text'");
+    }
+
+    @Test
+    void renderSite_ShouldGenerateCompleteHTML() throws Exception {
         // Given
         SiteConfig siteConfig = new SiteConfig();
         siteConfig.setTitle("Test Site");
@@ -78,11 +123,9 @@ class RenderingServiceTest {
         siteConfig.setThemeConfig(Map.of("primaryColor", "#3b82f6"));
 
         SiteConfig.ComponentNode rootNode = new SiteConfig.ComponentNode();
-        rootNode.setType("page");
+        rootNode.setType("text");
         siteConfig.setRoot(rootNode);
-
-        when(textRenderer.supports("page")).thenReturn(true);
-        when(textRenderer.render(eq(rootNode), any(RenderingService.class))).thenReturn("<div>Welcome</div>");
+        stubOutput(textRenderer, rootNode, "<div>Welcome</div>");
 
         // When
         String result = renderingService.renderSite(siteConfig);
@@ -106,13 +149,235 @@ class RenderingServiceTest {
         rootNode.setType("container");
         siteConfig.setRoot(rootNode);
 
-        when(textRenderer.supports("container")).thenReturn(true);
-        when(textRenderer.render(eq(rootNode), any(RenderingService.class))).thenReturn("<div></div>");
-
         // When
         String result = renderingService.renderSite(siteConfig);
 
         // Then
         assertThat(result).contains("<title>SiteUp Generated Site</title>");
     }
-}
\ No newline at end of file
+
+    @Test
+    void renderSite_ShouldStreamIntoWriter_WithSameOutputAsString() throws Exception {
+        // Given
+        SiteConfig.ComponentNode child = new SiteConfig.ComponentNode();
+        child.setType("image");
+        stubOutput(imageRenderer, child, "<img src=\"a.png\" />");
+
+        SiteConfig.ComponentNode rootNode = new SiteConfig.ComponentNode();
+        rootNode.setType("container");
+        rootNode.setProps(Map.of("className", "grid"));
+        rootNode.setChildren(List.of(child, child));
+
+        SiteConfig siteConfig = new SiteConfig();
+        siteConfig.setTitle("Stream");
+        siteConfig.setRoot(rootNode);
+
+        // When
+        StringWriter writer = new StringWriter();
+        renderingService.renderSite(siteConfig, writer);
+
+        // Then
+        assertThat(writer.toString()).isEqualTo(renderingService.renderSite(siteConfig));
+        assertThat(writer.toString()).contains("<div class=\"grid\"><img src=\"a.png\" /><img src=\"a.png\" /></div>");
+    }
+
+    @Test
+    void planFor_ShouldMatchDirectRendering_AndCompileEachTreeOnce() throws Exception {
+        // Given
+        SiteConfig.ComponentNode child = new SiteConfig.ComponentNode();
+        child.setType("text");
+        stubOutput(textRenderer, child, "<p>Hi</p>");
+
+        SiteConfig.ComponentNode rootNode = new SiteConfig.ComponentNode();
+        rootNode.setType("page");
+        rootNode.setChildren(List.of(child));
+
+        // 结构相同但 id 不同的另一棵树（例如从同一模板创建的另一个项目）
+        SiteConfig.ComponentNode copy = new SiteConfig.ComponentNode();
+        copy.setId("another-project-root");
+        copy.setType("page");
+        copy.setChildren(List.of(child));
+
+        // When
+        RenderPlan plan = renderingService.planFor(rootNode);
+        RenderPlan cached = renderingService.planFor(copy);
+
+        // Then
+        assertThat(plan.toString()).isEqualTo(renderingService.render(rootNode));
+        assertThat(plan.length()).isEqualTo(plan.toString().length());
+        assertThat(cached).isSameAs(plan);
+        // 一次编译 + 一次直接渲染
+        verify(textRenderer, times(2)).render(eq(child), any(Appendable.class), any(RenderingService.class));
+    }
+
+    @Test
+    void previewPlanFor_ShouldEmitNodeAnchors_WithoutChangingProductionPlan() throws Exception {
+        // Given
+        SiteConfig.ComponentNode child = new SiteConfig.ComponentNode();
+        child.setType("text");
+        stubOutput(textRenderer, child, "<p>Hi</p>");
+
+        SiteConfig.ComponentNode rootNode = new SiteConfig.ComponentNode();
+        rootNode.setId("root");
+        rootNode.setType("page");
+        rootNode.setChildren(List.of(child));
+
+        // When
+        RenderPlan production = renderingService.planFor(rootNode);
+        RenderPlan preview = renderingService.previewPlanFor(rootNode, new RenderReport());
+
+        // Then
+        assertThat(production.toString()).isEqualTo("<div><p>Hi</p></div>");
+        assertThat(preview.toString()).isEqualTo("<div data-node-id=\"root\"><p>Hi</p></div>");
+        assertThat(renderingService.planFor(rootNode)).isSameAs(production);
+        // 没有 id 的子节点在两种渲染中输出相同，共用同一个计划
+        verify(textRenderer, times(1)).render(eq(child), any(Appendable.class), any(RenderingService.class));
+    }
+
+    @Test
+    void planFor_ShouldReuseUnchangedSubtrees_WhenOneNodeIsEdited() throws Exception {
+        // Given
+        SiteConfig.ComponentNode header = new SiteConfig.ComponentNode();
+        header.setType("text");
+        header.setProps(Map.of("content", "Header"));
+        stubOutput(textRenderer, header, "<p>Header</p>");
+
+        SiteConfig.ComponentNode body = new SiteConfig.ComponentNode();
+        body.setType("text");
+        body.setProps(Map.of("content", "Before"));
+        stubOutput(textRenderer, body, "<p>Before</p>");
+
+        SiteConfig.ComponentNode edited = new SiteConfig.ComponentNode();
+        edited.setType("text");
+        edited.setProps(Map.of("content", "After"));
+        stubOutput(textRenderer, edited, "<p>After</p>");
+
+        SiteConfig.ComponentNode original = new SiteConfig.ComponentNode();
+        original.setType("page");
+        original.setChildren(List.of(header, body));
+
+        SiteConfig.ComponentNode republished = new SiteConfig.ComponentNode();
+        republished.setType("page");
+        republished.setChildren(List.of(header, edited));
+
+        // When
+        RenderReport first = new RenderReport();
+        renderingService.planFor(original, first);
+        RenderReport second = new RenderReport();
+        RenderPlan plan = renderingService.planFor(republished, second);
+
+        // Then
+        assertThat(first.getNodesRendered()).isEqualTo(3);
+        assertThat(first.getNodesReused()).isZero();
+        // 只有被编辑的节点和它的祖先重新编译
+        assertThat(second.getNodesRendered()).isEqualTo(2);
+        assertThat(second.getNodesReused()).isEqualTo(1);
+        assertThat(plan.toString()).isEqualTo("<div><p>Header</p><p>After</p></div>");
+        verify(textRenderer, times(1)).render(eq(header), any(Appendable.class), any(RenderingService.class));
+    }
+
+    @Test
+    void planFor_ShouldProduceIdenticalOutput_WhenWideContainersCompileInParallel() {
+        // Given：宽页面，每个卡片容器下有若干文本节点
+        SiteConfig.ComponentNode page = new SiteConfig.ComponentNode();
+        page.setType("page");
+        List<SiteConfig.ComponentNode> cards = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            SiteConfig.ComponentNode card = new SiteConfig.ComponentNode();
+            card.setType("container");
+            card.setProps(Map.of("className", "card-" + (i % 7)));
+            List<SiteConfig.ComponentNode> texts = new ArrayList<>();
+            for (int j = 0; j < 8; j++) {
+                SiteConfig.ComponentNode text = new SiteConfig.ComponentNode();
+                text.setType("text");
+                text.setProps(Map.of("text", "item " + i + "-" + j));
+                texts.add(text);
+            }
+            card.setChildren(texts);
+            cards.add(card);
+        }
+        page.setChildren(cards);
+
+        RendererRegistry renderers = new RendererRegistry(List.of(new TextRenderer(), new ContainerRenderer(), new PageRenderer()));
+        RenderingService sequential = new RenderingService(renderers, new RenderPlanCache(16 * 1024 * 1024));
+        RenderParallelism parallelism = new RenderParallelism(true, 4, 4);
+        RenderingService parallel = new RenderingService(renderers, new RenderPlanCache(16 * 1024 * 1024),
+                Optional.empty(), Optional.empty(), Optional.of(parallelism));
+
+        // When
+        RenderReport report = new RenderReport();
+        String expected = sequential.planFor(page).toString();
+        String actual = parallel.planFor(page, report).toString();
+        parallelism.shutdown();
+
+        // Then
+        assertThat(actual).isEqualTo(expected);
+        assertThat(report.getNodesRendered() + report.getNodesReused()).isEqualTo(1 + 200 + 200 * 8);
+    }
+
+    @Test
+    void renderSite_ShouldServeFromRenderCache_WhenConfigIsIdentical() throws Exception {
+        // Given
+        RenderCache renderCache = new RenderCache(new SimpleMeterRegistry(), true, 1024 * 1024, 64 * 1024,
+                false, null, 0);
+        RenderingService renderingService = new RenderingService(registry, new RenderPlanCache(1024 * 1024),
+                Optional.empty(), Optional.of(renderCache), Optional.empty());
+
+        SiteConfig.ComponentNode rootNode = new SiteConfig.ComponentNode();
+        rootNode.setType("text");
+        stubOutput(textRenderer, rootNode, "<p>Cached</p>");
+
+        SiteConfig siteConfig = new SiteConfig();
+        siteConfig.setTitle("Cache");
+        siteConfig.setRoot(rootNode);
+
+        // When
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        renderingService.renderSite(siteConfig, first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        renderingService.renderSite(siteConfig, second);
+        String asString = renderingService.renderSite(siteConfig);
+
+        // Then
+        assertThat(second.toByteArray()).isEqualTo(first.toByteArray());
+        assertThat(asString).isEqualTo(first.toString(StandardCharsets.UTF_8));
+        verify(textRenderer, times(1)).render(eq(rootNode), any(Appendable.class), any(RenderingService.class));
+    }
+
+    @Test
+    void renderBatch_ShouldReturnResultPerItem_WhenOneItemFails() throws Exception {
+        // Given
+        SiteConfig.ComponentNode rootNode = new SiteConfig.ComponentNode();
+        rootNode.setType("text");
+        stubOutput(textRenderer, rootNode, "<p>Batch</p>");
+        SiteConfig siteConfig = new SiteConfig();
+        siteConfig.setTitle("Batch");
+        siteConfig.setRoot(rootNode);
+
+        BatchRenderRequest.Item ok = new BatchRenderRequest.Item();
+        ok.setProjectId(1L);
+        ok.setConfig(siteConfig);
+        BatchRenderRequest.Item missing = new BatchRenderRequest.Item();
+        missing.setProjectId(2L);
+        BatchRenderRequest request = new BatchRenderRequest();
+        request.setItems(List.of(ok, missing));
+
+        // When
+        BatchRenderResponse response = renderingService.renderBatch(request);
+
+        // Then
+        assertThat(response.getResults()).hasSize(2);
+        assertThat(response.getResults().get(0).isSuccess()).isTrue();
+        assertThat(response.getResults().get(0).getHtml()).contains("<p>Batch</p>");
+        assertThat(response.getResults().get(1).isSuccess()).isFalse();
+        assertThat(response.getResults().get(1).getProjectId()).isEqualTo(2L);
+    }
+
+    @Test
+    void utf8Length_ShouldMatchEncodedByteCount() {
+        for (String html : new String[] {"", "<p>Hi</p>", "<p>你好</p>", "caf\u00e9 \ud83d\ude00", "lone \ud83d surrogate"}) {
+            assertThat(RenderingService.utf8Length(html))
+                .isEqualTo(html.getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+}
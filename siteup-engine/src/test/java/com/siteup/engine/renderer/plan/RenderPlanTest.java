@@ -0,0 +1,34 @@
+package com.siteup.engine.renderer.plan;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RenderPlanTest {
+
+    @Test
+    void retainedFootprint_ShouldIncludeAllDescendants() {
+        // Given：父计划直接引用两个子计划，其中一个还有自己的子计划
+        RenderPlanBuilder leafBuilder = new RenderPlanBuilder();
+        leafBuilder.append("x".repeat(10_000));
+        RenderPlan leaf = leafBuilder.build();
+
+        RenderPlanBuilder childBuilder = new RenderPlanBuilder();
+        childBuilder.append("<div>");
+        childBuilder.child(leaf);
+        childBuilder.append("</div>");
+        RenderPlan child = childBuilder.build();
+
+        RenderPlanBuilder parentBuilder = new RenderPlanBuilder();
+        parentBuilder.child(child);
+        parentBuilder.child(leaf);
+        RenderPlan parent = parentBuilder.build();
+
+        // Then
+        assertThat(leaf.retainedFootprint()).isEqualTo(leaf.footprint());
+        assertThat(child.retainedFootprint()).isEqualTo(child.footprint() + leaf.footprint());
+        assertThat(parent.retainedFootprint())
+                .isEqualTo(parent.footprint() + child.retainedFootprint() + leaf.retainedFootprint());
+        assertThat(parent.footprint()).isLessThan(10_000);
+    }
+}
@@ -0,0 +1,48 @@
+package com.siteup.engine.renderer.plan;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Utf8SinkTest {
+
+    @Test
+    void append_ShouldMatchStringEncoding_ForAllCharacterRanges() throws Exception {
+        // ASCII、两字节、三字节（中文）、四字节（emoji 代理对）以及孤立代理项
+        String text = "<p>café 全栈开发者 🚀 \uD800x</p>";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (Utf8Sink sink = Utf8Sink.to(out)) {
+            // 代理对被拆到两次 append 中
+            int split = text.indexOf('\uDE80');
+            sink.append(text, 0, split);
+            sink.append(text, split, text.length());
+        }
+
+        assertThat(out.toByteArray()).isEqualTo(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void write_ShouldPreserveOrder_AcrossBufferFlushes() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] large = "x".repeat(20_000).getBytes(StandardCharsets.UTF_8);
+
+        try (Utf8Sink sink = Utf8Sink.to(out)) {
+            for (int i = 0; i < 2_000; i++) {
+                String chunk = "<li>" + i + "</li>";
+                sink.append(chunk);
+                expected.append(chunk);
+                if (i % 500 == 0) {
+                    sink.write(large);
+                    expected.append("x".repeat(20_000));
+                }
+            }
+        }
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(expected.toString());
+    }
+}
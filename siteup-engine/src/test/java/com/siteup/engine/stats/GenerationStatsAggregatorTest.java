@@ -0,0 +1,190 @@
+package com.siteup.engine.stats;
+
+import com.siteup.engine.model.GenerationHistory;
+import com.siteup.engine.model.GenerationStatsRollup;
+import com.siteup.engine.repository.GenerationStatsRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GenerationStatsAggregatorTest {
+
+    @Mock
+    private GenerationStatsRollupRepository repository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private GenerationStatsAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new GenerationStatsAggregator(repository, jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), false);
+    }
+
+    private static GenerationHistory history(long projectId, int durationMs, boolean success) {
+        GenerationHistory history = new GenerationHistory();
+        history.setProjectId(projectId);
+        history.setTemplateId("template-001");
+        history.setGeneratedAt(LocalDateTime.of(2024, 1, 14, 10, 30, 15));
+        history.setSuccess(success);
+        history.setDurationMs(success ? durationMs : null);
+        history.setHtmlSizeKb(BigDecimal.valueOf(4));
+        return history;
+    }
+
+    @Test
+    void total_ShouldServePercentiles_FromPendingDeltas() {
+        // Given
+        when(repository.findByScopeAndScopeKeyAndGranularityAndBucketStart(anyString(), anyString(), anyString(), any()))
+                .thenReturn(Optional.empty());
+        for (int i = 1; i <= 100; i++) {
+            aggregator.record(history(1L, i * 10, true));
+        }
+        aggregator.record(history(2L, 0, false));
+
+        // When
+        StatsSnapshot global = aggregator.total(GenerationStatsAggregator.Scope.GLOBAL, null);
+        StatsSnapshot project = aggregator.total(GenerationStatsAggregator.Scope.PROJECT, "2");
+
+        // Then
+        assertThat(global.getTotalGenerations()).isEqualTo(101);
+        assertThat(global.getFailedGenerations()).isEqualTo(1);
+        assertThat(global.getAverageGenerationTimeMs()).isEqualTo(505.0);
+        // 对数分桶的相对误差约 ±10%
+        assertThat(global.getP50GenerationTimeMs()).isCloseTo(500.0, within(60.0));
+        assertThat(global.getP99GenerationTimeMs()).isCloseTo(990.0, within(110.0));
+        assertThat(global.getAverageHtmlSizeKb()).isEqualTo(4.0);
+        assertThat(project.getTotalGenerations()).isEqualTo(1);
+        assertThat(project.getSuccessRate()).isZero();
+    }
+
+    @Test
+    void flush_ShouldMergeDeltasIntoLockedRollupRows() {
+        // Given：累计桶已有 10 次成功（其他实例写入），其余桶为刚插入的空行
+        GenerationStatsRollup existing = new GenerationStatsRollup();
+        existing.setId(1L);
+        existing.setSuccessCount(10L);
+        existing.setDurationSumMs(1000L);
+        existing.setDurationHistogram("27:10");
+        when(jdbcTemplate.queryForObject(eq(GenerationStatsAggregator.LOCK_ROW_SQL), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    if ("GLOBAL".equals(invocation.getArgument(2)) && "TOTAL".equals(invocation.getArgument(4))) {
+                        return existing;
+                    }
+                    GenerationStatsRollup empty = new GenerationStatsRollup();
+                    empty.setId(2L);
+                    return empty;
+                });
+        List<Object[]> updates = new ArrayList<>();
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            if (GenerationStatsAggregator.UPDATE_ROW_SQL.equals(invocation.getArgument(0))) {
+                updates.add(Arrays.copyOfRange(invocation.getArguments(), 1, invocation.getArguments().length));
+            }
+            return 1;
+        });
+        aggregator.record(history(1L, 100, true));
+
+        // When
+        aggregator.flush();
+
+        // Then：3 个维度（全局/项目/模板）× 4 个粒度，每个桶先确保行存在再加锁合并
+        verify(jdbcTemplate, times(12)).update(eq(GenerationStatsAggregator.ENSURE_ROW_SQL), any(Object[].class));
+        assertThat(updates).hasSize(12);
+        Object[] total = updates.stream().filter(args -> Long.valueOf(1L).equals(args[7])).findFirst().orElseThrow();
+        assertThat(total[0]).isEqualTo(11L);
+        assertThat(total[2]).isEqualTo(1100L);
+        assertThat(LogHistogram.decode((String) total[4]).count()).isEqualTo(11);
+    }
+
+    @Test
+    void backfillIfEmpty_ShouldScanUpToBound_AndSkipLiveRecordsAtOrBelowIt() throws Exception {
+        // Given：启动时已有 100 条历史，汇总表为空，本实例认领回填
+        GenerationStatsAggregator backfilling = new GenerationStatsAggregator(repository, jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), true);
+        when(jdbcTemplate.queryForObject(GenerationStatsAggregator.MAX_HISTORY_ID_SQL, Long.class)).thenReturn(100L);
+        when(repository.count()).thenReturn(0L);
+        when(jdbcTemplate.update(eq(GenerationStatsAggregator.CLAIM_BACKFILL_SQL), any(Object[].class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(eq(GenerationStatsAggregator.BACKFILL_BOUND_SQL), eq(Long.class), any(Object[].class)))
+                .thenReturn(100L);
+        when(repository.findByScopeAndScopeKeyAndGranularityAndBucketStart(anyString(), anyString(), anyString(), any()))
+                .thenReturn(Optional.empty());
+        // 上界确定前写入的实时记录：id 100 已在回填范围内，id 101 不在
+        backfilling.record(withId(history(1L, 100, true), 100L));
+        backfilling.record(withId(history(1L, 100, true), 101L));
+
+        // When
+        backfilling.backfillIfEmpty();
+        backfilling.record(withId(history(1L, 100, true), 102L));
+
+        // Then
+        ArgumentCaptor<PreparedStatementCreator> scan = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(scan.capture(), any(RowCallbackHandler.class));
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(eq(GenerationStatsAggregator.BACKFILL_SQL), anyInt(), anyInt())).thenReturn(statement);
+        scan.getValue().createPreparedStatement(connection);
+        verify(statement).setLong(1, 100L);
+        assertThat(backfilling.total(GenerationStatsAggregator.Scope.GLOBAL, null).getTotalGenerations()).isEqualTo(2);
+    }
+
+    @Test
+    void backfillIfEmpty_ShouldNotScan_WhenAnotherInstanceClaimedBackfill() {
+        // Given
+        GenerationStatsAggregator follower = new GenerationStatsAggregator(repository, jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), true);
+        when(jdbcTemplate.queryForObject(GenerationStatsAggregator.MAX_HISTORY_ID_SQL, Long.class)).thenReturn(120L);
+        when(repository.count()).thenReturn(1L);
+        when(jdbcTemplate.update(eq(GenerationStatsAggregator.CLAIM_BACKFILL_SQL), any(Object[].class))).thenReturn(0);
+        when(jdbcTemplate.queryForObject(eq(GenerationStatsAggregator.BACKFILL_BOUND_SQL), eq(Long.class), any(Object[].class)))
+                .thenReturn(100L);
+        when(repository.findByScopeAndScopeKeyAndGranularityAndBucketStart(anyString(), anyString(), anyString(), any()))
+                .thenReturn(Optional.empty());
+        follower.record(withId(history(1L, 100, true), 90L));
+
+        // When
+        follower.backfillIfEmpty();
+        follower.record(withId(history(1L, 100, true), 110L));
+
+        // Then
+        verify(jdbcTemplate, never()).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        assertThat(follower.total(GenerationStatsAggregator.Scope.GLOBAL, null).getTotalGenerations()).isEqualTo(1);
+    }
+
+    private static GenerationHistory withId(GenerationHistory history, long id) {
+        history.setId(id);
+        return history;
+    }
+}
@@ -0,0 +1,199 @@
+package com.siteup.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 已发布页面的网关缓存
+ *
+ * - 按内存字节数限制容量，淘汰策略为 Caffeine 的 W-TinyLFU，偶发访问不会挤掉热门页面；
+ * - 同一页面（项目 + 编码）并发未命中时只向 biz 发起一次请求，其余请求等待同一结果；
+ * - 超过 fresh-seconds 后先返回旧内容，同时后台用 If-None-Match 重新验证（stale-while-revalidate），
+ *   重新验证失败时继续使用旧内容，超过 fresh-seconds + stale-seconds 后必须重新获取；
+ * - biz 发布后调用 {@link #invalidate(Collection)} 立即失效，缓存的 ETag 与 biz 一致；
+ * - 404 与超过 max-page-bytes 的页面以空标记缓存 negative-seconds，期间不再向 biz 获取：
+ *   404 直接返回，过大的页面直接走普通转发。
+ */
+@Component
+public class PublishedPageCache {
+
+    static final String UPSTREAM_URL = "http://siteup-biz/api/v1/generated/{projectId}";
+
+    /**
+     * 缓存按客户端可接受的编码分开存放，与 biz 的预压缩变体对应
+     */
+    public static final String BROTLI = "br";
+    public static final String GZIP = "gzip";
+    public static final String IDENTITY = "identity";
+    private static final List<String> ENCODINGS = List.of(BROTLI, GZIP, IDENTITY);
+
+    private static final List<String> CACHED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING, HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL, HttpHeaders.VARY);
+
+    private final WebClient webClient;
+    private final int maxPageBytes;
+    private final AsyncLoadingCache<Key, Page> pages;
+
+    public PublishedPageCache(WebClient.Builder webClientBuilder,
+                              @Value("${gateway.page-cache.max-bytes:268435456}") long maxBytes,
+                              @Value("${gateway.page-cache.max-page-bytes:2097152}") int maxPageBytes,
+                              @Value("${gateway.page-cache.fresh-seconds:60}") long freshSeconds,
+                              @Value("${gateway.page-cache.stale-seconds:600}") long staleSeconds,
+                              @Value("${gateway.page-cache.negative-seconds:30}") long negativeSeconds) {
+        // 没有 Content-Length 的超大页面读取时报错，同样记为过大
+        this.webClient = webClientBuilder.clone()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxPageBytes))
+                .build();
+        this.maxPageBytes = maxPageBytes;
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Page page) -> page.body().length)
+                .refreshAfterWrite(Duration.ofSeconds(freshSeconds))
+                .expireAfter(new PageExpiry(Duration.ofSeconds(freshSeconds + staleSeconds).toNanos(),
+                        Duration.ofSeconds(negativeSeconds).toNanos()))
+                .recordStats()
+                .buildAsync(new PageLoader());
+    }
+
+    /**
+     * 读取页面，未命中时从 biz 获取
+     *
+     * @return 页面，或 {@link Page.Kind#NOT_FOUND} / {@link Page.Kind#TOO_LARGE} 标记；biz 不可用时报错
+     */
+    public Mono<Page> get(Long projectId, String encoding) {
+        return Mono.fromFuture(() -> pages.get(new Key(projectId, encoding)), true);
+    }
+
+    /**
+     * 失效指定项目的所有编码版本
+     */
+    public void invalidate(Collection<Long> projectIds) {
+        for (Long projectId : projectIds) {
+            for (String encoding : ENCODINGS) {
+                pages.synchronous().invalidate(new Key(projectId, encoding));
+            }
+        }
+    }
+
+    public long size() {
+        return pages.synchronous().estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return pages.synchronous().stats();
+    }
+
+    private Mono<Page> fetch(Key key, Page previous) {
+        return webClient.get()
+                .uri(UPSTREAM_URL, key.projectId())
+                .headers(headers -> {
+                    headers.set(HttpHeaders.ACCEPT_ENCODING, key.encoding());
+                    if (previous != null && previous.etag() != null) {
+                        headers.setIfNoneMatch(previous.etag());
+                    }
+                })
+                .exchangeToMono(response -> toPage(response, previous));
+    }
+
+    private Mono<Page> toPage(ClientResponse response, Page previous) {
+        HttpStatus status = HttpStatus.resolve(response.statusCode().value());
+        if (status == HttpStatus.NOT_MODIFIED && previous != null) {
+            return response.releaseBody().thenReturn(previous);
+        }
+        if (status == HttpStatus.NOT_FOUND) {
+            return response.releaseBody().thenReturn(Page.NOT_FOUND_MARKER);
+        }
+        if (status != HttpStatus.OK) {
+            return response.createError();
+        }
+        if (response.headers().contentLength().orElse(0) > maxPageBytes) {
+            return response.releaseBody().thenReturn(Page.TOO_LARGE_MARKER);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : CACHED_HEADERS) {
+            List<String> values = response.headers().header(name);
+            if (!values.isEmpty()) {
+                headers.put(name, values);
+            }
+        }
+        return response.bodyToMono(byte[].class)
+                .defaultIfEmpty(new byte[0])
+                .map(body -> new Page(Page.Kind.OK, body, HttpHeaders.readOnlyHttpHeaders(headers)))
+                .onErrorResume(DataBufferLimitException.class, e -> Mono.just(Page.TOO_LARGE_MARKER));
+    }
+
+    private class PageLoader implements AsyncCacheLoader<Key, Page> {
+
+        @Override
+        public CompletableFuture<? extends Page> asyncLoad(Key key, Executor executor) {
+            return fetch(key, null).toFuture();
+        }
+
+        /**
+         * 后台重新验证：304 时沿用旧内容，404 时替换为 404 标记，出错时 Caffeine 保留旧内容
+         */
+        @Override
+        public CompletableFuture<? extends Page> asyncReload(Key key, Page oldValue, Executor executor) {
+            return fetch(key, oldValue).toFuture();
+        }
+    }
+
+    record Key(Long projectId, String encoding) {
+    }
+
+    /**
+     * 页面保留 fresh-seconds + stale-seconds，404 与过大标记只保留 negative-seconds
+     */
+    private record PageExpiry(long pageNanos, long negativeNanos) implements Expiry<Key, Page> {
+
+        @Override
+        public long expireAfterCreate(Key key, Page page, long currentTime) {
+            return page.kind() == Page.Kind.OK ? pageNanos : negativeNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, Page page, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, page, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, Page page, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * 缓存的页面：完整响应体和需要回放的响应头；NOT_FOUND / TOO_LARGE 为不含内容的标记
+     */
+    public record Page(Kind kind, byte[] body, HttpHeaders headers) {
+
+        static final Page NOT_FOUND_MARKER = new Page(Kind.NOT_FOUND, new byte[0], HttpHeaders.EMPTY);
+        static final Page TOO_LARGE_MARKER = new Page(Kind.TOO_LARGE, new byte[0], HttpHeaders.EMPTY);
+
+        public enum Kind {
+            OK, NOT_FOUND, TOO_LARGE
+        }
+
+        public String etag() {
+            return headers.getETag();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.siteup.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 网关的 token 验证结果缓存
+ *
+ * - 以 token 的 SHA-256 为键，内存中不保存原始 token；
+ * - 有效结果最多缓存 ttl-seconds，且不超过 token 的 expiresAt；无效结果缓存 negative-ttl-seconds；
+ * - 同一 token 并发未命中时只调用一次 siteup-auth，调用失败不缓存；
+ * - siteup-auth 登出时推送被撤销 token 的哈希（{@link #revoke(Collection)}），登出立即生效。
+ */
+@Component
+public class TokenVerificationCache {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final AsyncCache<String, Map<String, Object>> results;
+
+    public TokenVerificationCache(@Value("${gateway.auth.token-cache.max-entries:100000}") long maxEntries,
+                                  @Value("${gateway.auth.token-cache.ttl-seconds:60}") long ttlSeconds,
+                                  @Value("${gateway.auth.token-cache.negative-ttl-seconds:10}") long negativeTtlSeconds) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new ResultExpiry(Duration.ofSeconds(ttlSeconds).toNanos(),
+                        Duration.ofSeconds(negativeTtlSeconds).toNanos()))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * 读取 token 的验证结果，未命中时调用 verifier
+     */
+    public Mono<Map<String, Object>> verify(String token, Supplier<Mono<Map<String, Object>>> verifier) {
+        String key = hash(token);
+        return Mono.fromFuture(() -> results.get(key, (k, executor) -> verifier.get().toFuture()), true);
+    }
+
+    /**
+     * 撤销 token（参数为 token 的 SHA-256 十六进制）
+     */
+    public void revoke(Collection<String> tokenHashes) {
+        results.synchronous().invalidateAll(tokenHashes);
+    }
+
+    public long size() {
+        return results.synchronous().estimatedSize();
+    }
+
+    public double hitRate() {
+        return results.synchronous().stats().hitRate();
+    }
+
+    public static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HEX.formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record ResultExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<String, Map<String, Object>> {
+
+        @Override
+        public long expireAfterCreate(String key, Map<String, Object> result, long currentTime) {
+            if (!Boolean.TRUE.equals(result.get("valid"))) {
+                return negativeTtlNanos;
+            }
+            if (result.get("expiresAt") instanceof Number expiresAt) {
+                long remaining = Duration.ofMillis(expiresAt.longValue() - System.currentTimeMillis()).toNanos();
+                return Math.max(0, Math.min(ttlNanos, remaining));
+            }
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Map<String, Object> result, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, result, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Map<String, Object> result, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
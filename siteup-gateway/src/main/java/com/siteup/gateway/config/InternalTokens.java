@@ -0,0 +1,25 @@
+package com.siteup.gateway.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * X-Internal-Token check for the gateway's /internal/** endpoints.
+ * Fails closed: when no token is configured every request is refused.
+ */
+public final class InternalTokens {
+
+    public static final String HEADER = "X-Internal-Token";
+
+    private InternalTokens() {
+    }
+
+    public static boolean matches(String configured, String presented) {
+        if (configured == null || configured.isEmpty() || presented == null) {
+            return false;
+        }
+        // constant-time comparison, so the token cannot be guessed byte by byte from response timing
+        return MessageDigest.isEqual(configured.getBytes(StandardCharsets.UTF_8),
+                presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
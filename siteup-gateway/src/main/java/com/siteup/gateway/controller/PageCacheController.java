@@ -0,0 +1,67 @@
+package com.siteup.gateway.controller;
+
+import com.siteup.gateway.cache.PublishedPageCache;
+import com.siteup.gateway.config.InternalTokens;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 已发布页面缓存的内部接口，biz 发布后调用以立即失效
+ *
+ * 只接受内网请求（InternalEndpointFilter），且必须携带与 invalidation-token 一致的 X-Internal-Token；
+ * 未配置 token 时所有请求返回 403。
+ */
+@RestController
+public class PageCacheController {
+
+    private final PublishedPageCache cache;
+
+    @Value("${gateway.page-cache.invalidation-token:}")
+    private String invalidationToken;
+
+    public PageCacheController(PublishedPageCache cache) {
+        this.cache = cache;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (invalidationToken.isEmpty()) {
+            System.err.println("gateway.page-cache.invalidation-token is not set, /internal/page-cache/** will refuse all requests");
+        }
+    }
+
+    @PostMapping("/internal/page-cache/invalidate")
+    public ResponseEntity<Map<String, Object>> invalidate(
+            @RequestHeader(value = InternalTokens.HEADER, required = false) String token,
+            @RequestBody Map<String, List<Long>> body) {
+        if (!InternalTokens.matches(invalidationToken, token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        List<Long> projectIds = body.getOrDefault("projectIds", List.of());
+        cache.invalidate(projectIds);
+        return ResponseEntity.ok(Map.of("invalidated", projectIds.size()));
+    }
+
+    @GetMapping("/internal/page-cache/stats")
+    public ResponseEntity<Map<String, Object>> stats(
+            @RequestHeader(value = InternalTokens.HEADER, required = false) String token) {
+        if (!InternalTokens.matches(invalidationToken, token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(Map.of(
+            "size", cache.size(),
+            "hitRate", cache.stats().hitRate(),
+            "evictions", cache.stats().evictionCount()
+        ));
+    }
+}
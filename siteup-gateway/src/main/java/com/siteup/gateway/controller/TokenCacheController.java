@@ -0,0 +1,82 @@
+package com.siteup.gateway.controller;
+
+import com.siteup.gateway.cache.TokenVerificationCache;
+import com.siteup.gateway.config.InternalTokens;
+import com.siteup.gateway.filter.SignedTokenVerifier;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * token 验证缓存的内部接口，siteup-auth 登出时调用以撤销缓存的验证结果和签名 token
+ *
+ * 必须携带与 revocation-token 一致的 X-Internal-Token（未配置时一律 403），
+ * 单次请求的条目数不超过 max-revocations-per-request，避免撤销列表被无限写入。
+ */
+@RestController
+public class TokenCacheController {
+
+    private final TokenVerificationCache tokenCache;
+    private final SignedTokenVerifier signedTokenVerifier;
+
+    @Value("${gateway.auth.token-cache.revocation-token:}")
+    private String revocationToken;
+
+    @Value("${gateway.auth.token-cache.max-revocations-per-request:1000}")
+    private int maxPerRequest;
+
+    public TokenCacheController(TokenVerificationCache tokenCache, SignedTokenVerifier signedTokenVerifier) {
+        this.tokenCache = tokenCache;
+        this.signedTokenVerifier = signedTokenVerifier;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (revocationToken.isEmpty()) {
+            System.err.println("gateway.auth.token-cache.revocation-token is not set, /internal/token-cache/** will refuse all requests");
+        }
+    }
+
+    @PostMapping("/internal/token-cache/revoke")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<Map<String, Object>> revoke(
+            @RequestHeader(value = InternalTokens.HEADER, required = false) String token,
+            @RequestBody Map<String, Object> body) {
+        if (!InternalTokens.matches(revocationToken, token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        List<String> tokenHashes = (List<String>) body.getOrDefault("tokenHashes", List.of());
+        List<String> jtis = (List<String>) body.getOrDefault("jtis", List.of());
+        Map<String, Number> jtiExpiresAt = (Map<String, Number>) body.getOrDefault("jtiExpiresAt", Map.of());
+        if (tokenHashes.size() + Math.max(jtis.size(), jtiExpiresAt.size()) > maxPerRequest) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of(
+                "message", "At most " + maxPerRequest + " entries per request"
+            ));
+        }
+        // 签名token先加入撤销列表，再清除缓存，避免重新验证时又被接受
+        signedTokenVerifier.revoke(jtis, jtiExpiresAt);
+        tokenCache.revoke(tokenHashes);
+        return ResponseEntity.ok(Map.of("revoked", tokenHashes.size()));
+    }
+
+    @GetMapping("/internal/token-cache/stats")
+    public ResponseEntity<Map<String, Object>> stats(
+            @RequestHeader(value = InternalTokens.HEADER, required = false) String token) {
+        if (!InternalTokens.matches(revocationToken, token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(Map.of(
+            "size", tokenCache.size(),
+            "hitRate", tokenCache.hitRate()
+        ));
+    }
+}
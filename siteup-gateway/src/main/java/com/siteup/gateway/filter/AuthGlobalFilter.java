@@ -1,5 +1,6 @@
 package com.siteup.gateway.filter;
 
+import com.siteup.gateway.cache.TokenVerificationCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
@@ -26,25 +27,39 @@ import java.util.UUID;
 @Component
 public class AuthGlobalFilter implements GlobalFilter, Ordered {
 
-    private final WebClient.Builder webClientBuilder;
+    private static final String ADMIN_ROLE = "ROLE_ADMIN";
+
+    private final WebClient webClient;
+    private final TokenVerificationCache tokenCache;
+    private final SignedTokenVerifier signedTokenVerifier;
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
-    @Value("${gateway.auth.excluded-paths:/api/v1/auth/register,/api/v1/auth/login,/api/v1/auth/verify,/api/v1/generated/**,/api/v1/templates/**}")
+    @Value("${gateway.auth.excluded-paths:/api/v1/auth/register,/api/v1/auth/login,/api/v1/auth/verify,/api/v1/auth/keys,/api/v1/generated/**,/api/v1/templates/**}")
     private String excludedPathsStr;
 
+    @Value("${gateway.auth.admin-paths:/api/v1/templates/*/republish,/api/v1/republish-runs/**}")
+    private String adminPathsStr;
+
     @Value("${gateway.auth.engine-internal-only:true}")
     private boolean engineInternalOnly;
 
     private List<String> excludedPaths;
-
-    public AuthGlobalFilter(WebClient.Builder webClientBuilder) {
-        this.webClientBuilder = webClientBuilder;
+    private List<String> adminPaths;
+
+    public AuthGlobalFilter(WebClient.Builder webClientBuilder,
+                            TokenVerificationCache tokenCache,
+                            SignedTokenVerifier signedTokenVerifier) {
+        // WebClient 是线程安全的，只构建一次，避免每个请求重新组装编解码器和过滤器
+        this.webClient = webClientBuilder.build();
+        this.tokenCache = tokenCache;
+        this.signedTokenVerifier = signedTokenVerifier;
     }
 
     @PostConstruct
     public void init() {
         // 在@PostConstruct中@Value已经注入完成，可以安全使用
         this.excludedPaths = Arrays.asList(excludedPathsStr.split(","));
+        this.adminPaths = adminPathsStr.isBlank() ? List.of() : Arrays.asList(adminPathsStr.split(","));
         // 调试：打印加载的配置
         System.out.println("AuthGlobalFilter initialized with excludedPaths: " + excludedPaths);
         System.out.println("AuthGlobalFilter engineInternalOnly: " + engineInternalOnly);
@@ -62,8 +77,13 @@ public class AuthGlobalFilter implements GlobalFilter, Ordered {
             ? UUID.randomUUID().toString()
             : rawRequestId;
 
-        // 更新请求头，添加请求ID
+        // 更新请求头，添加请求ID；用户头只能由网关写入，移除客户端伪造的值
         ServerHttpRequest mutatedRequest = request.mutate()
+            .headers(headers -> {
+                headers.remove("X-User-Id");
+                headers.remove("X-User-Name");
+                headers.remove("X-User-Role");
+            })
             .header("X-Request-Id", requestId)
             .build();
         ServerWebExchange mutatedExchange = exchange.mutate().request(mutatedRequest).build();
@@ -75,7 +95,8 @@ public class AuthGlobalFilter implements GlobalFilter, Ordered {
         }
 
         // 检查是否需要鉴权
-        if (!requiresAuthentication(path, method)) {
+        boolean adminOnly = requiresAdmin(path, method);
+        if (!adminOnly && !requiresAuthentication(path, method)) {
             System.out.println("[" + requestId + "] Skipping auth for path: " + path);
             return chain.filter(mutatedExchange);
         }
@@ -87,8 +108,12 @@ public class AuthGlobalFilter implements GlobalFilter, Ordered {
             return unauthorizedResponse(mutatedExchange.getResponse(), "Missing or invalid Authorization header");
         }
 
-        // 使用WebClient进行异步token验证
-        return verifyToken(authHeader, requestId)
+        // 先查验证结果缓存；未命中时签名token在本地验证，其余使用WebClient异步验证
+        String token = authHeader.substring(7);
+        return tokenCache.verify(token, () -> {
+                Map<String, Object> local = signedTokenVerifier.verify(token);
+                return local != null ? Mono.just(local) : verifyToken(authHeader, requestId);
+            })
             .flatMap(verifyResult -> {
                 Boolean isValid = (Boolean) verifyResult.getOrDefault("valid", false);
                 if (Boolean.TRUE.equals(isValid)) {
@@ -102,8 +127,14 @@ public class AuthGlobalFilter implements GlobalFilter, Ordered {
 
                     System.out.println("[" + requestId + "] Token valid for user: " + username + " (role: " + role + ")");
 
+                    if (adminOnly && !ADMIN_ROLE.equals(role)) {
+                        System.out.println("[" + requestId + "] Admin role required for path: " + path);
+                        return errorResponse(mutatedExchange.getResponse(), HttpStatus.FORBIDDEN,
+                            "Admin role required", "FORBIDDEN");
+                    }
+
                     // 为路由到业务服务添加用户头
-                    ServerHttpRequest authRequest = request.mutate()
+                    ServerHttpRequest authRequest = mutatedRequest.mutate()
                         .header("X-User-Id", userId)
                         .header("X-User-Name", username)
                         .header("X-User-Role", role)
@@ -141,7 +172,7 @@ public class AuthGlobalFilter implements GlobalFilter, Ordered {
 
         System.out.println("[" + requestId + "] Verifying token with auth service: " + verifyUrl);
 
-        return webClientBuilder.build()
+        return webClient
             .post()
             .uri(verifyUrl)
             .header(HttpHeaders.AUTHORIZATION, authHeader)
@@ -151,6 +182,21 @@ public class AuthGlobalFilter implements GlobalFilter, Ordered {
             .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {});
     }
 
+    /**
+     * 检查路径是否仅限管理员（优先于排除路径，例如模板下的批量重新发布）
+     */
+    private boolean requiresAdmin(String path, String method) {
+        if (HttpMethod.OPTIONS.name().equals(method)) {
+            return false;
+        }
+        for (String adminPath : adminPaths) {
+            if (pathMatcher.match(adminPath.trim(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 检查路径是否需要鉴权
      */
@@ -175,12 +221,16 @@ public class AuthGlobalFilter implements GlobalFilter, Ordered {
      * 返回401未授权响应
      */
     private Mono<Void> unauthorizedResponse(ServerHttpResponse response, String message) {
-        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        return errorResponse(response, HttpStatus.UNAUTHORIZED, message, "UNAUTHORIZED");
+    }
+
+    private Mono<Void> errorResponse(ServerHttpResponse response, HttpStatus status, String message, String code) {
+        response.setStatusCode(status);
         response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
 
         String jsonResponse = String.format(
-            "{\"success\": false, \"message\": \"%s\", \"code\": \"UNAUTHORIZED\"}",
-            message.replace("\"", "\\\"")
+            "{\"success\": false, \"message\": \"%s\", \"code\": \"%s\"}",
+            message.replace("\"", "\\\""), code
         );
 
         return response.writeWith(
@@ -0,0 +1,108 @@
+package com.siteup.gateway.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 限制 /internal/** 只能从内网访问
+ *
+ * 这些接口由网关本地的 Controller 处理，不经过 GlobalFilter（包括 AuthGlobalFilter），
+ * 因此在 WebFilter 层按来源地址拦截：不在 gateway.internal.allowed-networks 内的请求直接返回 403。
+ * 各接口另外校验 X-Internal-Token（未配置时一律拒绝）。
+ */
+@Component
+public class InternalEndpointFilter implements WebFilter, Ordered {
+
+    static final String INTERNAL_PREFIX = "/internal/";
+
+    private final List<Network> allowedNetworks = new ArrayList<>();
+
+    public InternalEndpointFilter(
+            @Value("${gateway.internal.allowed-networks:127.0.0.0/8,::1/128,10.0.0.0/8,172.16.0.0/12,192.168.0.0/16}")
+            String allowedNetworks) {
+        for (String cidr : allowedNetworks.split(",")) {
+            if (!cidr.isBlank()) {
+                this.allowedNetworks.add(Network.parse(cidr.trim()));
+            }
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith(INTERNAL_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        if (remote == null || remote.getAddress() == null || !isAllowed(remote.getAddress())) {
+            System.out.println("Rejected internal request from " + remote + ": " + exchange.getRequest().getPath());
+            exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange);
+    }
+
+    boolean isAllowed(InetAddress address) {
+        for (Network network : allowedNetworks) {
+            if (network.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    /**
+     * CIDR 网段，例如 10.0.0.0/8、::1/128
+     */
+    record Network(byte[] prefix, int bits) {
+
+        static Network parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            try {
+                byte[] address = InetAddress.getByName(slash < 0 ? cidr : cidr.substring(0, slash)).getAddress();
+                int bits = slash < 0 ? address.length * 8 : Integer.parseInt(cidr.substring(slash + 1));
+                if (bits < 0 || bits > address.length * 8) {
+                    throw new IllegalArgumentException("Invalid network: " + cidr);
+                }
+                return new Network(address, bits);
+            } catch (UnknownHostException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid network: " + cidr, e);
+            }
+        }
+
+        boolean contains(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length != prefix.length) {
+                return false;
+            }
+            int fullBytes = bits / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (bytes[i] != prefix[i]) {
+                    return false;
+                }
+            }
+            int rest = bits % 8;
+            if (rest == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - rest);
+            return (bytes[fullBytes] & mask) == (prefix[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.siteup.gateway.filter;
+
+import com.siteup.gateway.cache.PublishedPageCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 已发布页面（/api/v1/generated/{projectId}）的网关缓存过滤器
+ *
+ * 命中时直接由网关返回，不经过 biz；If-None-Match 与缓存的 ETag 一致时返回 304，已缓存的 404 直接返回。
+ * 缓存不可用（biz 出错、页面超过单页上限）时回退到普通路由转发。
+ */
+@Component
+public class PublishedPageCacheFilter implements GlobalFilter, Ordered {
+
+    private static final Pattern PAGE_PATH = Pattern.compile("^/api/v1/generated/(\\d{1,18})$");
+
+    private final PublishedPageCache cache;
+
+    @Value("${gateway.page-cache.enabled:true}")
+    private boolean enabled;
+
+    public PublishedPageCacheFilter(PublishedPageCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpMethod method = request.getMethod();
+        if (!enabled || (method != HttpMethod.GET && method != HttpMethod.HEAD)) {
+            return chain.filter(exchange);
+        }
+        Matcher matcher = PAGE_PATH.matcher(request.getPath().value());
+        if (!matcher.matches()) {
+            return chain.filter(exchange);
+        }
+
+        Long projectId = Long.valueOf(matcher.group(1));
+        String encoding = preferredEncoding(request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+        return cache.get(projectId, encoding)
+            .map(page -> switch (page.kind()) {
+                case OK -> Mono.defer(() -> writePage(exchange, page));
+                case NOT_FOUND -> Mono.defer(() -> notFound(exchange.getResponse()));
+                case TOO_LARGE -> Mono.defer(() -> chain.filter(exchange));
+            })
+            .onErrorResume(e -> {
+                System.out.println("Page cache bypassed for project " + projectId + ": " + e.getMessage());
+                return Mono.just(chain.filter(exchange));
+            })
+            .flatMap(response -> response);
+    }
+
+    private Mono<Void> writePage(ServerWebExchange exchange, PublishedPageCache.Page page) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(page.headers());
+
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        if (page.etag() != null && (ifNoneMatch.contains(page.etag()) || ifNoneMatch.contains("*"))) {
+            response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+            response.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentLength(page.body().length);
+        if (request.getMethod() == HttpMethod.HEAD) {
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(page.body())));
+    }
+
+    private Mono<Void> notFound(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.NOT_FOUND);
+        return response.setComplete();
+    }
+
+    /**
+     * 按 biz 的预压缩变体归类客户端的 Accept-Encoding：br 优先，其次 gzip，否则不压缩
+     */
+    static String preferredEncoding(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return PublishedPageCache.IDENTITY;
+        }
+        boolean gzip = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            if (tokens.length > 1 && tokens[1].trim().matches("q=0(\\.0*)?")) {
+                continue;
+            }
+            if (PublishedPageCache.BROTLI.equals(coding)) {
+                return PublishedPageCache.BROTLI;
+            }
+            if (PublishedPageCache.GZIP.equals(coding)) {
+                gzip = true;
+            }
+        }
+        return gzip ? PublishedPageCache.GZIP : PublishedPageCache.IDENTITY;
+    }
+
+    @Override
+    public int getOrder() {
+        // 在鉴权过滤器之后、路由转发之前执行
+        return -90;
+    }
+}
@@ -0,0 +1,179 @@
+package com.siteup.gateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在网关本地验证 siteup-auth 签发的签名 token（st1.kid.payload.signature，Ed25519）
+ *
+ * - 公钥和已撤销的 jti 定期从 /api/v1/auth/keys 拉取，验证不再调用 siteup-auth；
+ * - 遇到未知 kid（密钥刚轮换）时立即刷新一次，本次交给 siteup-auth 远程验证；
+ * - 登出时 siteup-auth 推送 jti，撤销立即生效，定期拉取负责补齐遗漏的推送；
+ * - 撤销记录按 jti -> token 过期时间保存，只按过期时间清理，不用拉取到的快照整体替换：
+ *   刷新期间推送进来的 jti 不在快照中，替换会把它丢掉。
+ */
+@Component
+public class SignedTokenVerifier {
+
+    static final String PREFIX = "st1.";
+    static final String KEYS_URL = "http://siteup-auth/api/v1/auth/keys";
+
+    /**
+     * 未带过期时间的撤销记录（旧版 siteup-auth）保留的时长，不短于签名 token 的有效期即可
+     */
+    static final long UNKNOWN_EXPIRY_SECONDS = TimeUnit.DAYS.toSeconds(1);
+
+    private static final Base64.Decoder B64URL = Base64.getUrlDecoder();
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService refresher;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>(); // jti -> token 过期时间（epoch 秒）
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long lastRefresh;
+
+    @Value("${gateway.auth.signed-token.refresh-seconds:30}")
+    private long refreshSeconds;
+
+    public SignedTokenVerifier(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
+        this.webClient = webClientBuilder.build();
+        this.objectMapper = objectMapper;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "signed-token-keys");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PostConstruct
+    public void init() {
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 验证签名 token
+     *
+     * @return 与 /api/v1/auth/verify 相同结构的结果；不是签名 token 或 kid 未知时返回 null（应远程验证）
+     */
+    public Map<String, Object> verify(String token) {
+        if (token == null || !token.startsWith(PREFIX)) {
+            return null;
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 4) {
+            return invalid("Invalid token");
+        }
+        PublicKey key = keys.get(parts[1]);
+        if (key == null) {
+            // 密钥刚轮换：最多每秒触发一次额外刷新
+            if (System.currentTimeMillis() - lastRefresh > 1000) {
+                lastRefresh = System.currentTimeMillis();
+                refresher.execute(this::refresh);
+            }
+            return null;
+        }
+        try {
+            Signature signature = Signature.getInstance("Ed25519");
+            signature.initVerify(key);
+            signature.update((parts[0] + "." + parts[1] + "." + parts[2]).getBytes(StandardCharsets.US_ASCII));
+            if (!signature.verify(B64URL.decode(parts[3]))) {
+                return invalid("Invalid token");
+            }
+            Map<?, ?> payload = objectMapper.readValue(B64URL.decode(parts[2]), Map.class);
+            long expiresAt = ((Number) payload.get("exp")).longValue() * 1000;
+            if (expiresAt <= System.currentTimeMillis()) {
+                return invalid("Token expired");
+            }
+            if (revoked.containsKey(String.valueOf(payload.get("jti")))) {
+                return invalid("Token revoked");
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("valid", true);
+            result.put("message", "Token is valid");
+            result.put("userId", payload.get("uid"));
+            result.put("username", payload.get("sub"));
+            result.put("role", payload.get("role"));
+            result.put("expiresAt", expiresAt);
+            return result;
+        } catch (Exception e) {
+            return invalid("Invalid token");
+        }
+    }
+
+    /**
+     * @param jtis      撤销的 jti
+     * @param expiresAt jti -> token 过期时间（epoch 秒），缺失的按 UNKNOWN_EXPIRY_SECONDS 保留
+     */
+    public void revoke(Collection<String> jtis, Map<String, ? extends Number> expiresAt) {
+        long fallback = System.currentTimeMillis() / 1000 + UNKNOWN_EXPIRY_SECONDS;
+        for (String jti : jtis) {
+            Number exp = expiresAt.get(jti);
+            revoked.merge(jti, exp != null ? exp.longValue() : fallback, Math::max);
+        }
+        for (Map.Entry<String, ? extends Number> entry : expiresAt.entrySet()) {
+            revoked.merge(entry.getKey(), entry.getValue().longValue(), Math::max);
+        }
+    }
+
+    void refresh() {
+        lastRefresh = System.currentTimeMillis();
+        try {
+            Map<String, Object> keySet = webClient.get()
+                .uri(KEYS_URL)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .block(Duration.ofSeconds(5));
+            if (keySet != null) {
+                apply(keySet);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to refresh signed token keys: " + e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void apply(Map<String, Object> keySet) throws Exception {
+        Map<String, PublicKey> loaded = new HashMap<>();
+        KeyFactory keyFactory = KeyFactory.getInstance("Ed25519");
+        for (Map<String, Object> key : (List<Map<String, Object>>) keySet.getOrDefault("keys", List.of())) {
+            byte[] encoded = Base64.getDecoder().decode(String.valueOf(key.get("publicKey")));
+            loaded.put(String.valueOf(key.get("kid")), keyFactory.generatePublic(new X509EncodedKeySpec(encoded)));
+        }
+        keys = Map.copyOf(loaded);
+        // 合并快照后按过期时间清理，快照之后推送的 jti 不受影响
+        revoke((List<String>) keySet.getOrDefault("revoked", List.of()),
+            (Map<String, Number>) keySet.getOrDefault("revokedExpiresAt", Map.of()));
+        long now = System.currentTimeMillis() / 1000;
+        revoked.values().removeIf(exp -> exp <= now);
+    }
+
+    private static Map<String, Object> invalid(String message) {
+        return Map.of("valid", false, "message", message);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -0,0 +1,108 @@
+package com.siteup.gateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublishedPageCacheTest {
+
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+    private PublishedPageCache cache(Function<Integer, ClientResponse> responses, long freshSeconds) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            requests.add(request);
+            return Mono.just(responses.apply(requests.size()));
+        });
+        return new PublishedPageCache(builder, 1024 * 1024, 1024, freshSeconds, 600, 30);
+    }
+
+    private static ClientResponse page(String etag, String body) {
+        return ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.ETAG, etag)
+            .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(body.length()))
+            .header(HttpHeaders.CONTENT_TYPE, "text/html;charset=UTF-8")
+            .body(body)
+            .build();
+    }
+
+    @Test
+    void get_ShouldRevalidateWithETag_AndKeepPage_WhenBizAnswers304() throws Exception {
+        // Given
+        PublishedPageCache cache = cache(call -> call == 1
+            ? page("\"abc\"", "<html>v1</html>")
+            : ClientResponse.create(HttpStatus.NOT_MODIFIED).build(), 1);
+        PublishedPageCache.Page first = cache.get(1L, PublishedPageCache.IDENTITY).block();
+
+        // When：超过 fresh-seconds 后读取，返回旧内容并在后台重新验证
+        Thread.sleep(1_100);
+        PublishedPageCache.Page stale = cache.get(1L, PublishedPageCache.IDENTITY).block();
+        for (int i = 0; i < 100 && requests.size() < 2; i++) {
+            Thread.sleep(10);
+        }
+
+        // Then
+        assertThat(first.kind()).isEqualTo(PublishedPageCache.Page.Kind.OK);
+        assertThat(first.etag()).isEqualTo("\"abc\"");
+        assertThat(stale).isSameAs(first);
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(1).headers().getIfNoneMatch()).containsExactly("\"abc\"");
+        assertThat(cache.get(1L, PublishedPageCache.IDENTITY).block()).isSameAs(first);
+    }
+
+    @Test
+    void get_ShouldCacheNotFound() {
+        // Given
+        PublishedPageCache cache = cache(call -> ClientResponse.create(HttpStatus.NOT_FOUND).build(), 60);
+
+        // When
+        PublishedPageCache.Page first = cache.get(2L, PublishedPageCache.GZIP).block();
+        PublishedPageCache.Page second = cache.get(2L, PublishedPageCache.GZIP).block();
+
+        // Then
+        assertThat(first.kind()).isEqualTo(PublishedPageCache.Page.Kind.NOT_FOUND);
+        assertThat(second.kind()).isEqualTo(PublishedPageCache.Page.Kind.NOT_FOUND);
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    void get_ShouldRememberOversizePage_InsteadOfFetchingItAgain() {
+        // Given：Content-Length 超过 max-page-bytes（1024）
+        PublishedPageCache cache = cache(call -> page("\"big\"", "x".repeat(4096)), 60);
+
+        // When
+        PublishedPageCache.Page first = cache.get(3L, PublishedPageCache.BROTLI).block();
+        PublishedPageCache.Page second = cache.get(3L, PublishedPageCache.BROTLI).block();
+
+        // Then
+        assertThat(first.kind()).isEqualTo(PublishedPageCache.Page.Kind.TOO_LARGE);
+        assertThat(second.kind()).isEqualTo(PublishedPageCache.Page.Kind.TOO_LARGE);
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    void invalidate_ShouldDropNegativeEntries() {
+        // Given
+        PublishedPageCache cache = cache(call -> call == 1
+            ? ClientResponse.create(HttpStatus.NOT_FOUND).build()
+            : page("\"v2\"", "<html>published</html>"), 60);
+        cache.get(4L, PublishedPageCache.IDENTITY).block();
+
+        // When：发布后 biz 通知失效
+        cache.invalidate(List.of(4L));
+        PublishedPageCache.Page page = cache.get(4L, PublishedPageCache.IDENTITY).block();
+
+        // Then
+        assertThat(page.kind()).isEqualTo(PublishedPageCache.Page.Kind.OK);
+        assertThat(page.etag()).isEqualTo("\"v2\"");
+    }
+}
@@ -0,0 +1,75 @@
+package com.siteup.gateway.cache;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenVerificationCacheTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private Supplier<Mono<Map<String, Object>>> verifier(Map<String, Object> result) {
+        return () -> Mono.fromSupplier(() -> {
+            calls.incrementAndGet();
+            return result;
+        });
+    }
+
+    @Test
+    void verify_ShouldNotCacheValidResultPastTokenExpiry() throws Exception {
+        // Given：ttl-seconds 为 60，但 token 1 秒后过期
+        TokenVerificationCache cache = new TokenVerificationCache(100, 60, 10);
+        Map<String, Object> valid = Map.of("valid", true, "userId", 1L,
+            "expiresAt", System.currentTimeMillis() + 1_000);
+
+        // When
+        cache.verify("token-a", verifier(valid)).block();
+        cache.verify("token-a", verifier(valid)).block();
+        Thread.sleep(1_100);
+        cache.verify("token-a", verifier(valid)).block();
+
+        // Then
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void verify_ShouldCacheInvalidResult_UntilRevoked() {
+        // Given
+        TokenVerificationCache cache = new TokenVerificationCache(100, 60, 10);
+        Map<String, Object> invalid = Map.of("valid", false, "message", "Invalid token");
+
+        // When
+        cache.verify("token-b", verifier(invalid)).block();
+        Map<String, Object> cached = cache.verify("token-b", verifier(invalid)).block();
+        cache.revoke(List.of(TokenVerificationCache.hash("token-b")));
+        cache.verify("token-b", verifier(invalid)).block();
+
+        // Then
+        assertThat(cached).isEqualTo(invalid);
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void verify_ShouldNotCacheFailures() {
+        // Given
+        TokenVerificationCache cache = new TokenVerificationCache(100, 60, 10);
+
+        // When
+        Mono<Map<String, Object>> failing = cache.verify("token-c", () -> {
+            calls.incrementAndGet();
+            return Mono.error(new IllegalStateException("siteup-auth unavailable"));
+        });
+        Map<String, Object> result = failing.onErrorResume(e -> Mono.empty()).block();
+        cache.verify("token-c", verifier(Map.of("valid", true))).block();
+
+        // Then
+        assertThat(result).isNull();
+        assertThat(calls.get()).isEqualTo(2);
+    }
+}
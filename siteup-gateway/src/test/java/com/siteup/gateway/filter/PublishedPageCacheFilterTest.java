@@ -0,0 +1,81 @@
+package com.siteup.gateway.filter;
+
+import com.siteup.gateway.cache.PublishedPageCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PublishedPageCacheFilterTest {
+
+    @Test
+    void preferredEncoding_ShouldPreferBrotli_ThenGzip_AndSkipRejectedCodings() {
+        assertThat(PublishedPageCacheFilter.preferredEncoding(null)).isEqualTo(PublishedPageCache.IDENTITY);
+        assertThat(PublishedPageCacheFilter.preferredEncoding(" ")).isEqualTo(PublishedPageCache.IDENTITY);
+        assertThat(PublishedPageCacheFilter.preferredEncoding("gzip, deflate, br")).isEqualTo(PublishedPageCache.BROTLI);
+        assertThat(PublishedPageCacheFilter.preferredEncoding("GZIP")).isEqualTo(PublishedPageCache.GZIP);
+        assertThat(PublishedPageCacheFilter.preferredEncoding("br;q=0, gzip;q=0.5")).isEqualTo(PublishedPageCache.GZIP);
+        assertThat(PublishedPageCacheFilter.preferredEncoding("br;q=0.0, gzip;q=0")).isEqualTo(PublishedPageCache.IDENTITY);
+        assertThat(PublishedPageCacheFilter.preferredEncoding("deflate")).isEqualTo(PublishedPageCache.IDENTITY);
+    }
+
+    @Test
+    void filter_ShouldAnswer304FromCache_WhenETagMatches() {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc\"");
+        headers.set(HttpHeaders.CONTENT_TYPE, "text/html;charset=UTF-8");
+        PublishedPageCache.Page page = new PublishedPageCache.Page(PublishedPageCache.Page.Kind.OK,
+            "<html></html>".getBytes(StandardCharsets.UTF_8), headers);
+        PublishedPageCache cache = mock(PublishedPageCache.class);
+        when(cache.get(7L, PublishedPageCache.IDENTITY)).thenReturn(Mono.just(page));
+        GatewayFilterChain chain = mock(GatewayFilterChain.class);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/api/v1/generated/7").ifNoneMatch("\"abc\""));
+
+        // When
+        filter(cache).filter(exchange, chain).block();
+
+        // Then
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(exchange.getResponse().getHeaders().getContentType()).isNull();
+        verify(chain, never()).filter(any());
+    }
+
+    @Test
+    void filter_ShouldProxy_WhenPageIsTooLargeToCache() {
+        // Given
+        PublishedPageCache cache = mock(PublishedPageCache.class);
+        when(cache.get(eq(7L), any())).thenReturn(Mono.just(new PublishedPageCache.Page(
+            PublishedPageCache.Page.Kind.TOO_LARGE, new byte[0], HttpHeaders.EMPTY)));
+        GatewayFilterChain chain = mock(GatewayFilterChain.class);
+        when(chain.filter(any())).thenReturn(Mono.empty());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/generated/7"));
+
+        // When
+        filter(cache).filter(exchange, chain).block();
+
+        // Then
+        verify(chain).filter(exchange);
+    }
+
+    private static PublishedPageCacheFilter filter(PublishedPageCache cache) {
+        PublishedPageCacheFilter filter = new PublishedPageCacheFilter(cache);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        return filter;
+    }
+}
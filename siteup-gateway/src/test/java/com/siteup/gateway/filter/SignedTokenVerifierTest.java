@@ -0,0 +1,121 @@
+package com.siteup.gateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignedTokenVerifierTest {
+
+    private static final Base64.Encoder B64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private KeyPair keyPair;
+    private SignedTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        // 未知 kid 触发的后台刷新不访问网络
+        WebClient.Builder builder = WebClient.builder()
+            .exchangeFunction(request -> Mono.error(new IllegalStateException("siteup-auth unavailable")));
+        verifier = new SignedTokenVerifier(builder, objectMapper);
+        verifier.apply(keySet(List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        verifier.shutdown();
+    }
+
+    @Test
+    void verify_ShouldReturnClaims_WhenSignatureAndExpiryAreValid() throws Exception {
+        // When
+        Map<String, Object> result = verifier.verify(token("kid-1", "jti-1", 3600));
+
+        // Then
+        assertThat(result.get("valid")).isEqualTo(true);
+        assertThat(result.get("userId")).isEqualTo(1);
+        assertThat(result.get("username")).isEqualTo("testuser");
+        assertThat(result.get("role")).isEqualTo("USER");
+    }
+
+    @Test
+    void verify_ShouldRejectTamperedExpiredAndUnknownTokens() throws Exception {
+        // Given
+        String[] valid = token("kid-1", "jti-1", 3600).split("\\.");
+        String[] admin = token("kid-1", "jti-2", "ADMIN", 3600).split("\\.");
+
+        // When & Then
+        assertThat(verifier.verify("siteup-token-abc")).isNull();
+        assertThat(verifier.verify(token("kid-unknown", "jti-3", 3600))).isNull();
+        assertThat(verifier.verify(valid[0] + "." + valid[1] + "." + admin[2] + "." + valid[3]).get("valid"))
+            .isEqualTo(false);
+        assertThat(verifier.verify(token("kid-1", "jti-4", -10)).get("message")).isEqualTo("Token expired");
+        assertThat(verifier.verify("st1.kid-1.e30").get("valid")).isEqualTo(false);
+    }
+
+    @Test
+    void apply_ShouldKeepPushedJtis_AndPruneByExpiry() throws Exception {
+        // Given：刷新期间推送了 jti-1，另有一条推送时已过期的 jti-2
+        long now = Instant.now().getEpochSecond();
+        verifier.revoke(List.of("jti-1"), Map.of("jti-1", now + 3600));
+        verifier.revoke(List.of("jti-2"), Map.of("jti-2", now - 1));
+
+        // When：拉取到的快照早于推送，不包含 jti-1
+        verifier.apply(keySet(List.of("jti-3"), Map.of("jti-3", now + 3600)));
+
+        // Then
+        assertThat(verifier.verify(token("kid-1", "jti-1", 3600)).get("message")).isEqualTo("Token revoked");
+        assertThat(verifier.verify(token("kid-1", "jti-2", 3600)).get("valid")).isEqualTo(true);
+        assertThat(verifier.verify(token("kid-1", "jti-3", 3600)).get("message")).isEqualTo("Token revoked");
+    }
+
+    private Map<String, Object> keySet(List<String> revoked) {
+        return keySet(revoked, Map.of());
+    }
+
+    private Map<String, Object> keySet(List<String> revoked, Map<String, Long> revokedExpiresAt) {
+        return Map.of(
+            "keys", List.of(Map.of(
+                "kid", "kid-1",
+                "alg", "Ed25519",
+                "publicKey", Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()))),
+            "revoked", revoked,
+            "revokedExpiresAt", revokedExpiresAt);
+    }
+
+    private String token(String kid, String jti, long ttlSeconds) throws Exception {
+        return token(kid, jti, "USER", ttlSeconds);
+    }
+
+    private String token(String kid, String jti, String role, long ttlSeconds) throws Exception {
+        long now = Instant.now().getEpochSecond();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("jti", jti);
+        payload.put("uid", 1);
+        payload.put("sub", "testuser");
+        payload.put("role", role);
+        payload.put("iat", now);
+        payload.put("exp", now + ttlSeconds);
+        String signingInput = SignedTokenVerifier.PREFIX + kid + "." + B64URL.encodeToString(objectMapper.writeValueAsBytes(payload));
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + B64URL.encodeToString(signature.sign());
+    }
+}